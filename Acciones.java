@@ -0,0 +1,112 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Marcas de acción semántica dentro de las producciones. Se escriben en la
+ * notación de gramatica.bnf, con la marca como un símbolo más que empieza
+ * con '#':
+ *
+ *     FUNC -> #inicioFuncion favor CFUNC :)
+ *
+ * Al cargar la tabla cada producción marcada se busca por cabeza y cuerpo
+ * (sin las marcas) y su cuerpo se reemplaza por uno con las marcas
+ * resueltas a ids enteros a partir de tabla.simbolos(), que no chocan con
+ * ningún símbolo. Así las marcas viajan en la pila como cualquier símbolo
+ * y el driver dispara la acción al desapilarlas: en O(1) y solo en las
+ * producciones marcadas. La tabla no cambia; las marcas no son terminales
+ * ni no terminales para ella.
+ */
+final class Acciones {
+    private final int primera;
+    private final String[] nombres;
+    private final int[][] cuerpos;    // por producción, en orden de apilado; null si ninguna celda la usa
+
+    private Acciones(int primera, String[] nombres, int[][] cuerpos) {
+        this.primera = primera;
+        this.nombres = nombres;
+        this.cuerpos = cuerpos;
+    }
+
+    /**
+     * @param nombres  acciones válidas; la marca #nombres[k] es la acción k
+     * @param marcadas producciones con sus marcas, una por elemento
+     * @throws IllegalArgumentException si una marca no existe o una
+     *                                  producción marcada no está en la tabla
+     */
+    static Acciones resolver(TablaAnalisis tabla, String[] nombres, String... marcadas) {
+        int simbolos = tabla.simbolos();
+        int producciones = 0;
+        for (int nt = 0; nt < simbolos && tabla.esNoTerminal(nt); nt++) {
+            for (int t = 0; t < simbolos; t++) producciones = Math.max(producciones, tabla.buscar(nt, t) + 1);
+        }
+
+        int[][] cuerpos = new int[producciones][];
+        for (int nt = 0; nt < simbolos && tabla.esNoTerminal(nt); nt++) {
+            for (int t = 0; t < simbolos; t++) {
+                int produccion = tabla.buscar(nt, t);
+                if (produccion >= 0) cuerpos[produccion] = tabla.cuerpo(produccion);
+            }
+        }
+
+        List<String> acciones = Arrays.asList(nombres);
+        for (String marcada : marcadas) {
+            int flecha = marcada.indexOf("->");
+            int cabeza = tabla.id(marcada.substring(0, flecha).trim());
+            if (cabeza < 0 || !tabla.esNoTerminal(cabeza)) {
+                throw new IllegalArgumentException("cabeza desconocida en '" + marcada + "'");
+            }
+
+            // En orden de apilado, como los guarda la tabla
+            List<Integer> conMarcas = new ArrayList<>();
+            List<Integer> sinMarcas = new ArrayList<>();
+            String[] cuerpo = marcada.substring(flecha + 2).trim().split("\\s+");
+            for (int k = cuerpo.length - 1; k >= 0; k--) {
+                String simbolo = cuerpo[k];
+                if (simbolo.isEmpty() || TablaTAS.isEpsilon(simbolo)) continue;
+                if (simbolo.startsWith("#")) {
+                    int accion = acciones.indexOf(simbolo.substring(1));
+                    if (accion < 0) throw new IllegalArgumentException("acción desconocida " + simbolo + " en '" + marcada + "'");
+                    conMarcas.add(simbolos + accion);
+                } else {
+                    int id = tabla.id(simbolo);
+                    if (id < 0) throw new IllegalArgumentException("símbolo desconocido '" + simbolo + "' en '" + marcada + "'");
+                    conMarcas.add(id);
+                    sinMarcas.add(id);
+                }
+            }
+
+            int[] buscado = sinMarcas.stream().mapToInt(Integer::intValue).toArray();
+            boolean encontrada = false;
+            for (int t = 0; t < simbolos; t++) {
+                int produccion = tabla.buscar(cabeza, t);
+                if (produccion >= 0 && Arrays.equals(tabla.cuerpo(produccion), buscado)) {
+                    cuerpos[produccion] = conMarcas.stream().mapToInt(Integer::intValue).toArray();
+                    encontrada = true;
+                }
+            }
+            if (!encontrada) throw new IllegalArgumentException("producción marcada que no está en la tabla: " + marcada);
+        }
+        return new Acciones(simbolos, nombres, cuerpos);
+    }
+
+    /** Cuerpo a apilar, con las marcas; el de la tabla si la producción no tiene. */
+    int[] cuerpo(int produccion) {
+        return cuerpos[produccion];
+    }
+
+    boolean esAccion(int simbolo) {
+        return simbolo >= primera;
+    }
+
+    /** Índice de la acción de una marca. */
+    int accion(int simbolo) {
+        return simbolo - primera;
+    }
+
+    String nombre(int simbolo) {
+        return "#" + nombres[simbolo - primera];
+    }
+}
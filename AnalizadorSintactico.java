@@ -1,12 +1,18 @@
 package lexico;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.concurrent.CancellationException;
 
 public class AnalizadorSintactico {
     private static final String SEPARATOR = "=".repeat(140);
@@ -15,23 +21,164 @@ public class AnalizadorSintactico {
     };
     private static boolean hadError = false;
 
+    // Presupuesto de memoria nativa para los tokens; -1 los guarda en el heap
+    private static long offHeapBudget = -1;
+    // Escaneo en paralelo por tramos (necesita el fuente completo en memoria)
+    private static boolean parallel = false;
+    // Motor léxico de tabla (LexerDfa) en lugar del switch escrito a mano
+    private static boolean dfa = false;
+    // Scanner y Parser en hilos separados, comunicados por una cola acotada
+    private static boolean pipeline = false;
+    // Tabla compilada por GeneradorParser en lugar de cargar el XLSX
+    private static boolean generated = false;
+    // Gramática BNF de la que se deriva la tabla en lugar de leer la planilla
+    private static String grammar = null;
+    // Colapsa las cadenas de derivaciones de la tabla (la traza resume cada cadena en una línea)
+    private static boolean optimize = false;
+    // Nivel de la traza del Parser y a dónde va: consola, archivo y/o anillo de los últimos eventos
+    private static Traza.Nivel traceLevel = Traza.Nivel.COMPLETA;
+    private static String traceFile = null;
+    private static int traceRing = 0;
+    // Arma el árbol sintáctico y lo imprime al final
+    private static boolean ast = false;
+    // Se recupera de los errores de sintaxis y los informa todos
+    private static boolean recover = false;
+    // Verificaciones semánticas apagadas
+    private static final EnumSet<Parser.Verificacion> disabledChecks = EnumSet.noneOf(Parser.Verificacion.class);
+
     public static void main(String[] args) throws IOException {
-        if (args.length > 1) {
-            System.out.println("Uso: java AnalizadorCompleto [archivo]");
-            System.exit(64);
-        } else if (args.length == 1) {
-            runFile(args[0]);
+        String path = null;
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                if (!parseOption(arg)) usage();
+            } else if (path == null) {
+                path = arg;
+            } else {
+                usage();
+            }
+        }
+
+        if (path != null) {
+            runFile(path);
         } else {
             runPrompt();
         }
     }
 
+    private static boolean parseOption(String arg) {
+        if (arg.equals("--parallel")) {
+            parallel = true;
+            return true;
+        }
+        if (arg.equals("--dfa")) {
+            dfa = true;
+            return true;
+        }
+        if (arg.equals("--pipeline")) {
+            pipeline = true;
+            return true;
+        }
+        if (arg.equals("--generated")) {
+            generated = true;
+            return true;
+        }
+        if (arg.startsWith("--trace=")) {
+            switch (arg.substring("--trace=".length())) {
+                case "off": traceLevel = Traza.Nivel.APAGADA; return true;
+                case "summary": traceLevel = Traza.Nivel.RESUMEN; return true;
+                case "actions": traceLevel = Traza.Nivel.ACCIONES; return true;
+                case "full": traceLevel = Traza.Nivel.COMPLETA; return true;
+                default: return false;
+            }
+        }
+        if (arg.startsWith("--trace-file=")) {
+            traceFile = arg.substring("--trace-file=".length());
+            return !traceFile.isEmpty();
+        }
+        if (arg.startsWith("--trace-ring=")) {
+            try {
+                traceRing = Integer.parseInt(arg.substring("--trace-ring=".length()));
+                return traceRing > 0;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        if (arg.startsWith("--no-check=")) {
+            for (String check : arg.substring("--no-check=".length()).split(",")) {
+                try {
+                    disabledChecks.add(Parser.Verificacion.valueOf(check.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (arg.equals("--recover")) {
+            recover = true;
+            return true;
+        }
+        if (arg.equals("--ast")) {
+            ast = true;
+            return true;
+        }
+        if (arg.equals("--optimize")) {
+            optimize = true;
+            return true;
+        }
+        if (arg.equals("--grammar")) {
+            grammar = "gramatica.bnf";
+            return true;
+        }
+        if (arg.startsWith("--grammar=")) {
+            grammar = arg.substring("--grammar=".length());
+            return !grammar.isEmpty();
+        }
+        if (arg.equals("--offheap")) {
+            offHeapBudget = TokenArena.PRESUPUESTO_POR_DEFECTO;
+            return true;
+        }
+        if (arg.startsWith("--offheap=")) {
+            try {
+                offHeapBudget = Long.parseLong(arg.substring("--offheap=".length())) * 1024 * 1024;
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void usage() {
+        System.out.println("Uso: java AnalizadorCompleto [--offheap[=MB]] [--parallel] [--dfa] [--pipeline] [--generated] [--grammar[=archivo]] [--optimize] [--recover] [--no-check=flujo,yo,switch,arreglos,condiciones] [--ast]"
+                + " [--trace=off|summary|actions|full] [--trace-file=archivo] [--trace-ring=N] [archivo]");
+        System.out.println("Con --trace=off no se imprime el veredicto: termina con código 65 ante errores de sintaxis o semánticos.");
+        System.exit(64);
+    }
+
     private static void runFile(String path) throws IOException {
-        byte[] bytes = Files.readAllBytes(Paths.get(path));
-        run(new String(bytes, Charset.defaultCharset()));
+        if (parallel) {
+            String source = Files.readString(Paths.get(path), Charset.defaultCharset());
+            printLexicalHeader();
+            analyze(ParallelLexer.scan(source));
+            if (hadError) System.exit(65);
+            return;
+        }
+
+        // El archivo se lee en streaming: nunca se materializa completo como String
+        try (Reader reader = openSource(Paths.get(path))) {
+            run(new Scanner(reader));
+        }
         if (hadError) System.exit(65);
     }
 
+    private static Reader openSource(Path path) throws IOException {
+        // En UTF-8 el archivo se mapea en memoria y se decodifica con el camino rápido ASCII
+        if (Charset.defaultCharset().equals(StandardCharsets.UTF_8)) {
+            return new MappedUtf8Reader(path);
+        }
+        return new InputStreamReader(Files.newInputStream(path), Charset.defaultCharset());
+    }
+
     private static void runPrompt() throws IOException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
             StringBuilder code = new StringBuilder();
@@ -45,7 +192,7 @@ public class AnalizadorSintactico {
 
                 if (line.trim().equals("#")) {
                     if (code.length() > 0) {
-                        run(code.toString());
+                        run(new Scanner(code.toString()));
                         code.setLength(0);
                     } else {
                         System.out.println("- No hay código que analizar");
@@ -73,18 +220,65 @@ public class AnalizadorSintactico {
         System.out.println("Termine escribiendo '#' en una línea sola.\n");
     }
 
-    private static void run(String source) {
+    private static void printLexicalHeader() {
         // ANÁLISIS LÉXICO
         System.out.println("\n" + SEPARATOR);
         System.out.println("                                                        ANÁLISIS LÉXICO");
         System.out.println(SEPARATOR);
+    }
+
+    private static void run(Scanner scanner) throws IOException {
+        printLexicalHeader();
+        scanner.usarDfa(dfa);
 
-        Scanner scanner = new Scanner(source);
-        List<Token> tokens = scanner.scanTokens();
+        if (pipeline) {
+            runPipelined(scanner);
+        } else if (offHeapBudget >= 0) {
+            // Tokens fuera del heap, volcados a disco si superan el presupuesto
+            try (TokenArena arena = new TokenArena(offHeapBudget)) {
+                scanner.scanInto(arena);
+                analyze(arena);
+            }
+        } else {
+            analyze(scanner.scanBuffer());
+        }
+    }
+
+    /**
+     * El Scanner produce en su propio hilo mientras el Parser consume, así
+     * que la tabla de tokens no se imprime y los errores léxicos se informan
+     * al final (el Parser se detiene en el primero como error de sintaxis).
+     */
+    private static void runPipelined(Scanner scanner) {
+        TokenRing ring = new TokenRing();
+        Thread lexer = new Thread(() -> {
+            try {
+                scanner.scanInto(ring);
+                ring.cerrar(null);
+            } catch (CancellationException e) {
+                ring.cerrar(null);
+            } catch (Throwable t) {
+                ring.cerrar(t);
+            }
+        }, "scanner");
+        lexer.setDaemon(true);
+        lexer.start();
+
+        System.out.println("\n- Modo pipeline: los tokens se analizan a medida que se escanean.");
+        performSyntaxAnalysis(ring);
+        ring.cancelar();
+
+        if (ring.lexicalErrors() > 0) {
+            System.out.println("\n- Se encontraron errores léxicos.");
+            hadError = true;
+        }
+    }
 
+    private static void analyze(TokenCursor tokens) {
         printTokens(tokens);
 
         if (hasLexicalErrors(tokens)) {
+            printLexicalErrors(tokens);
             System.out.println("\n- Se encontraron errores léxicos. No se puede continuar.");
             hadError = true;
             return;
@@ -97,28 +291,65 @@ public class AnalizadorSintactico {
         performSyntaxAnalysis(tokens);
     }
 
-    private static void printTokens(List<Token> tokens) {
+    private static void printTokens(TokenCursor tokens) {
         System.out.println();
         System.out.printf("%-35s | %-35s | %-35s | %-35s%n", "Token", "Lexema", "Literal", "Categoría");
         System.out.println("-".repeat(140));
-        tokens.forEach(System.out::println);
+        for (int i = 0; i < tokens.size(); i++) {
+            System.out.println(Token.format(tokens.type(i), tokens.lexeme(i), tokens.literal(i)));
+        }
     }
 
-    private static boolean hasLexicalErrors(List<Token> tokens) {
-        return tokens.stream().anyMatch(t -> t.type == TokenType.ERROR);
+    private static boolean hasLexicalErrors(TokenCursor tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.type(i) == TokenType.ERROR) return true;
+        }
+        return false;
     }
 
-    private static void performSyntaxAnalysis(List<Token> tokens) {
+    private static void printLexicalErrors(TokenCursor tokens) {
+        System.out.println();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.type(i) == TokenType.ERROR) {
+                System.out.println("  ✗ " + tokens.literal(i) + " (" + tokens.position(i) + ")");
+            }
+        }
+    }
+
+    private static void performSyntaxAnalysis(TokenCursor tokens) {
         try {
             Parser parser = new Parser();
             System.out.println("\nCargando tabla de análisis sintáctico...");
 
-            if (!loadParserTable(parser)) {
+            if (generated) {
+                parser.usarTabla(TablaGenerada.INSTANCIA);
+            } else if (grammar != null) {
+                parser.cargarTAS(grammar);
+            } else if (!loadParserTable(parser)) {
                 System.err.println("\n✗ No se pudo cargar el archivo CSV.");
                 promptManualPath(parser);
             }
 
-            parser.analizar(tokens);
+            if (optimize) parser.optimizar();
+            parser.construirArbol(ast);
+            parser.recuperarErrores(recover);
+            for (Parser.Verificacion check : disabledChecks) parser.desactivar(check);
+
+            Traza.Anillo ring = traceRing > 0 ? new Traza.Anillo(traceRing) : null;
+            Traza traza = buildTrace(ring);
+            parser.usarTraza(traza);
+            try {
+                // El veredicto va al código de salida aunque la traza no anote nada
+                boolean aceptada = parser.analizar(tokens);
+                if (!aceptada && ring != null) ring.volcar(System.out);
+                if (!aceptada || parser.cantidadErroresSemanticos() > 0) hadError = true;
+                if (ast) {
+                    System.out.println("\nÁRBOL SINTÁCTICO (" + parser.arbol().size() + " nodos)");
+                    parser.imprimirArbol(System.out);
+                }
+            } finally {
+                traza.cerrar();
+            }
 
         } catch (IOException e) {
             System.err.println("✗ Error al cargar la tabla TAS: " + e.getMessage());
@@ -131,6 +362,19 @@ public class AnalizadorSintactico {
         }
     }
 
+    /** Consola salvo que se pida archivo o anillo; ambos pueden ir juntos. */
+    private static Traza buildTrace(Traza.Anillo ring) throws IOException {
+        Traza traza = new Traza(traceLevel);
+        if (traceFile != null) {
+            PrintStream out = new PrintStream(new BufferedOutputStream(Files.newOutputStream(Paths.get(traceFile))),
+                    false, StandardCharsets.UTF_8);
+            traza.agregar(new Traza.Consola(out, false));
+        }
+        if (ring != null) traza.agregar(ring);
+        if (traceFile == null && ring == null) traza.agregar(new Traza.Consola(System.out, true));
+        return traza;
+    }
+
     private static boolean loadParserTable(Parser parser) {
         for (String path : CSV_PATHS) {
             try {
@@ -0,0 +1,182 @@
+package lexico;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Árbol sintáctico que arma el driver LL(1) a partir de sus derivaciones y
+ * matches, guardado como arena de columnas int paralelas: símbolo (el id de
+ * la tabla), primer hijo, siguiente hermano, token y un dato. Un nodo es un
+ * índice; no hay un objeto por nodo. Los hijos de una derivación se crean
+ * juntos y en orden de lectura, así que los hermanos quedan contiguos y
+ * recorrer el árbol es recorrer arreglos casi en secuencia.
+ *
+ * El dato de un no terminal es la producción con que se derivó (-1 si la
+ * entrada terminó antes); el de un terminal, el id de su lexema en
+ * {@link Interner#COMPARTIDO}, para que las pasadas posteriores lean
+ * nombres y literales aunque el cursor ya haya descartado los tokens.
+ *
+ * La arena se reutiliza entre análisis ({@link #reiniciar}); un mismo
+ * árbol puede alimentar cualquier cantidad de pasadas.
+ */
+final class ArbolSintactico {
+    static final int NINGUNO = -1;
+
+    private int[] simbolos = new int[256];
+    private int[] primerHijo = new int[256];
+    private int[] siguienteHermano = new int[256];
+    private int[] tokens = new int[256];
+    private int[] datos = new int[256];
+    private int cantidad = 0;
+
+    /** Vacía la arena conservando la capacidad. */
+    void reiniciar() {
+        cantidad = 0;
+    }
+
+    // =============================================================================
+    // CONSULTA
+    // =============================================================================
+
+    /** La raíz es siempre el primer nodo; NINGUNO si el árbol está vacío. */
+    int raiz() {
+        return cantidad > 0 ? 0 : NINGUNO;
+    }
+
+    int size() {
+        return cantidad;
+    }
+
+    int simbolo(int nodo) {
+        return simbolos[nodo];
+    }
+
+    int primerHijo(int nodo) {
+        return primerHijo[nodo];
+    }
+
+    int siguienteHermano(int nodo) {
+        return siguienteHermano[nodo];
+    }
+
+    /** Índice del token de un terminal ya consumido; NINGUNO en los no terminales. */
+    int token(int nodo) {
+        return tokens[nodo];
+    }
+
+    /** Producción aplicada a un no terminal, o NINGUNO si no se llegó a derivar. */
+    int produccion(int nodo) {
+        return tokens[nodo] == NINGUNO ? datos[nodo] : NINGUNO;
+    }
+
+    /** Id internado del lexema de un terminal consumido, o NINGUNO. */
+    int lexema(int nodo) {
+        return tokens[nodo] != NINGUNO ? datos[nodo] : NINGUNO;
+    }
+
+    // =============================================================================
+    // CONSTRUCCIÓN (desde el driver)
+    // =============================================================================
+
+    int nuevo(int simbolo) {
+        if (cantidad == simbolos.length) crecer(cantidad + 1);
+        int nodo = cantidad++;
+        simbolos[nodo] = simbolo;
+        primerHijo[nodo] = NINGUNO;
+        siguienteHermano[nodo] = NINGUNO;
+        tokens[nodo] = NINGUNO;
+        datos[nodo] = NINGUNO;
+        return nodo;
+    }
+
+    /**
+     * Deriva el nodo con la producción: crea un hijo por símbolo del cuerpo
+     * (dado en orden de apilado, como lo guarda la tabla) y deja en
+     * destino[desde + k] el nodo del símbolo cuerpo[k], alineado con la pila.
+     * Los ids desde {@code primeraAccion} son marcas de acción: ocupan su lugar
+     * en la pila pero no son nodos.
+     */
+    void derivar(int nodo, int produccion, int[] cuerpo, int primeraAccion, int[] destino, int desde) {
+        datos[nodo] = produccion;
+        if (cantidad + cuerpo.length > simbolos.length) crecer(cantidad + cuerpo.length);
+
+        int anterior = NINGUNO;
+        for (int k = cuerpo.length - 1; k >= 0; k--) {
+            if (cuerpo[k] >= primeraAccion) {
+                destino[desde + k] = NINGUNO;
+                continue;
+            }
+            int hijo = nuevo(cuerpo[k]);
+            if (anterior == NINGUNO) {
+                primerHijo[nodo] = hijo;
+            } else {
+                siguienteHermano[anterior] = hijo;
+            }
+            destino[desde + k] = hijo;
+            anterior = hijo;
+        }
+    }
+
+    void consumir(int nodo, int token, int lexema) {
+        tokens[nodo] = token;
+        datos[nodo] = lexema;
+    }
+
+    private void crecer(int minimo) {
+        int capacidad = Math.max(simbolos.length * 2, minimo);
+        simbolos = Arrays.copyOf(simbolos, capacidad);
+        primerHijo = Arrays.copyOf(primerHijo, capacidad);
+        siguienteHermano = Arrays.copyOf(siguienteHermano, capacidad);
+        tokens = Arrays.copyOf(tokens, capacidad);
+        datos = Arrays.copyOf(datos, capacidad);
+    }
+
+    // =============================================================================
+    // VOLCADO
+    // =============================================================================
+
+    /**
+     * Un nodo por línea, indentado por profundidad; los terminales con su
+     * lexema. Los no terminales derivados en ε se omiten. Iterativo: la
+     * profundidad del árbol no está acotada por la pila de Java.
+     */
+    void imprimir(PrintStream out, TablaAnalisis tabla) {
+        if (cantidad == 0) return;
+        int[] pendientes = new int[64];
+        int[] profundidades = new int[64];
+        int altura = 0;
+        pendientes[altura] = raiz();
+        profundidades[altura++] = 0;
+
+        StringBuilder sb = new StringBuilder();
+        while (altura > 0) {
+            altura--;
+            int nodo = pendientes[altura];
+            int profundidad = profundidades[altura];
+            if (siguienteHermano[nodo] != NINGUNO) {
+                pendientes[altura] = siguienteHermano[nodo];
+                profundidades[altura++] = profundidad;
+            }
+
+            boolean terminal = !tabla.esNoTerminal(simbolos[nodo]);
+            if (!terminal && datos[nodo] != NINGUNO && primerHijo[nodo] == NINGUNO) continue;
+
+            sb.setLength(0);
+            sb.append("  ".repeat(profundidad)).append(tabla.simbolo(simbolos[nodo]));
+            if (terminal && tokens[nodo] != NINGUNO) {
+                String lexema = Interner.COMPARTIDO.texto(datos[nodo]);
+                if (!lexema.equals(tabla.simbolo(simbolos[nodo]))) sb.append(" '").append(lexema).append('\'');
+            }
+            out.println(sb);
+
+            if (primerHijo[nodo] != NINGUNO) {
+                if (altura == pendientes.length) {
+                    pendientes = Arrays.copyOf(pendientes, altura * 2);
+                    profundidades = Arrays.copyOf(profundidades, altura * 2);
+                }
+                pendientes[altura] = primerHijo[nodo];
+                profundidades[altura++] = profundidad + 1;
+            }
+        }
+    }
+}
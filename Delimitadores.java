@@ -0,0 +1,74 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Empareja paréntesis, llaves y corchetes a medida que los almacenes reciben
+ * los tokens, para que {@link TokenCursor#partner(int)} responda sin
+ * recorrer la secuencia. Hay una pila por clase de delimitador, así que cada
+ * clase se empareja por su cuenta, igual que el conteo de paréntesis que
+ * hacía el Parser: un ']' suelto no rompe los pares de '(' y ')'.
+ *
+ * El Parser ya no lee estas parejas: con el cursor en streaming solo
+ * retiene unos pocos tokens detrás del actual, así que una condición no
+ * se puede releer desde su '(' hasta la pareja y se junta a medida que se
+ * consume, y el cuerpo de principalsito se marca desde su oyente. Las
+ * parejas quedan para quien recorra un almacén completo (TokenBuffer,
+ * TokenArena) y para comparar resultados del lexer.
+ */
+final class Delimitadores {
+	static final int SIN_PAREJA = -1;
+
+	private static final int PARENTESIS = 0;
+	private static final int LLAVES = 1;
+	private static final int CORCHETES = 2;
+
+	private final int[][] pilas = new int[3][16];
+	private final int[] alturas = new int[3];
+
+	static boolean esDelimitador(TokenType type) {
+		switch (type) {
+			case PAREN_IZQ:
+			case PAREN_DER:
+			case LLAVE_IZQ:
+			case LLAVE_DER:
+			case CORCHETE_IZQ:
+			case CORCHETE_DER:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	static boolean esApertura(TokenType type) {
+		return type == TokenType.PAREN_IZQ || type == TokenType.LLAVE_IZQ || type == TokenType.CORCHETE_IZQ;
+	}
+
+	/**
+	 * Registra el token i. Si es un cierre devuelve el índice de la apertura
+	 * que le corresponde; en cualquier otro caso, SIN_PAREJA.
+	 */
+	int registrar(TokenType type, int i) {
+		switch (type) {
+			case PAREN_IZQ: return abrir(PARENTESIS, i);
+			case LLAVE_IZQ: return abrir(LLAVES, i);
+			case CORCHETE_IZQ: return abrir(CORCHETES, i);
+			case PAREN_DER: return cerrar(PARENTESIS);
+			case LLAVE_DER: return cerrar(LLAVES);
+			case CORCHETE_DER: return cerrar(CORCHETES);
+			default: return SIN_PAREJA;
+		}
+	}
+
+	private int abrir(int clase, int i) {
+		if (alturas[clase] == pilas[clase].length) {
+			pilas[clase] = Arrays.copyOf(pilas[clase], alturas[clase] * 2);
+		}
+		pilas[clase][alturas[clase]++] = i;
+		return SIN_PAREJA;
+	}
+
+	private int cerrar(int clase) {
+		return alturas[clase] == 0 ? SIN_PAREJA : pilas[clase][--alturas[clase]];
+	}
+}
@@ -0,0 +1,81 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reparte los matches del Parser entre oyentes suscritos por id de
+ * terminal. Cada terminal tiene su arreglo de oyentes, armado una vez, así
+ * que publicar es un acceso por índice y un recorrido de los que se
+ * anotaron para ese terminal. El Parser pregunta {@link #escucha} antes de
+ * armar el Token del match, así que un terminal sin oyentes (o una
+ * verificación desactivada, que directamente no se suscribe) no cuesta ni
+ * esa lectura del cursor.
+ *
+ * Los oyentes de un mismo terminal corren en el orden en que se
+ * suscribieron, contando los que se suscriben a todos los terminales, así
+ * que el orden de los efectos no depende de cómo se agruparon.
+ */
+final class Eventos {
+    interface Oyente {
+        void match(int terminal, Token token);
+    }
+
+    private static final Oyente[] NINGUNO = new Oyente[0];
+
+    private final int simbolos;
+    // Suscripciones en orden: terminal (o -1 para todos) y oyente
+    private final List<Integer> terminales = new ArrayList<>();
+    private final List<Oyente> oyentes = new ArrayList<>();
+    private Oyente[][] porTerminal;
+
+    Eventos(int simbolos) {
+        this.simbolos = simbolos;
+    }
+
+    /** Suscribe el oyente a cada uno de los terminales; los ids negativos (ausentes de la tabla) se ignoran. */
+    Eventos en(Oyente oyente, int... terminales) {
+        for (int terminal : terminales) {
+            if (terminal < 0) continue;
+            this.terminales.add(terminal);
+            oyentes.add(oyente);
+        }
+        porTerminal = null;
+        return this;
+    }
+
+    /** Suscribe el oyente a todo match. */
+    Eventos enTodos(Oyente oyente) {
+        terminales.add(-1);
+        oyentes.add(oyente);
+        porTerminal = null;
+        return this;
+    }
+
+    /** Si algún oyente está suscrito al terminal. */
+    boolean escucha(int terminal) {
+        if (porTerminal == null) porTerminal = agrupar();
+        return porTerminal[terminal].length > 0;
+    }
+
+    void publicar(int terminal, Token token) {
+        if (porTerminal == null) porTerminal = agrupar();
+        for (Oyente oyente : porTerminal[terminal]) oyente.match(terminal, token);
+    }
+
+    private Oyente[][] agrupar() {
+        Oyente[][] agrupados = new Oyente[simbolos][];
+        Arrays.fill(agrupados, NINGUNO);
+        for (int k = 0; k < oyentes.size(); k++) {
+            int terminal = terminales.get(k);
+            int desde = terminal < 0 ? 0 : terminal;
+            int hasta = terminal < 0 ? simbolos : terminal + 1;
+            for (int t = desde; t < hasta; t++) {
+                agrupados[t] = Arrays.copyOf(agrupados[t], agrupados[t].length + 1);
+                agrupados[t][agrupados[t].length - 1] = oyentes.get(k);
+            }
+        }
+        return agrupados;
+    }
+}
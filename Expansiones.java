@@ -0,0 +1,105 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Pasada de optimización sobre una tabla ya cargada: para cada celda
+ * (noTerminal, terminal) precalcula toda la cadena de derivaciones que el
+ * Parser haría con ese terminal adelante antes de poder consumirlo. Las
+ * cadenas de producciones unitarias (A -> B, B -> C x) y los no terminales
+ * que se van en ε quedan en una sola expansión: se desapila el no terminal
+ * y se apila de una vez el segmento final, en lugar de un pop y un push por
+ * paso.
+ *
+ * El lenguaje reconocido no cambia: mientras no se consume un terminal la
+ * pila evoluciona de forma determinista según (tope, terminal), así que la
+ * expansión es exactamente la composición de los pasos que haría el driver.
+ * La cadena se corta donde el driver paso a paso también se detendría: con
+ * un terminal en el tope (el próximo match), con el segmento vacío (sigue lo
+ * que estaba debajo, desconocido acá) o ante una celda vacía, que queda para
+ * que el driver informe el error en el mismo estado de pila que antes.
+ *
+ * Con las marcas de {@link Acciones}, las que llegan al tope durante la
+ * expansión (no hay matches en el medio) se sacan del segmento y se
+ * guardan en orden, para que el Parser las dispare igual que si las
+ * hubiera desapilado; las que quedan debajo viajan en el segmento.
+ */
+final class Expansiones {
+    // Una tabla LL(1) sin recursión izquierda nunca llega; corta un ciclo de una planilla mal editada
+    private static final int MAXIMO_PASOS = 64;
+
+    static final class Expansion {
+        final int[] segmento;          // reemplaza al no terminal; el tope es el último
+        final int primera;             // producción de la celda, la que aplicaría el driver paso a paso
+        final int pasos;               // derivaciones que resume
+        final int[] acciones;          // marcas desapiladas durante la expansión, en orden
+
+        private Expansion(int[] segmento, int primera, int pasos, int[] acciones) {
+            this.segmento = segmento;
+            this.primera = primera;
+            this.pasos = pasos;
+            this.acciones = acciones;
+        }
+    }
+
+    private final Expansion[][] filas;   // [noTerminal][terminal]; null donde la celda está vacía
+
+    private Expansiones(Expansion[][] filas) {
+        this.filas = filas;
+    }
+
+    /** @param acciones marcas de las producciones, o null para los cuerpos de la tabla tal cual */
+    static Expansiones calcular(TablaAnalisis tabla, Acciones acciones) {
+        int simbolos = tabla.simbolos();
+        int noTerminales = 0;
+        while (noTerminales < simbolos && tabla.esNoTerminal(noTerminales)) noTerminales++;
+
+        Expansion[][] filas = new Expansion[noTerminales][];
+        for (int nt = 0; nt < noTerminales; nt++) {
+            for (int t = noTerminales; t < simbolos; t++) {
+                if (tabla.buscar(nt, t) < 0) continue;
+                if (filas[nt] == null) filas[nt] = new Expansion[simbolos];
+                filas[nt][t] = expandir(tabla, acciones, nt, t);
+            }
+        }
+        return new Expansiones(filas);
+    }
+
+    /** Expansión de la celda, o null si está vacía (error de sintaxis). */
+    Expansion buscar(int noTerminal, int terminal) {
+        if (terminal < 0) return null;
+        Expansion[] fila = filas[noTerminal];
+        return fila != null ? fila[terminal] : null;
+    }
+
+    private static Expansion expandir(TablaAnalisis tabla, Acciones acciones, int nt, int t) {
+        int[] segmento = {nt};
+        int altura = 1;
+        int pasos = 0;
+        int[] disparadas = new int[0];
+
+        while (altura > 0 && pasos < MAXIMO_PASOS) {
+            int tope = segmento[altura - 1];
+            if (acciones != null && acciones.esAccion(tope)) {
+                disparadas = Arrays.copyOf(disparadas, disparadas.length + 1);
+                disparadas[disparadas.length - 1] = tope;
+                altura--;
+                continue;
+            }
+            if (!tabla.esNoTerminal(tope)) break;
+            int produccion = tabla.buscar(tope, t);
+            if (produccion < 0) break;
+
+            int[] cuerpo = acciones != null ? acciones.cuerpo(produccion) : tabla.cuerpo(produccion);
+            altura--;
+            if (altura + cuerpo.length > segmento.length) {
+                segmento = Arrays.copyOf(segmento, Math.max(segmento.length * 2, altura + cuerpo.length));
+            }
+            System.arraycopy(cuerpo, 0, segmento, altura, cuerpo.length);
+            altura += cuerpo.length;
+            pasos++;
+        }
+
+        return new Expansion(Arrays.copyOf(segmento, altura), tabla.buscar(nt, t), pasos, disparadas);
+    }
+}
@@ -0,0 +1,204 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Genera TablaGenerada.java a partir de la hoja de la TAS: los mismos
+ * símbolos, producciones y cuerpos que {@link TablaTAS}, pero como
+ * constantes, y cada fila de la tabla como un método con un switch sobre
+ * el id del terminal. El Parser la usa en lugar de cargar el XLSX
+ * ({@code --generated}), así que el arranque no lee ningún archivo y el JIT
+ * ve código lineal en lugar de accesos a una tabla.
+ *
+ * Con {@code --verificar} no escribe nada: genera en memoria y termina con
+ * error si el archivo existente no coincide, es decir, si la hoja cambió y
+ * la clase quedó desactualizada.
+ *
+ * La fuente puede ser también una gramática .bnf (ver {@link Gramatica}).
+ *
+ * Uso: java lexico.GeneradorParser [--verificar] [tabla.xlsx] [TablaGenerada.java]
+ */
+public class GeneradorParser {
+    private static final String XLSX_POR_DEFECTO = "TABLA_TAS_limpia_final.xlsx";
+    private static final String SALIDA_POR_DEFECTO = "TablaGenerada.java";
+    private static final int SIMBOLOS_POR_LINEA = 8;
+
+    public static void main(String[] args) throws IOException {
+        List<String> rutas = new ArrayList<>(Arrays.asList(args));
+        boolean verificar = rutas.remove("--verificar");
+        if (rutas.size() > 2) {
+            System.out.println("Uso: java GeneradorParser [--verificar] [tabla.xlsx] [TablaGenerada.java]");
+            System.exit(64);
+        }
+        Path xlsx = Paths.get(rutas.size() > 0 ? rutas.get(0) : XLSX_POR_DEFECTO);
+        Path salida = Paths.get(rutas.size() > 1 ? rutas.get(1) : SALIDA_POR_DEFECTO);
+
+        long huella = TablaTAS.huella(Files.readAllBytes(xlsx));
+        TablaTAS tabla = TablaTAS.desdeFuente(xlsx);
+        String codigo = generar(tabla, huella, xlsx.getFileName().toString());
+
+        if (verificar) {
+            if (!Files.exists(salida) || !Files.readString(salida, StandardCharsets.UTF_8).equals(codigo)) {
+                System.out.println("- " + salida + " no corresponde a " + xlsx + ": regenerar con GeneradorParser");
+                System.exit(1);
+            }
+            System.out.println(salida + " está al día con " + xlsx);
+            return;
+        }
+
+        Files.writeString(salida, codigo, StandardCharsets.UTF_8);
+        System.out.println("Generado " + salida + " (" + tabla.noTerminales() + " no terminales, "
+                + tabla.producciones() + " producciones)");
+    }
+
+    static String generar(TablaTAS tabla, long huella, String origen) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package lexico;\n\n");
+        sb.append("import java.util.HashMap;\n");
+        sb.append("import java.util.Map;\n\n");
+        sb.append("/**\n");
+        sb.append(" * Tabla LL(1) compilada a código desde ").append(origen).append(".\n");
+        sb.append(" * Generada por GeneradorParser: no editar a mano, volver a generarla.\n");
+        sb.append(" */\n");
+        sb.append("final class TablaGenerada implements TablaAnalisis {\n");
+        sb.append("    static final TablaGenerada INSTANCIA = new TablaGenerada();\n");
+        sb.append("    static final long HUELLA = 0x").append(Long.toHexString(huella)).append("L;\n\n");
+        sb.append("    private static final int NO_TERMINALES = ").append(tabla.noTerminales()).append(";\n\n");
+
+        sb.append("    private static final String[] SIMBOLOS = {");
+        for (int s = 0; s < tabla.simbolos(); s++) {
+            sb.append(s % SIMBOLOS_POR_LINEA == 0 ? "\n            " : " ");
+            sb.append(literal(tabla.simbolo(s))).append(",");
+        }
+        sb.append("\n    };\n\n");
+
+        sb.append("    private static final String[] PRODUCCIONES = {\n");
+        for (int p = 0; p < tabla.producciones(); p++) {
+            sb.append("            ").append(literal(tabla.texto(p))).append(",\n");
+        }
+        sb.append("    };\n\n");
+
+        sb.append("    private static final int[][] CUERPOS = {\n");
+        for (int p = 0; p < tabla.producciones(); p++) {
+            sb.append("            {");
+            int[] cuerpo = tabla.cuerpo(p);
+            for (int k = 0; k < cuerpo.length; k++) {
+                sb.append(k > 0 ? ", " : "").append(cuerpo[k]);
+            }
+            sb.append("},\n");
+        }
+        sb.append("    };\n\n");
+
+        sb.append("    private static final Map<String, Integer> IDS = new HashMap<>();\n\n");
+        sb.append("    static {\n");
+        sb.append("        for (int s = 0; s < SIMBOLOS.length; s++) IDS.put(SIMBOLOS[s], s);\n");
+        sb.append("    }\n\n");
+        sb.append("    private TablaGenerada() {\n");
+        sb.append("    }\n\n");
+
+        sb.append("    @Override\n");
+        sb.append("    public int id(String simbolo) {\n");
+        sb.append("        Integer id = IDS.get(simbolo);\n");
+        sb.append("        return id != null ? id : -1;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public String simbolo(int id) {\n");
+        sb.append("        return SIMBOLOS[id];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public int simbolos() {\n");
+        sb.append("        return SIMBOLOS.length;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public boolean esNoTerminal(int simbolo) {\n");
+        sb.append("        return simbolo < NO_TERMINALES;\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public String texto(int produccion) {\n");
+        sb.append("        return PRODUCCIONES[produccion];\n");
+        sb.append("    }\n\n");
+        sb.append("    @Override\n");
+        sb.append("    public int[] cuerpo(int produccion) {\n");
+        sb.append("        return CUERPOS[produccion];\n");
+        sb.append("    }\n\n");
+
+        String[] metodos = nombresDeMetodos(tabla);
+        sb.append("    @Override\n");
+        sb.append("    public int buscar(int noTerminal, int terminal) {\n");
+        sb.append("        switch (noTerminal) {\n");
+        for (int nt = 0; nt < tabla.noTerminales(); nt++) {
+            sb.append("            case ").append(nt).append(": return ").append(metodos[nt]).append("(terminal);\n");
+        }
+        sb.append("            default: return -1;\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+
+        for (int nt = 0; nt < tabla.noTerminales(); nt++) {
+            generarFila(sb, tabla, nt, metodos[nt]);
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /** Una fila de la tabla: los terminales que llevan a la misma producción comparten el return. */
+    private static void generarFila(StringBuilder sb, TablaTAS tabla, int nt, String metodo) {
+        Map<Integer, List<Integer>> porProduccion = new LinkedHashMap<>();
+        for (int t = 0; t < tabla.simbolos(); t++) {
+            int produccion = tabla.buscar(nt, t);
+            if (produccion >= 0) porProduccion.computeIfAbsent(produccion, k -> new ArrayList<>()).add(t);
+        }
+
+        sb.append("\n    /** ").append(comentario(tabla.simbolo(nt))).append(" */\n");
+        sb.append("    private static int ").append(metodo).append("(int terminal) {\n");
+        sb.append("        switch (terminal) {\n");
+        for (Map.Entry<Integer, List<Integer>> grupo : porProduccion.entrySet()) {
+            for (int t : grupo.getValue()) {
+                sb.append("            case ").append(t).append(":    // ").append(comentario(tabla.simbolo(t))).append("\n");
+            }
+            sb.append("                return ").append(grupo.getKey()).append(";    // ")
+                    .append(comentario(tabla.texto(grupo.getKey()))).append("\n");
+        }
+        sb.append("            default:\n");
+        sb.append("                return -1;\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+    }
+
+    /** "fila" + el nombre del no terminal como identificador Java, sin repetidos. */
+    private static String[] nombresDeMetodos(TablaTAS tabla) {
+        String[] nombres = new String[tabla.noTerminales()];
+        Set<String> usados = new HashSet<>();
+        for (int nt = 0; nt < nombres.length; nt++) {
+            String base = "fila" + tabla.simbolo(nt).replaceAll("[^A-Za-z0-9_]", "_");
+            String nombre = base;
+            for (int k = 2; !usados.add(nombre); k++) nombre = base + "_" + k;
+            nombres[nt] = nombre;
+        }
+        return nombres;
+    }
+
+    private static String literal(String texto) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /** Texto seguro dentro de un comentario de una línea. */
+    private static String comentario(String texto) {
+        return texto.replace("*/", "* /").replace('\n', ' ').replace('\r', ' ');
+    }
+}
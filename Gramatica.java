@@ -0,0 +1,365 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Gramática en formato BNF y la tabla LL(1) que se deriva de ella con los
+ * conjuntos PRIMEROS y SIGUIENTES. Es la alternativa a mantener la TAS a
+ * mano en la planilla: las celdas salen de la gramática y una celda con dos
+ * producciones se informa como conflicto en lugar de quedar sobrescrita.
+ *
+ * Formato: una regla por cabeza, {@code A -> x y | z}; una línea que empieza
+ * con '|' agrega alternativas a la regla anterior. Los símbolos van separados
+ * por espacios, ε (también λ o &) es la producción vacía y '#' al comienzo
+ * de una línea la comenta. Son no terminales los que aparecen a la izquierda
+ * de alguna regla; la primera regla es la del símbolo inicial.
+ *
+ * Un conflicto se resuelve a favor de la alternativa escrita primero. Como
+ * en yacc, {@code %expect N} declara cuántos conflictos se conocen y se
+ * aceptan; con cualquier otra cantidad la gramática no se carga.
+ *
+ * Uso: java lexico.Gramatica gramatica.bnf [tabla.xlsx]
+ * Informa los conflictos y, con la planilla, las celdas en que difieren.
+ */
+final class Gramatica {
+    static final class Produccion {
+        final String cabeza;
+        final List<String> cuerpo;      // en orden de lectura, sin ε
+        final int linea;
+
+        Produccion(String cabeza, List<String> cuerpo, int linea) {
+            this.cabeza = cabeza;
+            this.cuerpo = cuerpo;
+            this.linea = linea;
+        }
+
+        /** Texto como en la planilla: el cuerpo en el orden en que se apila, o λ. */
+        String textoApilado() {
+            if (cuerpo.isEmpty()) return "λ";
+            StringBuilder sb = new StringBuilder();
+            for (int k = cuerpo.size() - 1; k >= 0; k--) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(cuerpo.get(k));
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return cabeza + " -> " + (cuerpo.isEmpty() ? "ε" : String.join(" ", cuerpo));
+        }
+    }
+
+    /** Dos producciones del mismo no terminal que compiten por los terminales indicados. */
+    static final class Conflicto {
+        final Produccion elegida;
+        final Produccion descartada;
+        final Set<String> terminales = new LinkedHashSet<>();
+
+        Conflicto(Produccion elegida, Produccion descartada) {
+            this.elegida = elegida;
+            this.descartada = descartada;
+        }
+
+        @Override
+        public String toString() {
+            return elegida.cabeza + " con " + terminales + ": línea " + elegida.linea + " (" + elegida
+                    + ") y línea " + descartada.linea + " (" + descartada + ")";
+        }
+    }
+
+    private final List<String> noTerminales;
+    private final Set<String> cabezas;
+    private final int conflictosEsperados;
+    private final List<Produccion> producciones;
+    private final Set<String> terminales = new LinkedHashSet<>();
+
+    private final Set<String> anulables = new HashSet<>();
+    private final Map<String, Set<String>> primeros = new HashMap<>();
+    private final Map<String, Set<String>> siguientes = new HashMap<>();
+
+    private final Map<String, Map<String, Produccion>> tabla = new LinkedHashMap<>();
+    private final List<Conflicto> conflictos = new ArrayList<>();
+
+    private Gramatica(List<String> noTerminales, List<Produccion> producciones, int conflictosEsperados) {
+        this.noTerminales = noTerminales;
+        this.conflictosEsperados = conflictosEsperados;
+        this.cabezas = new HashSet<>(noTerminales);
+        this.producciones = producciones;
+
+        for (Produccion p : producciones) {
+            for (String simbolo : p.cuerpo) {
+                if (!esNoTerminal(simbolo)) terminales.add(simbolo);
+            }
+        }
+        terminales.add(TablaTAS.FIN);
+
+        calcularPrimeros();
+        calcularSiguientes();
+        construirTabla();
+    }
+
+    static Gramatica leer(Path archivo) throws IOException {
+        return desdeTexto(Files.readString(archivo, StandardCharsets.UTF_8), archivo.getFileName().toString());
+    }
+
+    static Gramatica desdeTexto(String texto, String origen) throws IOException {
+        List<String> noTerminales = new ArrayList<>();
+        List<Produccion> producciones = new ArrayList<>();
+        String cabeza = null;
+        int conflictosEsperados = 0;
+
+        String[] lineas = texto.split("\r?\n");
+        for (int n = 0; n < lineas.length; n++) {
+            String linea = lineas[n].trim();
+            if (linea.isEmpty() || linea.startsWith("#")) continue;
+
+            if (linea.startsWith("%")) {
+                String[] directiva = linea.split("\\s+");
+                if (directiva.length != 2 || !directiva[0].equals("%expect") || !directiva[1].matches("\\d+")) {
+                    throw new IOException(origen + ":" + (n + 1) + ": directiva desconocida '" + linea + "'");
+                }
+                conflictosEsperados = Integer.parseInt(directiva[1]);
+                continue;
+            }
+
+            String alternativas;
+            if (linea.startsWith("|")) {
+                if (cabeza == null) {
+                    throw new IOException(origen + ":" + (n + 1) + ": alternativa sin regla");
+                }
+                alternativas = linea.substring(1);
+            } else {
+                int flecha = linea.indexOf("->");
+                if (flecha <= 0) {
+                    throw new IOException(origen + ":" + (n + 1) + ": se esperaba 'A -> ...'");
+                }
+                cabeza = linea.substring(0, flecha).trim();
+                if (cabeza.isEmpty() || cabeza.contains(" ")) {
+                    throw new IOException(origen + ":" + (n + 1) + ": cabeza inválida '" + cabeza + "'");
+                }
+                if (!noTerminales.contains(cabeza)) noTerminales.add(cabeza);
+                alternativas = linea.substring(flecha + 2);
+                // "A ->" solo: las alternativas vienen en las líneas siguientes
+                if (alternativas.trim().isEmpty()) continue;
+            }
+
+            // '|' separa alternativas solo como símbolo suelto: "||" es un terminal
+            List<String> cuerpo = new ArrayList<>();
+            boolean vacia = true;
+            for (String simbolo : (alternativas.trim() + " |").split("\\s+")) {
+                if (simbolo.equals("|")) {
+                    if (vacia) throw new IOException(origen + ":" + (n + 1) + ": alternativa vacía (usar ε)");
+                    producciones.add(new Produccion(cabeza, cuerpo, n + 1));
+                    cuerpo = new ArrayList<>();
+                    vacia = true;
+                } else if (!simbolo.isEmpty()) {
+                    vacia = false;
+                    if (!TablaTAS.isEpsilon(simbolo)) cuerpo.add(simbolo);
+                }
+            }
+        }
+
+        if (noTerminales.isEmpty()) throw new IOException(origen + ": la gramática no tiene reglas");
+        return new Gramatica(noTerminales, producciones, conflictosEsperados);
+    }
+
+    // =============================================================================
+    // CONSULTA
+    // =============================================================================
+
+    boolean esNoTerminal(String simbolo) {
+        return cabezas.contains(simbolo);
+    }
+
+    String inicial() {
+        return noTerminales.get(0);
+    }
+
+    List<String> noTerminales() {
+        return Collections.unmodifiableList(noTerminales);
+    }
+
+    List<Produccion> producciones() {
+        return Collections.unmodifiableList(producciones);
+    }
+
+    Set<String> primeros(String noTerminal) {
+        return Collections.unmodifiableSet(primeros.get(noTerminal));
+    }
+
+    Set<String> siguientes(String noTerminal) {
+        return Collections.unmodifiableSet(siguientes.get(noTerminal));
+    }
+
+    boolean anulable(String noTerminal) {
+        return anulables.contains(noTerminal);
+    }
+
+    /** Celdas de la tabla LL(1): no terminal → terminal → producción. */
+    Map<String, Map<String, Produccion>> tabla() {
+        return tabla;
+    }
+
+    List<Conflicto> conflictos() {
+        return Collections.unmodifiableList(conflictos);
+    }
+
+    /** Si los conflictos son exactamente los que declara {@code %expect}. */
+    boolean conflictosAceptados() {
+        return conflictos.size() == conflictosEsperados;
+    }
+
+    // =============================================================================
+    // PRIMEROS Y SIGUIENTES
+    // =============================================================================
+
+    private void calcularPrimeros() {
+        for (String noTerminal : noTerminales) primeros.put(noTerminal, new LinkedHashSet<>());
+
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (Produccion p : producciones) {
+                Set<String> destino = primeros.get(p.cabeza);
+                int antes = destino.size();
+                boolean anulable = primerosDe(p.cuerpo, 0, destino);
+                cambio |= destino.size() != antes;
+                if (anulable && anulables.add(p.cabeza)) cambio = true;
+            }
+        }
+    }
+
+    /** Agrega PRIMEROS(cuerpo[desde..]) a destino; devuelve si esa cola es anulable. */
+    private boolean primerosDe(List<String> cuerpo, int desde, Set<String> destino) {
+        for (int k = desde; k < cuerpo.size(); k++) {
+            String simbolo = cuerpo.get(k);
+            if (!esNoTerminal(simbolo)) {
+                destino.add(simbolo);
+                return false;
+            }
+            destino.addAll(primeros.get(simbolo));
+            if (!anulables.contains(simbolo)) return false;
+        }
+        return true;
+    }
+
+    private void calcularSiguientes() {
+        for (String noTerminal : noTerminales) siguientes.put(noTerminal, new LinkedHashSet<>());
+        siguientes.get(inicial()).add(TablaTAS.FIN);
+
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (Produccion p : producciones) {
+                for (int k = 0; k < p.cuerpo.size(); k++) {
+                    String simbolo = p.cuerpo.get(k);
+                    if (!esNoTerminal(simbolo)) continue;
+
+                    Set<String> destino = siguientes.get(simbolo);
+                    int antes = destino.size();
+                    if (primerosDe(p.cuerpo, k + 1, destino)) destino.addAll(siguientes.get(p.cabeza));
+                    cambio |= destino.size() != antes;
+                }
+            }
+        }
+    }
+
+    // =============================================================================
+    // TABLA LL(1)
+    // =============================================================================
+
+    /**
+     * Cada producción A -> α va a las celdas de PRIMEROS(α) y, si α es
+     * anulable, a las de SIGUIENTES(A). Ante un choque se queda la producción
+     * que aparece antes en el archivo y el choque se anota.
+     */
+    private void construirTabla() {
+        for (String noTerminal : noTerminales) tabla.put(noTerminal, new LinkedHashMap<>());
+        Map<String, Conflicto> porPareja = new LinkedHashMap<>();
+
+        for (Produccion p : producciones) {
+            Set<String> seleccion = new LinkedHashSet<>();
+            if (primerosDe(p.cuerpo, 0, seleccion)) seleccion.addAll(siguientes.get(p.cabeza));
+
+            Map<String, Produccion> fila = tabla.get(p.cabeza);
+            for (String terminal : seleccion) {
+                Produccion previa = fila.putIfAbsent(terminal, p);
+                if (previa != null && previa != p) {
+                    String clave = producciones.indexOf(previa) + "/" + producciones.indexOf(p);
+                    porPareja.computeIfAbsent(clave, k -> new Conflicto(previa, p)).terminales.add(terminal);
+                }
+            }
+        }
+        conflictos.addAll(porPareja.values());
+    }
+
+    // =============================================================================
+    // LÍNEA DE COMANDOS
+    // =============================================================================
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.out.println("Uso: java Gramatica gramatica.bnf [tabla.xlsx]");
+            System.exit(64);
+        }
+        Gramatica gramatica = leer(Paths.get(args[0]));
+
+        int celdas = 0;
+        for (Map<String, Produccion> fila : gramatica.tabla.values()) celdas += fila.size();
+        System.out.println(gramatica.noTerminales.size() + " no terminales, " + gramatica.terminales.size()
+                + " terminales, " + gramatica.producciones.size() + " producciones, " + celdas + " celdas");
+
+        for (Conflicto conflicto : gramatica.conflictos) System.out.println("- Conflicto LL(1) en " + conflicto);
+        if (!gramatica.conflictosAceptados()) {
+            System.out.println("- " + gramatica.conflictos.size() + " conflictos, se esperaban "
+                    + gramatica.conflictosEsperados);
+        } else if (gramatica.inicial().equals(TablaTAS.INICIAL)) {
+            TablaTAS tabla = TablaTAS.desdeGramatica(Paths.get(args[0]));
+            System.out.println("Tabla comprimida: " + tabla.posiciones() + " posiciones (densa: "
+                    + tabla.noTerminales() * tabla.simbolos() + ")");
+        }
+
+        int diferencias = args.length > 1 ? compararConPlanilla(gramatica, TablaTAS.desdeXlsx(Paths.get(args[1]))) : 0;
+        if (!gramatica.conflictosAceptados() || diferencias > 0) System.exit(1);
+    }
+
+    /** Informa las celdas en que la planilla no coincide con la tabla derivada de la gramática. */
+    private static int compararConPlanilla(Gramatica gramatica, TablaTAS planilla) {
+        int diferencias = 0;
+        Set<String> noTerminales = new LinkedHashSet<>(gramatica.noTerminales);
+        for (int nt = 0; nt < planilla.noTerminales(); nt++) noTerminales.add(planilla.simbolo(nt));
+
+        for (String noTerminal : noTerminales) {
+            Map<String, Produccion> fila = gramatica.tabla.getOrDefault(noTerminal, Collections.emptyMap());
+            Set<String> terminales = new LinkedHashSet<>(fila.keySet());
+            int nt = planilla.id(noTerminal);
+            boolean enPlanilla = nt >= 0 && planilla.esNoTerminal(nt);
+            if (enPlanilla) {
+                for (int t = 0; t < planilla.simbolos(); t++) {
+                    if (planilla.buscar(nt, t) >= 0) terminales.add(planilla.simbolo(t));
+                }
+            }
+
+            for (String terminal : terminales) {
+                Produccion esperada = fila.get(terminal);
+                String derivada = esperada != null ? esperada.textoApilado() : null;
+                int celda = enPlanilla ? planilla.buscar(nt, planilla.id(terminal)) : -1;
+                String actual = celda >= 0 ? planilla.texto(celda).trim().replaceAll("\\s+", " ") : null;
+                if (actual != null && TablaTAS.isEpsilon(actual)) actual = "λ";
+                if (!Objects.equals(derivada, actual)) {
+                    System.out.println("- Celda [" + noTerminal + ", " + terminal + "]: gramática "
+                            + (derivada != null ? "'" + derivada + "'" : "vacía") + ", planilla "
+                            + (actual != null ? "'" + actual + "'" : "vacía"));
+                    diferencias++;
+                }
+            }
+        }
+        return diferencias;
+    }
+}
@@ -0,0 +1,142 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * Re-análisis léxico incremental tras una edición de texto.
+ *
+ * En lugar de volver a escanear todo el fuente, se reinicia el Scanner en
+ * el inicio del primer token que la edición puede haber cambiado y se
+ * detiene en cuanto un token nuevo, ya pasada la edición, empieza
+ * exactamente donde empezaba un token viejo: a partir de ahí el texto es el
+ * mismo y el lexer está en el mismo estado, así que el resto de los tokens
+ * viejos se reutiliza con su offset desplazado. El índice de líneas se
+ * corrige aparte, copiando y desplazando los inicios de línea.
+ *
+ * Los puntos de reinicio son siempre fronteras entre tokens, nunca
+ * posiciones dentro de un comentario o un string: esos son tokens completos,
+ * así que una edición en su interior reinicia desde antes de su comienzo. El costo de
+ * escaneo es proporcional al tramo afectado; lo demás es copia de arreglos.
+ */
+final class IncrementalLexer {
+	// Caracteres que el Scanner puede mirar más allá del final de un token
+	// para decidirlo (peekNext en los reales, el ":(" de "adios:(")
+	private static final int LOOKAHEAD = 2;
+	private static final int BUFFER = 256;
+
+	static final class Edicion {
+		final int offset;
+		final int eliminados;
+		final String insertado;
+
+		Edicion(int offset, int eliminados, String insertado) {
+			this.offset = offset;
+			this.eliminados = eliminados;
+			this.insertado = insertado;
+		}
+	}
+
+	private IncrementalLexer() {
+	}
+
+	/**
+	 * Devuelve los tokens de {@code textoNuevo}, que es el texto previo con
+	 * {@code edicion} aplicada, reutilizando todo lo posible de {@code previo}.
+	 */
+	static TokenBuffer relex(TokenBuffer previo, String textoNuevo, Edicion edicion) {
+		int delta = edicion.insertado.length() - edicion.eliminados;
+		long finEdicion = edicion.offset + edicion.insertado.length();
+		LineIndex lineas = previo.lineas().editar(edicion.offset, edicion.eliminados, edicion.insertado);
+		int deltaLineas = lineas.lineas() - previo.lineas().lineas();
+
+		// Se reinicia justo después del último token intacto: entre tokens el
+		// lexer no arrastra estado
+		int r = primerAfectado(previo, edicion.offset);
+		long inicio = r > 0 ? previo.offset(r - 1) + previo.length(r - 1) : 0;
+		int linea = lineas.linea(inicio);
+
+		TokenBuffer resultado = new TokenBuffer(previo.size() + 16);
+		resultado.usarLineas(lineas);
+		resultado.appendRange(previo, 0, r, 0);
+		resultado.appendTrivia(previo, 0, inicio, 0);
+
+		TokenBuffer nuevos = new TokenBuffer(16);
+		Scanner scanner = new Scanner(abrirDesde(textoNuevo, inicio), BUFFER, inicio, linea);
+
+		while (scanner.scanNext(nuevos)) {
+			int j = nuevos.size() - 1;
+			long offset = nuevos.offset(j);
+			if (offset < finEdicion) continue;
+
+			int m = buscarOffset(previo, r, offset - delta);
+			if (m >= 0 && reutilizable(previo, deltaLineas)) {
+				// Sincronizado: el resto de los tokens viejos sigue valiendo. Los
+				// comentarios antes del token j ya los volvió a escanear
+				resultado.appendRange(nuevos, 0, j, 0);
+				resultado.appendTrivia(nuevos, 0, Long.MAX_VALUE, 0);
+				resultado.appendRange(previo, m, previo.size(), delta);
+				resultado.appendTrivia(previo, previo.offset(m), Long.MAX_VALUE, delta);
+				return resultado;
+			}
+		}
+
+		resultado.appendRange(nuevos, 0, nuevos.size(), 0);
+		resultado.appendTrivia(nuevos, 0, Long.MAX_VALUE, 0);
+		return resultado;
+	}
+
+	/** Primer token cuyo final, contando la anticipación del lexer, llega a la edición. */
+	private static int primerAfectado(TokenBuffer tokens, int offsetEdicion) {
+		int lo = 0;
+		int hi = tokens.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (tokens.offset(mid) + tokens.length(mid) + LOOKAHEAD < offsetEdicion) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/** Índice del token que empieza exactamente en {@code offset}, o -1. */
+	private static int buscarOffset(TokenBuffer tokens, int desde, long offset) {
+		int lo = desde;
+		int hi = tokens.size() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long actual = tokens.offset(mid);
+			if (actual < offset) {
+				lo = mid + 1;
+			} else if (actual > offset) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * El error de comentario sin cerrar (siempre el último token) lleva la
+	 * línea de inicio en su mensaje, así que la cola no se reutiliza si las
+	 * líneas se movieron.
+	 */
+	private static boolean reutilizable(TokenBuffer previo, int deltaLineas) {
+		int ultimo = previo.size() - 1;
+		return deltaLineas == 0 || previo.type(ultimo) != TokenType.ERROR || !previo.lexeme(ultimo).startsWith("/*");
+	}
+
+	private static StringReader abrirDesde(String texto, long inicio) {
+		StringReader reader = new StringReader(texto);
+		try {
+			reader.skip(inicio);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return reader;
+	}
+}
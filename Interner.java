@@ -0,0 +1,133 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Pool de lexemas compartido por todo el proceso: cada identificador y cada
+ * literal de cadena distinto recibe un id entero chico y una única instancia
+ * de String. Los almacenes de tokens guardan el id al escanear, sin crear un
+ * String por aparición, y la tabla de símbolos del Parser usa ids como claves.
+ * Como el pool sobrevive entre análisis, miles de fuentes que repiten los
+ * mismos nombres comparten un solo String por nombre.
+ *
+ * Es seguro entre hilos (lexing paralelo, pipeline): la tabla se reparte en
+ * segmentos según el hash, cada uno con su propio lock, y un id codifica el
+ * segmento en sus bits bajos. Los ids nunca se liberan.
+ */
+final class Interner {
+	static final Interner COMPARTIDO = new Interner();
+
+	private static final int BITS_SEGMENTO = 5;
+	private static final int SEGMENTOS = 1 << BITS_SEGMENTO;
+
+	private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+
+	Interner() {
+		for (int s = 0; s < SEGMENTOS; s++) segmentos[s] = new Segmento(s);
+	}
+
+	/** Tipos de token cuyo lexema se interna. */
+	static boolean seInterna(TokenType type) {
+		return type == TokenType.IDENTIFICADOR || type == TokenType.IDENTIFICADOR_MAYUSCULA
+				|| type == TokenType.STRING;
+	}
+
+	/** Id de los caracteres [desde, desde + largo), sin crear un String si ya estaban. */
+	int intern(char[] fuente, int desde, int largo) {
+		int h = 0;
+		for (int k = 0; k < largo; k++) h = 31 * h + fuente[desde + k];
+		return segmento(h).intern(esparcir(h), fuente, desde, largo, null);
+	}
+
+	int intern(String texto) {
+		int h = texto.hashCode();
+		return segmento(h).intern(esparcir(h), null, 0, texto.length(), texto);
+	}
+
+	/** Instancia canónica del id. */
+	String texto(int id) {
+		return segmentos[id & (SEGMENTOS - 1)].textos[id >>> BITS_SEGMENTO];
+	}
+
+	/** Cantidad de lexemas distintos internados. */
+	int size() {
+		int total = 0;
+		for (Segmento s : segmentos) total += s.cantidad();
+		return total;
+	}
+
+	private Segmento segmento(int h) {
+		return segmentos[esparcir(h) >>> (32 - BITS_SEGMENTO)];
+	}
+
+	private static int esparcir(int h) {
+		return (h ^ (h >>> 16)) * 0x9E3779B9;
+	}
+
+	/** Tabla abierta de un segmento: ranuras con id local + 1 (0 = libre). */
+	private static final class Segmento {
+		private final int numero;
+		private int[] ranuras = new int[64];
+		private int[] hashes = new int[64];
+		// Se publica de nuevo al crecer: quien recibió un id lo ve en su casillero
+		private volatile String[] textos = new String[32];
+		private int cantidad = 0;
+
+		Segmento(int numero) {
+			this.numero = numero;
+		}
+
+		synchronized int intern(int hash, char[] fuente, int desde, int largo, String cadena) {
+			int mascara = ranuras.length - 1;
+			String[] actuales = textos;
+			for (int r = hash & mascara; ; r = (r + 1) & mascara) {
+				int local = ranuras[r] - 1;
+				if (local < 0) break;
+				if (hashes[r] == hash && iguales(actuales[local], fuente, desde, largo, cadena)) {
+					return local << BITS_SEGMENTO | numero;
+				}
+			}
+
+			String nuevo = cadena != null ? cadena : new String(fuente, desde, largo);
+			int local = cantidad++;
+			if (local == actuales.length) actuales = Arrays.copyOf(actuales, local * 2);
+			actuales[local] = nuevo;
+			textos = actuales;
+
+			if (cantidad * 2 > ranuras.length) rehash();
+			ubicar(hash, local);
+			return local << BITS_SEGMENTO | numero;
+		}
+
+		synchronized int cantidad() {
+			return cantidad;
+		}
+
+		private static boolean iguales(String t, char[] fuente, int desde, int largo, String cadena) {
+			if (cadena != null) return t.equals(cadena);
+			if (t.length() != largo) return false;
+			for (int k = 0; k < largo; k++) {
+				if (t.charAt(k) != fuente[desde + k]) return false;
+			}
+			return true;
+		}
+
+		private void ubicar(int hash, int local) {
+			int mascara = ranuras.length - 1;
+			int r = hash & mascara;
+			while (ranuras[r] != 0) r = (r + 1) & mascara;
+			ranuras[r] = local + 1;
+			hashes[r] = hash;
+		}
+
+		private void rehash() {
+			int[] viejasRanuras = ranuras;
+			int[] viejosHashes = hashes;
+			ranuras = new int[viejasRanuras.length * 2];
+			hashes = new int[viejasRanuras.length * 2];
+			for (int r = 0; r < viejasRanuras.length; r++) {
+				if (viejasRanuras[r] != 0) ubicar(viejosHashes[r], viejasRanuras[r] - 1);
+			}
+		}
+	}
+}
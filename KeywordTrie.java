@@ -0,0 +1,64 @@
+package lexico;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Trie de palabras reservadas sobre el alfabeto de los identificadores
+ * ([a-zA-Z0-9_]). Se recorre carácter a carácter mientras el Scanner consume
+ * el identificador, de modo que al terminarlo ya se sabe si es palabra
+ * reservada sin crear ningún String intermedio.
+ */
+final class KeywordTrie {
+	static final int RAIZ = 0;
+	static final int MUERTO = -1;
+
+	private static final int ALFABETO = 63;
+
+	// siguiente[estado * ALFABETO + clase] = estado destino, o MUERTO
+	private final int[] siguiente;
+	private final TokenType[] aceptacion;
+
+	KeywordTrie(Map<String, TokenType> palabras) {
+		int maxEstados = 1;
+		for (String palabra : palabras.keySet()) {
+			maxEstados += palabra.length();
+		}
+
+		int[] tabla = new int[maxEstados * ALFABETO];
+		Arrays.fill(tabla, MUERTO);
+		TokenType[] tipos = new TokenType[maxEstados];
+		int estados = 1;
+
+		for (Map.Entry<String, TokenType> entrada : palabras.entrySet()) {
+			int estado = RAIZ;
+			for (char c : entrada.getKey().toCharArray()) {
+				int idx = estado * ALFABETO + clase(c);
+				if (tabla[idx] == MUERTO) {
+					tabla[idx] = estados++;
+				}
+				estado = tabla[idx];
+			}
+			tipos[estado] = entrada.getValue();
+		}
+
+		this.siguiente = Arrays.copyOf(tabla, estados * ALFABETO);
+		this.aceptacion = Arrays.copyOf(tipos, estados);
+	}
+
+	int step(int estado, char c) {
+		return estado == MUERTO ? MUERTO : siguiente[estado * ALFABETO + clase(c)];
+	}
+
+	/** Tipo de la palabra reservada que termina en este estado, o null. */
+	TokenType accept(int estado) {
+		return estado == MUERTO ? null : aceptacion[estado];
+	}
+
+	private static int clase(char c) {
+		if (c >= 'a' && c <= 'z') return c - 'a';
+		if (c >= 'A' && c <= 'Z') return 26 + (c - 'A');
+		if (c >= '0' && c <= '9') return 52 + (c - '0');
+		return 62; // '_'
+	}
+}
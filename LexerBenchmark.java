@@ -0,0 +1,59 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Compara el rendimiento del switch escrito a mano con el del autómata de
+ * tabla sobre un mismo archivo, y verifica que ambos produzcan los mismos
+ * tokens (la verificación con variantes al azar es la "dfa" de
+ * Verificaciones, en test/).
+ *
+ * Uso: java lexico.LexerBenchmark archivo [repeticiones]
+ */
+public class LexerBenchmark {
+    private static final int CALENTAMIENTO = 5;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: java LexerBenchmark archivo [repeticiones]");
+            System.exit(64);
+        }
+        String source = Files.readString(Paths.get(args[0]), Charset.defaultCharset());
+        int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        if (scan(source, false).primeraDiferencia(scan(source, true)) >= 0) {
+            System.out.println("- Los motores producen tokens distintos");
+            System.exit(1);
+        }
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            scan(source, false);
+            scan(source, true);
+        }
+
+        double mb = source.length() / (1024.0 * 1024.0);
+        medir("switch", source, false, repeticiones, mb);
+        medir("dfa", source, true, repeticiones, mb);
+    }
+
+    private static void medir(String nombre, String source, boolean dfa, int repeticiones, double mb) {
+        long mejor = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            tokens = scan(source, dfa).size();
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        double segundos = mejor / 1e9;
+        System.out.printf("%-8s %10d tokens  %8.2f ms  %8.1f MB/s%n", nombre, tokens, segundos * 1000, mb / segundos);
+    }
+
+    private static TokenBuffer scan(String source, boolean dfa) {
+        Scanner scanner = new Scanner(source);
+        scanner.usarDfa(dfa);
+        return scanner.scanBuffer();
+    }
+}
@@ -0,0 +1,273 @@
+package lexico;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autómata finito determinista del analizador léxico, construido a partir de
+ * una especificación declarativa (lexemas fijos y patrones simples).
+ *
+ * La especificación se traduce a un AFN, se determiniza por subconjuntos y
+ * las columnas de caracteres ASCII con el mismo comportamiento se agrupan en
+ * clases. El resultado es una tabla plana {@code estado * clases + clase}:
+ * recorrerla es un único bucle de accesos a arreglos, sin switch por carácter.
+ *
+ * Cada estado de aceptación lleva una acción. Con {@link #TOKEN} el lexema
+ * reconocido es el token completo; las demás acciones marcan solo el
+ * comienzo de un token cuyo cuerpo (strings, chars, comentarios, espacios)
+ * sigue escaneando el Scanner con sus rutinas de siempre.
+ */
+final class LexerDfa {
+	static final int MUERTO = 0;
+	static final int INICIO = 1;
+
+	static final byte TOKEN = 0;
+	static final byte ESPACIO = 1;
+	static final byte CHAR = 2;
+	static final byte STRING = 3;
+	static final byte COMENTARIO_LINEA = 4;
+	static final byte COMENTARIO_MULTILINEA = 5;
+
+	private static final int ASCII = 128;
+
+	private final byte[] claseAscii;
+	private final int clases;           // la última clase agrupa todo lo que no es ASCII
+	private final int[] siguiente;      // siguiente[estado * clases + clase]
+	private final TokenType[] tipos;
+	private final byte[] acciones;
+	private final boolean[] aceptacion;
+
+	private LexerDfa(byte[] claseAscii, int clases, int[] siguiente, TokenType[] tipos, byte[] acciones,
+			boolean[] aceptacion) {
+		this.claseAscii = claseAscii;
+		this.clases = clases;
+		this.siguiente = siguiente;
+		this.tipos = tipos;
+		this.acciones = acciones;
+		this.aceptacion = aceptacion;
+	}
+
+	int step(int estado, char c) {
+		int clase = c < ASCII ? claseAscii[c] : clases - 1;
+		return siguiente[estado * clases + clase];
+	}
+
+	boolean acepta(int estado) {
+		return aceptacion[estado];
+	}
+
+	TokenType tipo(int estado) {
+		return tipos[estado];
+	}
+
+	byte accion(int estado) {
+		return acciones[estado];
+	}
+
+	int estados() {
+		return aceptacion.length;
+	}
+
+	int clases() {
+		return clases;
+	}
+
+	// =============================================================================
+	// CONSTRUCCIÓN
+	// =============================================================================
+
+	/**
+	 * Acumula reglas en orden de prioridad: si dos reglas reconocen el mismo
+	 * lexema (una palabra reservada y el patrón de identificador) gana la que
+	 * se declaró primero. Entre lexemas de distinto largo gana el más largo.
+	 */
+	static final class Builder {
+		// AFN: transiciones por conjunto de caracteres, más ε desde el inicio a cada regla
+		private final List<List<BitSet>> conjuntos = new ArrayList<>();
+		private final List<List<Integer>> destinos = new ArrayList<>();
+		private final List<Integer> reglaDeNodo = new ArrayList<>();
+		private final List<Integer> iniciosDeRegla = new ArrayList<>();
+		private final List<TokenType> tiposDeRegla = new ArrayList<>();
+		private final List<Byte> accionesDeRegla = new ArrayList<>();
+
+		Builder literal(String lexema, TokenType tipo) {
+			return inicioDe(lexema, TOKEN, tipo);
+		}
+
+		/** Lexema que solo abre un token; el resto lo escanea la acción indicada. */
+		Builder inicioDe(String lexema, byte accion, TokenType tipo) {
+			int nodo = nuevaRegla(tipo, accion);
+			for (int i = 0; i < lexema.length(); i++) {
+				BitSet c = new BitSet(ASCII);
+				c.set(caracterAscii(lexema.charAt(i)));
+				nodo = transicion(nodo, c, nuevoNodo());
+			}
+			aceptar(nodo);
+			return this;
+		}
+
+		/**
+		 * Patrón con la sintaxis mínima que necesitan los tokens del lenguaje:
+		 * clases {@code [a-z_]}, caracteres sueltos (con {@code \} para escapar)
+		 * y los cuantificadores {@code +} y {@code *} sobre el elemento anterior.
+		 */
+		Builder patron(String patron, TokenType tipo) {
+			int nodo = nuevaRegla(tipo, TOKEN);
+			int i = 0;
+			while (i < patron.length()) {
+				BitSet conjunto = new BitSet(ASCII);
+				char c = patron.charAt(i++);
+				if (c == '[') {
+					while (patron.charAt(i) != ']') {
+						char desde = patron.charAt(i++);
+						char hasta = desde;
+						if (patron.charAt(i) == '-' && patron.charAt(i + 1) != ']') {
+							hasta = patron.charAt(i + 1);
+							i += 2;
+						}
+						conjunto.set(caracterAscii(desde), caracterAscii(hasta) + 1);
+					}
+					i++;
+				} else {
+					if (c == '\\') c = patron.charAt(i++);
+					conjunto.set(caracterAscii(c));
+				}
+
+				char cuantificador = i < patron.length() ? patron.charAt(i) : '\0';
+				if (cuantificador == '*') {
+					transicion(nodo, conjunto, nodo);
+					i++;
+				} else {
+					nodo = transicion(nodo, conjunto, nuevoNodo());
+					if (cuantificador == '+') {
+						transicion(nodo, conjunto, nodo);
+						i++;
+					}
+				}
+			}
+			aceptar(nodo);
+			return this;
+		}
+
+		LexerDfa build() {
+			// Determinización por subconjuntos sobre el alfabeto ASCII
+			Map<BitSet, Integer> ids = new HashMap<>();
+			List<BitSet> pendientes = new ArrayList<>();
+			List<int[]> filas = new ArrayList<>();
+
+			BitSet muerto = new BitSet();
+			BitSet inicial = new BitSet();
+			for (int nodo : iniciosDeRegla) inicial.set(nodo);
+			ids.put(muerto, MUERTO);
+			ids.put(inicial, INICIO);
+			pendientes.add(muerto);
+			pendientes.add(inicial);
+
+			for (int e = 0; e < pendientes.size(); e++) {
+				BitSet actual = pendientes.get(e);
+				int[] fila = new int[ASCII];
+				for (int c = 0; c < ASCII; c++) {
+					BitSet destino = new BitSet();
+					for (int nodo = actual.nextSetBit(0); nodo >= 0; nodo = actual.nextSetBit(nodo + 1)) {
+						List<BitSet> cs = conjuntos.get(nodo);
+						for (int k = 0; k < cs.size(); k++) {
+							if (cs.get(k).get(c)) destino.set(destinos.get(nodo).get(k));
+						}
+					}
+					Integer id = ids.get(destino);
+					if (id == null) {
+						id = pendientes.size();
+						ids.put(destino, id);
+						pendientes.add(destino);
+					}
+					fila[c] = id;
+				}
+				filas.add(fila);
+			}
+
+			int estados = pendientes.size();
+			TokenType[] tipos = new TokenType[estados];
+			byte[] acciones = new byte[estados];
+			boolean[] aceptacion = new boolean[estados];
+			for (int e = 0; e < estados; e++) {
+				int mejor = Integer.MAX_VALUE;
+				BitSet nodos = pendientes.get(e);
+				for (int nodo = nodos.nextSetBit(0); nodo >= 0; nodo = nodos.nextSetBit(nodo + 1)) {
+					int regla = reglaDeNodo.get(nodo);
+					if (regla >= 0) mejor = Math.min(mejor, regla);
+				}
+				if (mejor != Integer.MAX_VALUE) {
+					aceptacion[e] = true;
+					tipos[e] = tiposDeRegla.get(mejor);
+					acciones[e] = accionesDeRegla.get(mejor);
+				}
+			}
+
+			// Clases: caracteres cuya columna es idéntica en todos los estados
+			byte[] claseAscii = new byte[ASCII];
+			List<Integer> representantes = new ArrayList<>();
+			for (int c = 0; c < ASCII; c++) {
+				int clase = -1;
+				for (int k = 0; k < representantes.size() && clase < 0; k++) {
+					if (mismaColumna(filas, c, representantes.get(k))) clase = k;
+				}
+				if (clase < 0) {
+					clase = representantes.size();
+					representantes.add(c);
+				}
+				claseAscii[c] = (byte) clase;
+			}
+
+			int clases = representantes.size() + 1;
+			int[] siguiente = new int[estados * clases];
+			for (int e = 0; e < estados; e++) {
+				for (int k = 0; k < representantes.size(); k++) {
+					siguiente[e * clases + k] = filas.get(e)[representantes.get(k)];
+				}
+				siguiente[e * clases + clases - 1] = MUERTO;
+			}
+
+			return new LexerDfa(claseAscii, clases, siguiente, tipos, acciones, aceptacion);
+		}
+
+		private static boolean mismaColumna(List<int[]> filas, int a, int b) {
+			for (int[] fila : filas) {
+				if (fila[a] != fila[b]) return false;
+			}
+			return true;
+		}
+
+		private int nuevaRegla(TokenType tipo, byte accion) {
+			int nodo = nuevoNodo();
+			iniciosDeRegla.add(nodo);
+			tiposDeRegla.add(tipo);
+			accionesDeRegla.add(accion);
+			return nodo;
+		}
+
+		private int nuevoNodo() {
+			conjuntos.add(new ArrayList<>());
+			destinos.add(new ArrayList<>());
+			reglaDeNodo.add(-1);
+			return reglaDeNodo.size() - 1;
+		}
+
+		private int transicion(int desde, BitSet conjunto, int hasta) {
+			conjuntos.get(desde).add(conjunto);
+			destinos.get(desde).add(hasta);
+			return hasta;
+		}
+
+		private void aceptar(int nodo) {
+			reglaDeNodo.set(nodo, tiposDeRegla.size() - 1);
+		}
+
+		private static int caracterAscii(char c) {
+			if (c >= ASCII) throw new IllegalArgumentException("Solo se admiten caracteres ASCII: '" + c + "'");
+			return c;
+		}
+	}
+}
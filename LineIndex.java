@@ -0,0 +1,115 @@
+package lexico;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de inicios de línea: inicios[k] es el offset donde empieza la línea
+ * k + 1. Se arma una sola vez mientras se escanea (un long por salto de
+ * línea, porque el fuente puede pasar de 2 GB) y la línea y la columna de
+ * cualquier offset se resuelven recién cuando hacen falta, con una
+ * búsqueda binaria.
+ */
+final class LineIndex {
+	private long[] inicios;
+	private int lineas;
+
+	LineIndex() {
+		this(64);
+	}
+
+	private LineIndex(int capacidad) {
+		inicios = new long[Math.max(capacidad, 1)];
+		inicios[0] = 0;
+		lineas = 1;
+	}
+
+	/** Índice de un texto completo, recorriéndolo una vez. */
+	static LineIndex de(CharSequence texto) {
+		LineIndex indice = new LineIndex();
+		for (int i = 0; i < texto.length(); i++) {
+			if (texto.charAt(i) == '\n') indice.agregarSalto(i);
+		}
+		return indice;
+	}
+
+	/** Registra un salto de línea en {@code offset}: la línea siguiente empieza después. */
+	void agregarSalto(long offset) {
+		if (lineas == inicios.length) inicios = Arrays.copyOf(inicios, lineas * 2);
+		inicios[lineas++] = offset + 1;
+	}
+
+	/** Agrega los saltos de {@code otro}, que deben estar después de los de este índice. */
+	void agregarSaltos(LineIndex otro) {
+		int n = otro.lineas - 1;
+		if (lineas + n > inicios.length) inicios = Arrays.copyOf(inicios, Math.max(inicios.length * 2, lineas + n));
+		System.arraycopy(otro.inicios, 1, inicios, lineas, n);
+		lineas += n;
+	}
+
+	/**
+	 * Índice del texto resultante de reemplazar {@code eliminados} caracteres
+	 * en {@code offset} por {@code insertado}: las líneas anteriores se copian,
+	 * las del texto insertado se agregan y las posteriores se desplazan.
+	 */
+	LineIndex editar(int offset, int eliminados, String insertado) {
+		int delta = insertado.length() - eliminados;
+		int antes = buscar(offset);                  // inicios[0..antes] quedan igual
+		int despues = buscar(offset + eliminados);   // inicios[despues + 1..] se desplazan
+
+		LineIndex nuevo = new LineIndex(lineas + insertado.length());
+		System.arraycopy(inicios, 0, nuevo.inicios, 0, antes + 1);
+		nuevo.lineas = antes + 1;
+		for (int i = 0; i < insertado.length(); i++) {
+			if (insertado.charAt(i) == '\n') nuevo.agregarSalto(offset + i);
+		}
+		for (int k = despues + 1; k < lineas; k++) {
+			nuevo.agregarSalto(inicios[k] - 1 + delta);
+		}
+		return nuevo;
+	}
+
+	int lineas() {
+		return lineas;
+	}
+
+	/** Línea (desde 1) que contiene el offset. */
+	int linea(long offset) {
+		return buscar(offset) + 1;
+	}
+
+	/** Columna (desde 1) del offset dentro de su línea. */
+	long columna(long offset) {
+		return offset - inicios[buscar(offset)] + 1;
+	}
+
+	/** Posición legible de un rango, p. ej. "línea 3, columnas 5-9". */
+	String rango(long offset, int largo) {
+		int linea = buscar(offset);
+		long columna = offset - inicios[linea] + 1;
+		if (largo <= 1) {
+			return "línea " + (linea + 1) + ", columna " + columna;
+		}
+		long fin = offset + largo - 1;
+		int lineaFin = buscar(fin);
+		long columnaFin = fin - inicios[lineaFin] + 1;
+		if (lineaFin == linea) {
+			return "línea " + (linea + 1) + ", columnas " + columna + "-" + columnaFin;
+		}
+		return "línea " + (linea + 1) + ", columna " + columna + " a línea " + (lineaFin + 1) + ", columna " + columnaFin;
+	}
+
+	/** Mayor k con inicios[k] <= offset. */
+	private int buscar(long offset) {
+		int lo = 0;
+		int hi = lineas - 1;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (inicios[mid] <= offset) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+}
@@ -0,0 +1,134 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader sobre un archivo UTF-8 mapeado en memoria.
+ *
+ * Los bloques ASCII (la inmensa mayoría del código fuente) se copian byte a
+ * byte sin pasar por un CharsetDecoder, comprobando 8 bytes a la vez con una
+ * sola máscara; solo los tramos con bytes >= 0x80 se decodifican de forma
+ * completa. Los archivos de más de 2 GB se recorren por ventanas.
+ */
+final class MappedUtf8Reader extends Reader {
+	private static final long VENTANA = 1L << 28;
+	private static final long MASCARA_ASCII = 0x8080808080808080L;
+
+	private final FileChannel channel;
+	private final long tamano;
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	private MappedByteBuffer ventana;
+	private long inicioVentana = 0;
+	// Segunda mitad de un par sustituto que no cupo en la lectura anterior
+	private int pendiente = -1;
+
+	MappedUtf8Reader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.tamano = channel.size();
+		mapear(0);
+	}
+
+	@Override
+	public int read(char[] dst, int off, int len) throws IOException {
+		if (len == 0) return 0;
+
+		int n = 0;
+		if (pendiente >= 0) {
+			dst[off + n++] = (char) pendiente;
+			pendiente = -1;
+		}
+
+		while (n < len) {
+			if (ventana.remaining() < 8 && inicioVentana + ventana.limit() < tamano) {
+				mapear(inicioVentana + ventana.position());
+			}
+			if (!ventana.hasRemaining()) break;
+
+			// Camino rápido ASCII: 8 bytes por comprobación
+			final ByteBuffer buf = ventana;
+			int i = buf.position();
+			final int fin = Math.min(buf.limit(), i + (len - n));
+			while (i + 8 <= fin && (buf.getLong(i) & MASCARA_ASCII) == 0) {
+				for (int k = 0; k < 8; k++) {
+					dst[off + n++] = (char) buf.get(i + k);
+				}
+				i += 8;
+			}
+			byte b;
+			while (i < fin && (b = buf.get(i)) >= 0) {
+				dst[off + n++] = (char) b;
+				i++;
+			}
+			buf.position(i);
+
+			if (n < len && i < buf.limit() && buf.get(i) < 0) {
+				int decodificados = decodificarNoAscii(dst, off + n, len - n);
+				if (decodificados == 0) break;
+				n += decodificados;
+			}
+		}
+
+		return n == 0 ? -1 : n;
+	}
+
+	/**
+	 * Decodifica el tramo de bytes no ASCII que empieza en la posición actual.
+	 * Un tramo así solo contiene secuencias multibyte completas, salvo que el
+	 * archivo esté mal formado o el tramo quede cortado por el fin de la ventana.
+	 */
+	private int decodificarNoAscii(char[] dst, int off, int len) {
+		int desde = ventana.position();
+		int hasta = desde;
+		while (hasta < ventana.limit() && ventana.get(hasta) < 0) hasta++;
+
+		boolean finDeArchivo = inicioVentana + hasta >= tamano;
+		ByteBuffer tramo = ventana.slice(desde, hasta - desde);
+
+		if (len < 2) {
+			// Un par sustituto necesita dos chars: decodificar aparte y guardar el resto
+			CharBuffer tmp = CharBuffer.allocate(2);
+			decoder.reset();
+			decoder.decode(tramo, tmp, finDeArchivo);
+			ventana.position(desde + tramo.position());
+			tmp.flip();
+			if (!tmp.hasRemaining()) return 0;
+			dst[off] = tmp.get();
+			if (tmp.hasRemaining()) pendiente = tmp.get();
+			return 1;
+		}
+
+		CharBuffer salida = CharBuffer.wrap(dst, off, len);
+		decoder.reset();
+		CoderResult resultado = decoder.decode(tramo, salida, finDeArchivo);
+		if (finDeArchivo && resultado.isUnderflow()) {
+			decoder.flush(salida);
+		}
+		ventana.position(desde + tramo.position());
+		return salida.position() - off;
+	}
+
+	private void mapear(long desde) throws IOException {
+		inicioVentana = desde;
+		long largo = Math.min(VENTANA, tamano - desde);
+		ventana = channel.map(FileChannel.MapMode.READ_ONLY, desde, largo);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,185 @@
+package lexico;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Análisis léxico en paralelo para fuentes grandes.
+ *
+ * El fuente se corta en tramos que terminan en un salto de línea y cada
+ * tramo se escanea por separado en un ForkJoinPool, suponiendo que empieza
+ * entre dos tokens. La suposición falla si el tramo anterior termina dentro
+ * de un comentario multilínea (o de un token que se corta en el borde), así
+ * que al unir los resultados se retoma el escaneo secuencial desde el último
+ * token de cada tramo hasta que un token vuelve a empezar donde empezaba uno
+ * del tramo especulativo; desde ahí se adoptan sus tokens. Los índices de
+ * línea de los tramos se concatenan tal cual, porque los saltos de línea no
+ * dependen de dónde se corten los tokens. El resultado es idéntico al de
+ * {@link Scanner#scanBuffer()}.
+ */
+final class ParallelLexer {
+	static final int TAMANO_TRAMO = 4 * 1024 * 1024;
+	private static final int BUFFER = 8 * 1024;
+
+	private final String fuente;
+	private final int[] inicios;            // inicios[k] .. inicios[k + 1] es el tramo k
+	private final TokenBuffer[] tramos;
+
+	private ParallelLexer(String fuente, int tamanoTramo) {
+		this.fuente = fuente;
+		this.inicios = cortar(fuente, tamanoTramo);
+		this.tramos = new TokenBuffer[inicios.length - 1];
+	}
+
+	static TokenBuffer scan(String fuente) {
+		return scan(fuente, ForkJoinPool.commonPool(), TAMANO_TRAMO);
+	}
+
+	static TokenBuffer scan(String fuente, ForkJoinPool pool, int tamanoTramo) {
+		if (fuente.length() <= tamanoTramo) {
+			return new Scanner(fuente).scanBuffer();
+		}
+		ParallelLexer lexer = new ParallelLexer(fuente, tamanoTramo);
+		pool.invoke(lexer.new Tarea(0, lexer.tramos.length));
+		return lexer.unir();
+	}
+
+	/** Cortes en el primer salto de línea después de cada múltiplo del tamaño de tramo. */
+	private static int[] cortar(String fuente, int tamanoTramo) {
+		List<Integer> cortes = new ArrayList<>();
+		cortes.add(0);
+		int desde = 0;
+		while (fuente.length() - desde > tamanoTramo) {
+			int nl = fuente.indexOf('\n', desde + tamanoTramo);
+			if (nl < 0) break;
+			desde = nl + 1;
+			if (desde < fuente.length()) cortes.add(desde);
+		}
+		cortes.add(fuente.length());
+
+		int[] inicios = new int[cortes.size()];
+		for (int k = 0; k < inicios.length; k++) inicios[k] = cortes.get(k);
+		return inicios;
+	}
+
+	private final class Tarea extends RecursiveTask<Void> {
+		private static final long serialVersionUID = 1L;
+
+		private final int desde;
+		private final int hasta;
+
+		Tarea(int desde, int hasta) {
+			this.desde = desde;
+			this.hasta = hasta;
+		}
+
+		@Override
+		protected Void compute() {
+			if (hasta - desde == 1) {
+				Reader reader = new Tramo(fuente, inicios[desde], inicios[desde + 1]);
+				tramos[desde] = new Scanner(reader, BUFFER, inicios[desde], 1).scanBuffer();
+				return null;
+			}
+			int medio = (desde + hasta) >>> 1;
+			ForkJoinTask.invokeAll(new Tarea(desde, medio), new Tarea(medio, hasta));
+			return null;
+		}
+	}
+
+	/**
+	 * Une los tramos en orden. De cada tramo se adoptan todos los tokens menos
+	 * el último, que pudo haber quedado cortado por el borde (o, en el último
+	 * tramo, ser un comentario sin cerrar cuyo mensaje lleva la línea); desde
+	 * el final del último token adoptado se escanea secuencialmente hasta
+	 * sincronizar con algún tramo posterior o llegar al final del fuente.
+	 */
+	private TokenBuffer unir() {
+		int total = 0;
+		for (TokenBuffer tramo : tramos) total += tramo.size();
+		TokenBuffer resultado = new TokenBuffer(total + 16);
+
+		// Los saltos de línea no dependen de cómo se corten los tokens
+		LineIndex lineas = new LineIndex();
+		for (TokenBuffer tramo : tramos) lineas.agregarSaltos(tramo.lineas());
+		resultado.usarLineas(lineas);
+
+		int k = 0;
+		int t = 0;          // primer token del tramo k que falta adoptar
+		long cubierto = 0;   // los comentarios antes de este offset ya están en el resultado
+
+		while (true) {
+			TokenBuffer tramo = tramos[k];
+			resultado.appendRange(tramo, t, tramo.size() - 1, 0);
+
+			int n = resultado.size();
+			long inicio = n > 0 ? resultado.offset(n - 1) + resultado.length(n - 1) : 0;
+			resultado.appendTrivia(tramo, cubierto, inicio, 0);
+			int linea = lineas.linea(inicio);
+			Scanner scanner = new Scanner(new Tramo(fuente, Math.toIntExact(inicio), fuente.length()), BUFFER, inicio, linea);
+
+			boolean sincronizado = false;
+			while (!sincronizado && scanner.scanNext(resultado)) {
+				int j = resultado.size() - 1;
+				long offset = resultado.offset(j);
+				if (offset < inicios[k + 1]) continue;
+
+				while (offset >= inicios[k + 1]) k++;
+				int m = buscarOffset(tramos[k], offset);
+				if (m >= 0) {
+					t = m + 1;
+					cubierto = offset + resultado.length(j);
+					sincronizado = true;
+				}
+			}
+			if (!sincronizado) return resultado;
+		}
+	}
+
+	/** Índice del token que empieza exactamente en {@code offset}, o -1. */
+	private static int buscarOffset(TokenBuffer tokens, long offset) {
+		int lo = 0;
+		int hi = tokens.size() - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long actual = tokens.offset(mid);
+			if (actual < offset) {
+				lo = mid + 1;
+			} else if (actual > offset) {
+				hi = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/** Reader sobre un tramo del String, sin copiarlo. */
+	private static final class Tramo extends Reader {
+		private final String fuente;
+		private final int fin;
+		private int posicion;
+
+		Tramo(String fuente, int desde, int hasta) {
+			this.fuente = fuente;
+			this.posicion = desde;
+			this.fin = hasta;
+		}
+
+		@Override
+		public int read(char[] dst, int off, int len) {
+			if (posicion >= fin) return -1;
+			int n = Math.min(len, fin - posicion);
+			fuente.getChars(posicion, posicion + n, dst, off);
+			posicion += n;
+			return n;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
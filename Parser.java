@@ -1,26 +1,54 @@
 package lexico;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 public class Parser {
-    private static final String[] EPSILON_VALUES = {"ε", "λ", "&"};
     private static final String[] POSSIBLE_PATHS = {"TABLA_TAS_limpia_final.xlsx"};
-
-    private final Map<String, Map<String, String>> TAS = new HashMap<>();
-    private final Set<String> noTerminales = new HashSet<>();
-    private final Stack<String> pila = new Stack<>();
+    // Ventana del cursor: tokens anteriores al actual que se siguen consultando (p. ej. el anterior a los
+    // dos puntos de un case); los demás se descartan al avanzar
+    private static final int VENTANA_RETENIDA = 8;
+    // ...y tokens posteriores que se miran: la columna ENTRADA de la traza (70 caracteres, a lo sumo 36 tokens)
+    private static final int VENTANA_ADELANTE = 36;
+
+    private static final int SIN_TERMINAL = -2;
+    // Con recuperación, el análisis se corta después de tantos errores de sintaxis
+    private static final int MAXIMO_ERRORES_SINTAXIS = 100;
+
+    private TablaAnalisis tabla;
+    // Cuerpos de la tabla con las marcas de MARCAS resueltas
+    private Acciones acciones;
+    // Oyentes de cada terminal; se rearma al cambiar la tabla o las verificaciones
+    private Eventos eventos;
+    private final EnumSet<Verificacion> verificaciones = EnumSet.allOf(Verificacion.class);
+    // Cadenas de derivación precalculadas (--optimize); null deriva paso a paso
+    private Expansiones expansiones;
+    private Traza traza;
+    // Árbol de la última entrada (null si no se pidió) y el nodo de cada posición de la pila
+    private ArbolSintactico arbol;
+    private int[] nodosPila = new int[0];
+    // Modo pánico (--recover): conjuntos de sincronización de la tabla, null si no se pidió
+    private Recuperacion recuperacion;
+    private final List<String> erroresSintaxis = new ArrayList<>();
+    // Desde un error hasta el próximo match de un ancla: no se informan errores nuevos
+    private boolean recuperando;
+    // Token y altura de pila del último pop de recuperación, para asegurar que avanza
+    private int indiceRecuperacion;
+    private int alturaRecuperacion;
+    // Pila de análisis: ids de símbolos de la tabla (o marcas de acción), el tope en pila[alturaPila - 1]
+    private int[] pila = new int[64];
+    private int alturaPila;
     private final Map<TokenType, String> tokenToTerminal = new HashMap<>();
+    // Por ordinal de TokenType: id del terminal en la tabla, o SIN_TERMINAL si se usa el lexema
+    private int[] terminalDeTipo;
+    private int idFin;
+    private int idTrue;
+    private int idFalse;
 
-    private List<Token> tokens;
+    private TokenCursor tokens;
     private int currentTokenIndex;
 
     // =============================================================================
@@ -62,7 +90,9 @@ public class Parser {
         }
     }
 
-    private Map<String, IdentificadorInfo> tablaSimbolos = new HashMap<>();
+    // Clave: id del scope y id del nombre en el Interner, empaquetados en un long
+    private Map<Long, IdentificadorInfo> tablaSimbolos = new HashMap<>();
+    private static final int ID_GLOBAL = Interner.COMPARTIDO.intern("global");
     private List<String> erroresSemanticos = new ArrayList<>();
     private List<String> warnings = new ArrayList<>();
     private Set<String> erroresReportados = new HashSet<>();
@@ -76,6 +106,11 @@ public class Parser {
     private boolean esConstanteActual = false;
     private String funcionActual = "";
     private String claseActual = "";
+    // Se vio "principalsito" y todavía no la llave de su cuerpo
+    private boolean principalPendiente = false;
+    private String claseDelScope;
+    private String funcionDelScope;
+    private int idScope;
     private int nivelBloque = 0;
     private int nivelBloqueFuncion = 0;
     private int nivelBucle = 0;
@@ -113,11 +148,43 @@ public class Parser {
     private int lineaSwitch = -1;  // Línea donde empieza el switch
     private boolean capturandoExpresionSwitch = false;
     private List<Token> tokensExpresionSwitch = new ArrayList<>();
+    // Condición de siCumple/peroSiCumple/SiPersiste/siControla que se está leyendo (null si ninguna)
+    private String contextoCondicion = null;
+    private int lineaCondicion = -1;
+    private int profundidadCondicion = 0;
+    private final List<Token> tokensCondicion = new ArrayList<>();
 
 
 
     public Parser() {
         inicializarMapeoTokens();
+        usarTraza(Traza.porDefecto());
+    }
+
+    /** Reemplaza la traza; la de por defecto es la tabla completa en la consola. */
+    final void usarTraza(Traza traza) {
+        this.traza = traza;
+        traza.conectar(new Traza.Vista() {
+            @Override
+            public String simbolo(int id) {
+                return tabla.simbolo(id);
+            }
+
+            @Override
+            public String produccion(int produccion) {
+                return tabla.texto(produccion);
+            }
+
+            @Override
+            public String pila() {
+                return mostrarPila();
+            }
+
+            @Override
+            public String entrada() {
+                return obtenerEntradaRestante();
+            }
+        });
     }
 
     // =============================================================================
@@ -175,15 +242,17 @@ public class Parser {
         List<Object> postfix = convertirAPostfija(tokens);
 
         // Debug: imprimir expresión postfija
-        System.out.print("\n   >>> [DEBUG] Tokens de expresión: ");
-        for (Object t : tokens) {
-            System.out.print(t + " ");
-        }
-        System.out.print("\n   >>> [DEBUG] Postfija: ");
-        for (Object t : postfix) {
-            System.out.print(t + " ");
+        if (traza.registra(Traza.Nivel.COMPLETA)) {
+            StringBuilder sb = new StringBuilder("\n   >>> [DEBUG] Tokens de expresión: ");
+            for (Object t : tokens) {
+                sb.append(t).append(" ");
+            }
+            sb.append("\n   >>> [DEBUG] Postfija: ");
+            for (Object t : postfix) {
+                sb.append(t).append(" ");
+            }
+            depurar(sb.append("\n").toString());
         }
-        System.out.println();
 
         // Evaluar expresión postfija (AHORA SÍ PASAMOS lineaActual)
         return evaluarPostfija(postfix, lineaActual);
@@ -191,60 +260,64 @@ public class Parser {
 
     // ==================== DESPUÉS DEL MÉTODO evaluarExpresion() ====================
 
-    private void validarCondicionBooleana(List<Token> tokenList, int lineNumber, String contexto) {
-        if (tokenList == null || tokenList.isEmpty()) {
+    /** Valida la condición formada por los tokens entre los paréntesis, ya consumidos. */
+    private void validarCondicionBooleana(List<Token> condicion, int lineNumber, String contexto) {
+        if (condicion.isEmpty()) {
             erroresSemanticos.add("❌ ERROR: Condición vacía en " + contexto + " (línea " + lineNumber + ")");
             return;
         }
 
-        System.out.println("\n   >>> [DEBUG] Validando condición en " + contexto);
+        if (traza.registra(Traza.Nivel.COMPLETA)) {
+            depurar("\n   >>> [DEBUG] Validando condición en " + contexto + "\n");
+        }
 
-        // Convertir List<Token> a List<Object> para evaluarExpresion
+        // Convertir el tramo de tokens a List<Object> para evaluarExpresion
         List<Object> expresionTokens = new ArrayList<>();
 
-        for (Token t : tokenList) {
-            if (t.type == TokenType.ENTERO) {
-                expresionTokens.add(t.literal);
-            } else if (t.type == TokenType.REAL) {
-                expresionTokens.add(((Number) t.literal).floatValue());
-            } else if (t.type == TokenType.BOOLEAN) {
+        for (Token token : condicion) {
+            TokenType tipo = token.type;
+            if (tipo == TokenType.ENTERO) {
+                expresionTokens.add(token.literal);
+            } else if (tipo == TokenType.REAL) {
+                expresionTokens.add(((Number) token.literal).floatValue());
+            } else if (tipo == TokenType.BOOLEAN) {
                 // CORREGIDO: Crear un marcador especial para booleanos
-                boolean valorBool = t.lexeme.equals("true");
+                boolean valorBool = token.lexeme.equals("true");
                 expresionTokens.add("BOOL:" + valorBool);  // Marcador especial
-            } else if (t.type == TokenType.STRING) {
+            } else if (tipo == TokenType.STRING) {
                 // CORREGIDO: Crear un marcador especial para strings
-                expresionTokens.add("STR:" + t.lexeme);  // Marcador especial
-            } else if (t.type == TokenType.CHAR) {
-                expresionTokens.add("CHAR:" + t.literal);  // Marcador especial
-            } else if (t.type == TokenType.IDENTIFICADOR) {
-                expresionTokens.add(t.lexeme);
-            } else if (t.type == TokenType.SUMA) {
+                expresionTokens.add("STR:" + token.lexeme);  // Marcador especial
+            } else if (tipo == TokenType.CHAR) {
+                expresionTokens.add("CHAR:" + token.literal);  // Marcador especial
+            } else if (tipo == TokenType.IDENTIFICADOR) {
+                expresionTokens.add(token.lexeme);
+            } else if (tipo == TokenType.SUMA) {
                 expresionTokens.add("+");
-            } else if (t.type == TokenType.MENOS) {
+            } else if (tipo == TokenType.MENOS) {
                 expresionTokens.add("-");
-            } else if (t.type == TokenType.ASTERISCO) {
+            } else if (tipo == TokenType.ASTERISCO) {
                 expresionTokens.add("*");
-            } else if (t.type == TokenType.DIVISION) {
+            } else if (tipo == TokenType.DIVISION) {
                 expresionTokens.add("/");
-            } else if (t.type == TokenType.MENOR) {
+            } else if (tipo == TokenType.MENOR) {
                 expresionTokens.add("<");
-            } else if (t.type == TokenType.MAYOR) {
+            } else if (tipo == TokenType.MAYOR) {
                 expresionTokens.add(">");
-            } else if (t.type == TokenType.MENOR_QUE) {
+            } else if (tipo == TokenType.MENOR_QUE) {
                 expresionTokens.add("<=");
-            } else if (t.type == TokenType.MAYOR_QUE) {
+            } else if (tipo == TokenType.MAYOR_QUE) {
                 expresionTokens.add(">=");
-            } else if (t.type == TokenType.EQUIVALE) {
+            } else if (tipo == TokenType.EQUIVALE) {
                 expresionTokens.add("==");
-            } else if (t.type == TokenType.DIFERENTE) {
+            } else if (tipo == TokenType.DIFERENTE) {
                 expresionTokens.add("!=");
-            } else if (t.type == TokenType.AND) {
+            } else if (tipo == TokenType.AND) {
                 expresionTokens.add("&&");
-            } else if (t.type == TokenType.OR) {
+            } else if (tipo == TokenType.OR) {
                 expresionTokens.add("||");
-            } else if (t.type == TokenType.PAREN_IZQ) {
+            } else if (tipo == TokenType.PAREN_IZQ) {
                 expresionTokens.add("(");
-            } else if (t.type == TokenType.PAREN_DER) {
+            } else if (tipo == TokenType.PAREN_DER) {
                 expresionTokens.add(")");
             }
         }
@@ -342,7 +415,9 @@ public class Parser {
                 // OPERADORES ARITMÉTICOS
                 if (esOperadorAritmetico(str)) {
                     if (stack.size() < 2) {
-                        System.out.println("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str);
+                        if (traza.registra(Traza.Nivel.COMPLETA)) {
+                            depurar("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str + "\n");
+                        }
                         continue;
                     }
 
@@ -379,13 +454,17 @@ public class Parser {
                     }
 
                     float resultado = aplicarOperacion(a.valor, b.valor, str);
-                    System.out.println("   >>> [DEBUG] " + a.valor + " " + str + " " + b.valor + " = " + resultado);
+                    if (traza.registra(Traza.Nivel.COMPLETA)) {
+                        depurar("   >>> [DEBUG] " + a.valor + " " + str + " " + b.valor + " = " + resultado + "\n");
+                    }
                     stack.push(new ExpresionResult(resultado, tieneReales, tipoDetectado));
                 }
                 // Operadores de comparación
                 else if (esOperadorComparacion(str)) {
                     if (stack.size() < 2) {
-                        System.out.println("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str);
+                        if (traza.registra(Traza.Nivel.COMPLETA)) {
+                            depurar("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str + "\n");
+                        }
                         continue;
                     }
 
@@ -425,14 +504,18 @@ public class Parser {
                     }
 
                     boolean resultadoComparacion = aplicarComparacion(a.valor, b.valor, str);
-                    System.out.println("   >>> [DEBUG] " + a.valor + " " + str + " " + b.valor + " = " + resultadoComparacion);
+                    if (traza.registra(Traza.Nivel.COMPLETA)) {
+                        depurar("   >>> [DEBUG] " + a.valor + " " + str + " " + b.valor + " = " + resultadoComparacion + "\n");
+                    }
 
                     stack.push(new ExpresionResult(resultadoComparacion, "booleanito"));
                 }
                 // Operadores lógicos
                 else if (esOperadorLogico(str)) {
                     if (stack.size() < 2) {
-                        System.out.println("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str);
+                        if (traza.registra(Traza.Nivel.COMPLETA)) {
+                            depurar("\n   >>> [ERROR DEBUG] Pila insuficiente para operador: " + str + "\n");
+                        }
                         continue;
                     }
 
@@ -455,14 +538,14 @@ public class Parser {
                     // ========================================================================
 
                     boolean resultado = aplicarOperadorLogico(a.valorBooleano, b.valorBooleano, str);
-                    System.out.println("   >>> [DEBUG] " + a.valorBooleano + " " + str + " " + b.valorBooleano + " = " + resultado);
+                    if (traza.registra(Traza.Nivel.COMPLETA)) {
+                        depurar("   >>> [DEBUG] " + a.valorBooleano + " " + str + " " + b.valorBooleano + " = " + resultado + "\n");
+                    }
                     stack.push(new ExpresionResult(resultado, "booleanito"));
                 }
                 // Variable
                 else {
-                    String scope = obtenerScopeActual();
-                    IdentificadorInfo var = buscarIdentificador(scope + "." + str);
-                    if (var == null) var = buscarIdentificador("global." + str);
+                    IdentificadorInfo var = buscarVisible(str);
 
                     if (var != null) {
                         String tipoVar = var.tipo;
@@ -675,171 +758,106 @@ public class Parser {
     // CARGA DE TABLA TAS
     // =============================================================================
 
+    /**
+     * Carga la tabla compilada; TablaTAS usa la instantánea binaria junto al
+     * XLSX mientras esté al día y solo lee el XLSX cuando cambia.
+     */
     public void cargarTAS(String archivo) throws IOException {
-        FileInputStream fis = tryOpenFile();
-
-        try (ZipInputStream zipIn = new ZipInputStream(fis)) {
-            Document sheetDoc = null;
-            Document stringsDoc = null;
-
-            ZipEntry entry;
-            while ((entry = zipIn.getNextEntry()) != null) {
-                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
-                    sheetDoc = parseXML(zipIn);
-                } else if (entry.getName().equals("xl/sharedStrings.xml")) {
-                    stringsDoc = parseXML(zipIn);
-                }
-                zipIn.closeEntry();
-            }
-
-            if (sheetDoc == null) {
-                throw new IOException("No se encontró sheet1.xml");
-            }
-
-            List<String> sharedStrings = extractSharedStrings(stringsDoc);
-            procesarFilasXLSX(sheetDoc, sharedStrings);
-
-        } catch (Exception e) {
-            throw new IOException("Error al procesar XLSX: " + e.getMessage(), e);
-        }
+        usarTabla(TablaTAS.cargar(ubicarTabla(archivo)));
     }
 
-    private FileInputStream tryOpenFile() throws IOException {
-        IOException lastException = null;
-        for (String ruta : POSSIBLE_PATHS) {
-            try {
-                return new FileInputStream(ruta);
-            } catch (IOException e) {
-                lastException = e;
-            }
-        }
-        System.err.println("✗ No se pudo encontrar el archivo XLSX");
-        throw lastException;
+    /** Deriva con una tabla ya construida, p. ej. la que emite GeneradorParser. */
+    void usarTabla(TablaAnalisis tabla) {
+        this.tabla = tabla;
+        this.acciones = Acciones.resolver(tabla, ACCIONES, MARCAS);
+        this.eventos = null;
+        this.expansiones = null;
+        if (recuperacion != null) recuperacion = calcularRecuperacion();
+
+        TokenType[] tipos = TokenType.values();
+        terminalDeTipo = new int[tipos.length];
+        for (TokenType tipo : tipos) {
+            String terminal = tokenToTerminal.get(tipo);
+            terminalDeTipo[tipo.ordinal()] = terminal != null ? tabla.id(terminal) : SIN_TERMINAL;
+        }
+        idFin = tabla.id(TablaTAS.FIN);
+        idTrue = tabla.id("TRUE");
+        idFalse = tabla.id("FALSE");
     }
 
-    private List<String> extractSharedStrings(Document stringsDoc) {
-        List<String> strings = new ArrayList<>();
-        if (stringsDoc != null) {
-            NodeList siNodes = stringsDoc.getElementsByTagName("si");
-            for (int i = 0; i < siNodes.getLength(); i++) {
-                Element si = (Element) siNodes.item(i);
-                NodeList tNodes = si.getElementsByTagName("t");
-                strings.add(tNodes.getLength() > 0 ? tNodes.item(0).getTextContent() : "");
-            }
-        }
-        return strings;
+    /**
+     * Deriva con expansiones precalculadas sobre la tabla cargada: un solo
+     * pop y push por cadena de derivaciones. La traza muestra una línea por
+     * expansión en lugar de una por producción.
+     */
+    void optimizar() {
+        expansiones = Expansiones.calcular(tabla, acciones);
     }
 
-    private Document parseXML(InputStream is) throws Exception {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buffer = new byte[1024];
-        int len;
-        while ((len = is.read(buffer)) > -1) {
-            baos.write(buffer, 0, len);
-        }
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        return builder.parse(new ByteArrayInputStream(baos.toByteArray()));
+    /**
+     * Arma el árbol sintáctico mientras deriva. El árbol necesita cada
+     * derivación, así que con él el driver no usa las expansiones.
+     */
+    void construirArbol(boolean construir) {
+        arbol = construir ? new ArbolSintactico() : null;
     }
 
-    private void procesarFilasXLSX(Document doc, List<String> sharedStrings) {
-        NodeList rows = doc.getElementsByTagName("row");
-        String[] encabezados = null;
-
-        for (int r = 0; r < rows.getLength(); r++) {
-            Element row = (Element) rows.item(r);
-            int rowNum = Integer.parseInt(row.getAttribute("r"));
-
-            if (rowNum <= 2) continue;
+    /** Verificaciones semánticas que se pueden apagar; apagadas no se suscriben a ningún terminal. */
+    enum Verificacion { FLUJO, YO, SWITCH, ARREGLOS, CONDICIONES }
 
-            String[] datos = extraerFila(row, sharedStrings);
-
-            if (rowNum == 3) {
-                encabezados = datos;
-                continue;
-            }
-
-            if (datos.length < 2 || datos[1].trim().isEmpty()) continue;
-
-            String noTerminal = datos[1].trim();
-            noTerminales.add(noTerminal);
-
-            Map<String, String> producciones = new HashMap<>();
-            for (int i = 2; i < datos.length && encabezados != null && i < encabezados.length; i++) {
-                String produccion = datos[i].trim();
-                String terminal = encabezados[i].trim();
-
-                if (!produccion.isEmpty() && !produccion.equals("?")) {
-                    producciones.put(terminal, produccion);
-                } else if (isEpsilon(produccion)) {
-                    producciones.put(terminal, "λ");
-                }
-            }
-
-            TAS.put(noTerminal, producciones);
-        }
+    void desactivar(Verificacion verificacion) {
+        verificaciones.remove(verificacion);
+        eventos = null;
     }
 
-    private String[] extraerFila(Element row, List<String> sharedStrings) {
-        List<String> valores = new ArrayList<>();
-        NodeList cells = row.getElementsByTagName("c");
-
-        int colIndex = 0;
-        for (int c = 0; c < cells.getLength(); c++) {
-            Element cell = (Element) cells.item(c);
-            String cellRef = cell.getAttribute("r");
-            int targetCol = getColumnIndex(cellRef);
-
-            while (colIndex < targetCol) {
-                valores.add("");
-                colIndex++;
-            }
-
-            String valor = extractCellValue(cell, sharedStrings);
-            valores.add(valor);
-            colIndex++;
-        }
-
-        return valores.toArray(new String[0]);
+    /**
+     * Ante un error de sintaxis, en lugar de terminar lo informa con los
+     * terminales esperados y se sincroniza (ver {@link #recuperar}) para
+     * seguir analizando: una sola pasada da todos los errores.
+     */
+    void recuperarErrores(boolean recuperar) {
+        recuperacion = recuperar ? calcularRecuperacion() : null;
     }
 
-    private String extractCellValue(Element cell, List<String> sharedStrings) {
-        String type = cell.getAttribute("t");
-        NodeList vNodes = cell.getElementsByTagName("v");
-
-        if (vNodes.getLength() == 0) return "";
-
-        String v = vNodes.item(0).getTextContent();
+    private Recuperacion calcularRecuperacion() {
+        return Recuperacion.calcular(tabla, "INST", "EXPR", ":)", "}");
+    }
 
-        if ("s".equals(type)) {
-            int index = Integer.parseInt(v);
-            return index < sharedStrings.size() ? sharedStrings.get(index) : "";
-        }
+    /** Árbol de la última llamada a analizar, o null si no se pidió. */
+    ArbolSintactico arbol() {
+        return arbol;
+    }
 
-        return v;
+    /** Errores semánticos del último análisis; con la traza apagada, la única forma de enterarse. */
+    int cantidadErroresSemanticos() {
+        return erroresSemanticos.size();
     }
 
-    private int getColumnIndex(String cellRef) {
-        String col = cellRef.replaceAll("[0-9]", "");
-        int index = 0;
-        for (char c : col.toCharArray()) {
-            index = index * 26 + (c - 'A' + 1);
-        }
-        return index - 1;
+    void imprimirArbol(PrintStream out) {
+        if (arbol != null) arbol.imprimir(out, tabla);
     }
 
-    private boolean isEpsilon(String str) {
-        for (String eps : EPSILON_VALUES) {
-            if (str.equals(eps)) return true;
+    private Path ubicarTabla(String archivo) throws IOException {
+        List<String> rutas = new ArrayList<>();
+        if (archivo != null) rutas.add(archivo);
+        rutas.addAll(Arrays.asList(POSSIBLE_PATHS));
+        for (String ruta : rutas) {
+            Path path = Paths.get(ruta);
+            if (Files.isRegularFile(path)) return path;
         }
-        return false;
+        System.err.println("✗ No se pudo encontrar el archivo XLSX");
+        throw new FileNotFoundException(archivo);
     }
 
     // =============================================================================
     // ANÁLISIS SINTÁCTICO
     // =============================================================================
 
-    public void analizar(List<Token> tokensEntrada) {
+    /**
+     * Deriva la entrada y devuelve si es sintácticamente correcta. Lo que se
+     * muestra mientras tanto depende de la traza (ver {@link #usarTraza}).
+     */
+    public boolean analizar(TokenCursor tokensEntrada) {
         this.tokens = tokensEntrada;
         this.currentTokenIndex = 0;
 
@@ -847,59 +865,216 @@ public class Parser {
         erroresSemanticos.clear();
         warnings.clear();
         erroresReportados.clear();
+        erroresSintaxis.clear();
+        if (eventos == null) eventos = suscribirOyentes();
+        recuperando = false;
+        indiceRecuperacion = -1;
         resetearContexto();
 
-        pila.clear();
-        pila.push("$");
-        pila.push("S");
+        alturaPila = 0;
+        apilar(idFin);
+        apilar(tabla.id(TablaTAS.INICIAL));
+        if (arbol != null) {
+            arbol.reiniciar();
+            if (nodosPila.length < pila.length) nodosPila = new int[pila.length];
+            nodosPila[0] = ArbolSintactico.NINGUNO;
+            nodosPila[1] = arbol.nuevo(pila[1]);
+        }
 
-        System.out.println("═".repeat(140));
-        System.out.printf("\033[1m%-35s %-70s %-35s%n\033[0m", "PILA", "ENTRADA", "ACCIÓN");
-        System.out.println("═".repeat(140));
+        traza.encabezado();
 
-        while (!pila.isEmpty()) {
-            String tope = pila.peek();
-            String terminalActual = obtenerTerminalActual();
+        while (alturaPila > 0) {
+            int tope = pila[alturaPila - 1];
+            if (acciones.esAccion(tope)) {
+                alturaPila--;
+                ejecutarAccion(tope);
+                continue;
+            }
+            int terminalActual = obtenerTerminalActual();
 
-            System.out.printf("%-35s %-70s ", mostrarPila(), obtenerEntradaRestante());
+            traza.paso(currentTokenIndex);
 
-            if (tope.equals("$") && terminalActual.equals("$")) {
-                System.out.println("\n\nANÁLISIS SINTÁCTICO CORRECTO");
-                imprimirReporteSemantico();
-                return;
+            if (tope == idFin && terminalActual == idFin) {
+                return aceptar();
             }
 
-            if (!noTerminales.contains(tope)) {
-                if (tope.equals(terminalActual)) {
-                    System.out.println();
-                    Token tokenActual = currentTokenIndex < tokens.size() ? tokens.get(currentTokenIndex) : null;
-                    procesarMatchTerminal(tope, tokenActual);
-                    pila.pop();
+            if (!tabla.esNoTerminal(tope)) {
+                if (tope == terminalActual) {
+                    if (traza.registra(Traza.Nivel.ACCIONES)) traza.match(tope, currentTokenIndex, lineaActual());
+                    // El Token se arma solo si alguien escucha ese terminal
+                    if (eventos.escucha(tope) && tokens.has(currentTokenIndex)) {
+                        eventos.publicar(tope, tokens.get(currentTokenIndex));
+                    }
+                    if (arbol != null) {
+                        arbol.consumir(nodosPila[alturaPila - 1], currentTokenIndex, tokens.symbolId(currentTokenIndex));
+                    }
+                    alturaPila--;
                     avanzarToken();
-                } else {
-                    System.out.println("\n\nerror de sintaxis");
-                    return;
+                    if (recuperando && recuperacion.esAncla(tope)) recuperando = false;
+                } else if (!recuperar(tope, terminalActual)) {
+                    return rechazar();
                 }
-            } else {
-                String produccion = buscarProduccion(tope, terminalActual);
+            } else if (expansiones != null && arbol == null) {
+                Expansiones.Expansion expansion = expansiones.buscar(tope, terminalActual);
+
+                if (expansion != null) {
+                    if (traza.registra(Traza.Nivel.ACCIONES)) {
+                        traza.expansion(tope, expansion.primera, expansion.pasos, expansion.segmento,
+                                currentTokenIndex, lineaActual());
+                    }
+
+                    for (int accion : expansion.acciones) ejecutarAccion(accion);
 
-                if (produccion != null) {
-                    String display = isEpsilon(produccion) ? "&" : produccion;
-                    System.out.printf("\033[1m%s -> %s%n\033[0m", tope, display);
+                    alturaPila--;
+                    empilarSegmento(expansion.segmento);
+                } else if (!recuperar(tope, terminalActual)) {
+                    return rechazar();
+                }
+            } else {
+                int produccion = tabla.buscar(tope, terminalActual);
 
-                    procesarDerivacion(tope, produccion);
+                if (produccion >= 0) {
+                    if (traza.registra(Traza.Nivel.ACCIONES)) {
+                        traza.derivacion(tope, produccion, currentTokenIndex, lineaActual());
+                    }
 
-                    pila.pop();
+                    alturaPila--;
+                    if (arbol != null) derivarNodo(produccion);
                     empilar(produccion);
-                } else {
-                    System.out.println("\n\nerror de sintaxis");
-                    return;
+                } else if (!recuperar(tope, terminalActual)) {
+                    return rechazar();
                 }
             }
         }
 
-        System.out.println("\nANÁLISIS SINTÁCTICO CORRECTO");
-        imprimirReporteSemantico();
+        return aceptar();
+    }
+
+    private boolean aceptar() {
+        if (!erroresSintaxis.isEmpty()) return concluirConErrores();
+        traza.aceptada();
+        if (traza.registra(Traza.Nivel.RESUMEN)) traza.mensaje(Traza.REPORTE, reporteSemantico());
+        return true;
+    }
+
+    private boolean rechazar() {
+        if (recuperacion != null) return concluirConErrores();
+        if (traza.registra(Traza.Nivel.RESUMEN)) traza.errorSintaxis(currentTokenIndex, lineaActual());
+        return false;
+    }
+
+    /**
+     * Recuperación en modo pánico ante una celda vacía o un terminal que no
+     * coincide; devuelve false si no hay recuperación o hay que abandonar.
+     * Solo se informa el primer error hasta sincronizar (el próximo match
+     * de un ancla, ":)" o "}"); mientras tanto los errores semánticos
+     * tampoco se informan, porque la sentencia quedó a medio derivar.
+     *
+     * Con un no terminal en el tope se descarta la entrada hasta un
+     * terminal con el que se pueda derivar o que lo sincronice (su
+     * SIGUIENTE, o un ancla que algún símbolo más abajo espera), y en ese
+     * caso se lo desapila. Con un terminal en el tope, si adelante hay un
+     * ancla esperada más abajo se supone que faltaba y se lo desapila; si
+     * no, se descarta el token. Un ancla que nadie espera (el ":)" de una
+     * sentencia cortada antes de apilarlo) se descarta: desapilar por ella
+     * vaciaría la pila hasta el fin. En un mismo token cada pop
+     * tiene que dejar la pila más baja que el anterior; si no (una celda
+     * mal cargada puede volver a apilar lo mismo) se descarta el token.
+     */
+    private boolean recuperar(int tope, int terminal) {
+        if (recuperacion == null) return false;
+
+        if (!recuperando) {
+            String encontrado = tokens.has(currentTokenIndex) ? "'" + tokens.lexeme(currentTokenIndex) + "'" : "fin de entrada";
+            String detalle = "se encontró " + encontrado + ", se esperaba " + recuperacion.esperados(tope);
+            erroresSintaxis.add("❌ ERROR (línea " + lineaActual() + "): " + detalle);
+            if (traza.registra(Traza.Nivel.RESUMEN)) traza.errorSintaxis(currentTokenIndex, lineaActual(), detalle);
+            if (erroresSintaxis.size() >= MAXIMO_ERRORES_SINTAXIS) return false;
+            recuperando = true;
+            descartarContextoSentencia();
+        }
+
+        boolean desapilar;
+        if (tope == idFin) {
+            desapilar = false;
+        } else if (terminal == idFin) {
+            desapilar = true;
+        } else if (tabla.esNoTerminal(tope)) {
+            desapilar = recuperacion.sigue(tope, terminal) || recuperacion.esAncla(terminal) && esperadoMasAbajo(terminal);
+        } else {
+            desapilar = recuperacion.esAncla(terminal) && esperadoMasAbajo(terminal);
+        }
+
+        if (desapilar && currentTokenIndex == indiceRecuperacion && alturaPila > alturaRecuperacion) {
+            desapilar = false;
+        }
+        if (desapilar) {
+            alturaPila--;
+            indiceRecuperacion = currentTokenIndex;
+            alturaRecuperacion = alturaPila;
+            return true;
+        }
+        if (terminal == idFin) return false;
+        avanzarToken();
+        return true;
+    }
+
+    /**
+     * Si algún símbolo debajo del tope, hasta la lista de sentencias que
+     * contiene al error, puede continuar con el terminal.
+     */
+    private boolean esperadoMasAbajo(int terminal) {
+        for (int k = alturaPila - 2; k >= 0; k--) {
+            if (acciones.esAccion(pila[k])) continue;
+            if (recuperacion.espera(pila[k], terminal)) return true;
+            if (recuperacion.esLista(pila[k])) return false;
+        }
+        return false;
+    }
+
+    /** Estado a medio armar de la sentencia en que hubo un error de sintaxis. */
+    private void descartarContextoSentencia() {
+        idPendiente = "";
+        acabaDeVerAclama = false;
+        vieneDeAclama = false;
+        acabaDeVerInvoco = false;
+        objetoInvocando = "";
+        dentroDeExpresion = false;
+        expresionTokens.clear();
+        tipoExpresionActual = "";
+        varAsignando = null;
+        nombreVarAsignando = "";
+        tamanoArregloDeclarado = -1;
+        elementosArreglo.clear();
+        dentroDeInicializacionArreglo = false;
+        capturandoExpresionSwitch = false;
+        tokensExpresionSwitch.clear();
+        contextoCondicion = null;
+        tokensCondicion.clear();
+    }
+
+    private boolean concluirConErrores() {
+        if (traza.registra(Traza.Nivel.RESUMEN)) traza.mensaje(Traza.REPORTE, reporteSintactico() + reporteSemantico());
+        return false;
+    }
+
+    private String reporteSintactico() {
+        StringWriter texto = new StringWriter();
+        PrintWriter out = new PrintWriter(texto);
+        out.println("\n❌ ERRORES DE SINTAXIS ENCONTRADOS:");
+        out.println("-".repeat(140));
+        for (String error : erroresSintaxis) {
+            out.println("   " + error);
+        }
+        if (erroresSintaxis.size() >= MAXIMO_ERRORES_SINTAXIS) {
+            out.println("   (análisis abandonado después de " + MAXIMO_ERRORES_SINTAXIS + " errores)");
+        }
+        out.flush();
+        return texto.toString();
+    }
+
+    private int lineaActual() {
+        return tokens.has(currentTokenIndex) ? tokens.line(currentTokenIndex) : -1;
     }
 
     private void resetearContexto() {
@@ -908,6 +1083,7 @@ public class Parser {
         idPendiente = "";
         funcionActual = "";
         claseActual = "";
+        principalPendiente = false;
         nivelBloque = 0;
         nivelBloqueFuncion = 0;
         nivelBucle = 0;
@@ -940,344 +1116,394 @@ public class Parser {
         lineaSwitch = -1;
         capturandoExpresionSwitch = false;
         tokensExpresionSwitch.clear();
+        contextoCondicion = null;
+        tokensCondicion.clear();
     }
 
     // =============================================================================
     // PROCESAMIENTO SEMÁNTICO
     // =============================================================================
 
-    private void procesarDerivacion(String noTerminal, String produccion) {
-        if ((produccion.contains("favor") && !produccion.contains("porfavor")) || produccion.contains("metodillo")) {
-            parametrosActuales.clear();
-            tipoRetornoActual = "";
-            funcionTieneRetorno = false;
-            esperandoTipoRetorno = true;
-        }
+    // Acciones de las marcas: ACCIONES[k] la ejecuta manejadores[k]
+    private static final String[] ACCIONES = {
+            "inicioFuncion", "constante", "entrarBucle", "inicioSwitch", "inicioConstructor",
+    };
+    private static final String[] MARCAS = {
+            "FUNC -> #inicioFuncion favor CFUNC :)",
+            "METODO -> #inicioFuncion porfavor metodillo CFUNC METODO",
+            "CDECL -> #constante constantito TIPODATO id ARRC",
+            "CONTROL_WHILE -> #entrarBucle SiPersiste ( EXPR ) { BLOQUE CONTROL_WHILE_IF }",
+            "CONTROL_WHILE_IF -> #entrarBucle siControla ( EXPR ) { BLOQUE CONTINUEORBREAK } WHILE_ELSE",
+            "CONTROL_SWITCH -> #inicioSwitch enCasoSea ( id ) { CASOS CASODEFAULT }",
+            "CONSTRUCTOR -> #inicioConstructor id ( PARAMETRO ) { BLOQUE_CONSTRUCTOR }",
+    };
+    private final Runnable[] manejadores = {
+            this::inicioFuncion, this::inicioConstante, this::entrarBucle, this::inicioSwitch, this::inicioConstructor,
+    };
+
+    private void ejecutarAccion(int marca) {
+        manejadores[acciones.accion(marca)].run();
+    }
+
+    private void inicioFuncion() {
+        parametrosActuales.clear();
+        tipoRetornoActual = "";
+        funcionTieneRetorno = false;
+        esperandoTipoRetorno = true;
+    }
+
+    private void inicioConstante() {
+        esConstanteActual = true;
+    }
+
+    private void entrarBucle() {
+        nivelBucle++;
+    }
+
+    private void inicioSwitch() {
+        dentroDeSwitch = true;
+        tipoSwitch = "";
+        valoresCaseVistos.clear();
+        lineaPrimerCase = -1;
+    }
+
+    private void inicioConstructor() {
+        dentroDeConstructor = true;
+    }
+
+    /**
+     * Suscribe el análisis de cada match a los terminales que le importan,
+     * en el orden de siempre: los oyentes de un mismo terminal corren en el
+     * orden en que se suscriben acá. Las verificaciones desactivadas no se
+     * suscriben.
+     */
+    private Eventos suscribirOyentes() {
+        Eventos e = new Eventos(tabla.simbolos());
 
-        if (produccion.contains("constantito")) {
-            esConstanteActual = true;
+        // 1. TIPOS
+        e.en(this::alTipo, t("enterito"), t("realito"), t("booleanito"), t("charsito"), t("cadenita"),
+                t("vacio"), t("clasesita"));
+
+        // 2-4. ACLAMA, INVOCO Y PUNTO
+        e.en((terminal, token) -> acabaDeVerAclama = true, t("aclama"));
+        e.en((terminal, token) -> acabaDeVerInvoco = true, t("invoco"));
+        e.en(this::alPunto, t("."));
+
+        // 5. COLECTAR TOKENS DE EXPRESIÓN
+        e.en(this::colectarExpresion, t("entero"), t("decimal"), t("TRUE"), t("cadena"), t("char"), t("id"),
+                t("+"), t("-"), t("*"), t("/"), t("("), t(")"),
+                t("<"), t(">"), t("<="), t(">="), t("=="), t("!="), t("&&"), t("||"));
+
+        // 6. IDENTIFICADORES
+        e.en((terminal, token) -> procesarIdentificador(token), t("id"));
+
+        // 6b. ARREGLOS: tamaño declarado, inicio de la inicialización y sus elementos
+        if (verificaciones.contains(Verificacion.ARREGLOS)) {
+            e.en(this::alTamanoArreglo, t("["));
+            e.en(this::alInicioArreglo, t("="));
+            e.en(this::colectarElementoArreglo, t("entero"), t("decimal"), t("cadena"), t("char"), t("TRUE"), t("FALSE"));
         }
 
-        if (produccion.contains("SiPersiste") || produccion.contains("siControla")) {
-            nivelBucle++;
+        // 7. ENTRADA A BLOQUE (la primera llave después de "principalsito ( )" abre su cuerpo)
+        e.en((terminal, token) -> principalPendiente = true, t("principalsito"));
+        e.en(this::abrirBloque, t("{"));
+
+        // 8. FIN DE DECLARACIÓN (:)): primero se valida el arreglo, que todavía usa idPendiente
+        if (verificaciones.contains(Verificacion.ARREGLOS)) {
+            e.en(this::cerrarArreglo, t(":)"));
         }
+        e.en(this::finDeSentencia, t(":)"));
+
+        // 9. ASIGNACIÓN (porfavor)
+        e.en((terminal, token) -> prepararAsignacion(token), t("porfavor"));
 
-        if (produccion.contains("enCasoSea")) {
-            dentroDeSwitch = true;
+        // 9b. CONDICIONES BOOLEANAS EN ESTRUCTURAS DE CONTROL
+        if (verificaciones.contains(Verificacion.CONDICIONES)) {
+            e.en(this::verificarCondicion, t("siCumple"), t("peroSiCumple"), t("SiPersiste"), t("siControla"));
+            // La palabra clave la arma; adentro solo puede haber terminales de "( EXPR )"
+            e.en(this::capturarCondicion, terminalesDe("EXPR", "(", ")"));
         }
 
-        if (produccion.contains("enCasoSea")) {
-            dentroDeSwitch = true;
-            tipoSwitch = "";
-            valoresCaseVistos.clear();
-            lineaPrimerCase = -1;
+        // 10. CONTROL DE FLUJO Y 'yo'
+        if (verificaciones.contains(Verificacion.FLUJO)) {
+            e.en(this::verificarSaltear, t("saltear"));
+            e.en(this::verificarParar, t("parar"));
+        }
+        if (verificaciones.contains(Verificacion.YO)) {
+            e.en(this::verificarYo, t("yo"));
         }
 
-        if (noTerminal.equals("CONSTRUCTOR") && produccion.contains("BLOQUE_CONSTRUCTOR")) {
-            dentroDeConstructor = true;
+        // 11. RETORNA
+        e.en(this::alRetorna, t("retorna"));
+
+        // 11b. SWITCH: 'parar' necesita saber si se está en uno aunque no se verifiquen los casos
+        e.en((terminal, token) -> dentroDeSwitch = true, t("enCasoSea"));
+        if (verificaciones.contains(Verificacion.SWITCH)) {
+            e.en(this::inicioSwitchCasos, t("enCasoSea"));
+            // enCasoSea ( id ): la palabra clave la arma y el paréntesis la cierra
+            e.en(this::capturarExpresionSwitch, t("id"), t(")"));
+            e.en(this::verificarCase, t(":"));
         }
+
+        // 12. FIN DE BLOQUES (})
+        e.en((terminal, token) -> procesarCierreBloque(), t("}"));
+        return e;
     }
 
-    private void procesarMatchTerminal(String terminal, Token token) {
-        if (token == null) return;
+    /** Id del terminal en la tabla cargada, o -1 si no está. */
+    private int t(String terminal) {
+        return tabla.id(terminal);
+    }
 
-        // 1. TIPOS
-        if (esTipoDato(terminal)) {
-            if (esperandoTipoRetorno) {
-                tipoRetornoActual = terminal;
-                esperandoTipoRetorno = false;
-            } else {
-                tipoActual = terminal;
+    /**
+     * Terminales que pueden aparecer en lo que deriva el no terminal,
+     * recorriendo los cuerpos de sus celdas, más los indicados; cada uno una vez.
+     */
+    private int[] terminalesDe(String noTerminal, String... ademas) {
+        BitSet terminales = new BitSet();
+        for (String terminal : ademas) {
+            if (t(terminal) >= 0) terminales.set(t(terminal));
+        }
+        BitSet vistos = new BitSet();
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        if (t(noTerminal) >= 0) pendientes.push(t(noTerminal));
+        while (!pendientes.isEmpty()) {
+            int nt = pendientes.pop();
+            if (vistos.get(nt)) continue;
+            vistos.set(nt);
+            for (int terminal = 0; terminal < tabla.simbolos(); terminal++) {
+                int produccion = tabla.buscar(nt, terminal);
+                if (produccion < 0) continue;
+                for (int simbolo : tabla.cuerpo(produccion)) {
+                    if (tabla.esNoTerminal(simbolo)) {
+                        pendientes.push(simbolo);
+                    } else {
+                        terminales.set(simbolo);
+                    }
+                }
             }
         }
+        return terminales.stream().toArray();
+    }
 
-        // 2. ACLAMA
-        if (terminal.equals("aclama")) {
-            acabaDeVerAclama = true;
-        }
-
-        // 3. INVOCO
-        if (terminal.equals("invoco")) {
-            acabaDeVerInvoco = true;
+    private void alTipo(int terminal, Token token) {
+        if (esperandoTipoRetorno) {
+            tipoRetornoActual = tabla.simbolo(terminal);
+            esperandoTipoRetorno = false;
+        } else {
+            tipoActual = tabla.simbolo(terminal);
         }
+    }
 
-        // 4. PUNTO
-        if (terminal.equals(".")) {
-            if (acabaDeVerAclama) {
-                vieneDeAclama = true;
-                acabaDeVerAclama = false;
-            }
+    private void alPunto(int terminal, Token token) {
+        if (acabaDeVerAclama) {
+            vieneDeAclama = true;
+            acabaDeVerAclama = false;
         }
+    }
 
-        // 5. COLECTAR TOKENS DE EXPRESIÓN
-        if (dentroDeExpresion) {
-            if (terminal.equals("entero") && token.type == TokenType.ENTERO) {
+    private void colectarExpresion(int terminal, Token token) {
+        if (!dentroDeExpresion) return;
+        switch (token.type) {
+            case ENTERO:
                 expresionTokens.add(token.literal);
-            } else if (terminal.equals("decimal") && token.type == TokenType.REAL) {
+                break;
+            case REAL:
                 expresionTokens.add(((Number) token.literal).floatValue());
-            }
-            // ========== AGREGAR ESTOS CASOS ==========
-            else if (terminal.equals("TRUE") && token.type == TokenType.BOOLEAN) {
-                boolean valorBool = token.lexeme.equals("true");
-                expresionTokens.add("BOOL:" + valorBool);
-            }
-            else if (terminal.equals("cadena") && token.type == TokenType.STRING) {
+                break;
+            case BOOLEAN:
+                expresionTokens.add("BOOL:" + token.lexeme.equals("true"));
+                break;
+            case STRING:
                 expresionTokens.add("STR:" + token.literal);
-            }
-            else if (terminal.equals("char") && token.type == TokenType.CHAR) {
+                break;
+            case CHAR:
                 expresionTokens.add("CHAR:" + token.literal);
-            }
-            // ==========================================
-            else if (terminal.equals("id")) {
+                break;
+            case IDENTIFICADOR:
+            case IDENTIFICADOR_MAYUSCULA:
                 if (!token.lexeme.equals(nombreVarAsignando)) {
                     expresionTokens.add(token.lexeme);
                 }
-            } else if (terminal.equals("+") || terminal.equals("-") ||
-                    terminal.equals("*") || terminal.equals("/")) {
-                expresionTokens.add(terminal);
-            } else if (terminal.equals("(")) {
-                expresionTokens.add("(");
-            } else if (terminal.equals(")")) {
-                expresionTokens.add(")");
-            }
-            // Operadores de comparación
-            else if (terminal.equals("<") || terminal.equals(">") ||
-                    terminal.equals("<=") || terminal.equals(">=") ||
-                    terminal.equals("==") || terminal.equals("!=")) {
-                expresionTokens.add(terminal);
-            }
-            // Operadores lógicos
-            else if (terminal.equals("&&") || terminal.equals("||")) {
-                expresionTokens.add(terminal);
-            }
+                break;
+            default:
+                // Operadores y paréntesis
+                expresionTokens.add(tabla.simbolo(terminal));
+                break;
         }
+    }
 
-        // 6. IDENTIFICADORES
-        if (terminal.equals("id")) {
-            procesarIdentificador(token);
-        }
-
-        // 6b. MANEJO DE ARREGLOS - Capturar tamaño y elementos
-        if (terminal.equals("[")) {
-            // Mirar si el siguiente token es un entero (tamaño del arreglo)
-            if (currentTokenIndex + 1 < tokens.size()) {
-                Token siguienteToken = tokens.get(currentTokenIndex + 1);
-                if (siguienteToken.type == TokenType.ENTERO) {
-                    tamanoArregloDeclarado = (Integer) siguienteToken.literal;
-                    tipoArregloActual = tipoActual; // Guardar el tipo del arreglo
-
-                    // Validar tamaño >= 0
-                    if (tamanoArregloDeclarado < 0) {
-                        agregarError("Tamaño de arreglo no puede ser negativo: " + tamanoArregloDeclarado + " (línea " + token.line + ")");
-                    }
-                }
+    private void alTamanoArreglo(int terminal, Token token) {
+        // Mirar si el siguiente token es un entero (tamaño del arreglo)
+        if (tokens.has(currentTokenIndex + 1) && tokens.type(currentTokenIndex + 1) == TokenType.ENTERO) {
+            tamanoArregloDeclarado = tokens.intValue(currentTokenIndex + 1);
+            tipoArregloActual = tipoActual; // Guardar el tipo del arreglo
+
+            // Validar tamaño >= 0
+            if (tamanoArregloDeclarado < 0) {
+                agregarError("Tamaño de arreglo no puede ser negativo: " + tamanoArregloDeclarado + " (línea " + token.line + ")");
             }
         }
+    }
 
-        // Detectar inicio de inicialización de arreglo (después de =)
-        if (terminal.equals("=") && tamanoArregloDeclarado >= 0) {
-            // El siguiente debe ser {
-            if (currentTokenIndex + 1 < tokens.size()) {
-                Token siguienteToken = tokens.get(currentTokenIndex + 1);
-                if (siguienteToken.type == TokenType.LLAVE_IZQ) {
-                    dentroDeInicializacionArreglo = true;
-                    elementosArreglo.clear();
-                }
-            }
+    private void alInicioArreglo(int terminal, Token token) {
+        // Con tamaño declarado, '=' seguido de '{' empieza la inicialización
+        if (tamanoArregloDeclarado >= 0 && tokens.has(currentTokenIndex + 1)
+                && tokens.type(currentTokenIndex + 1) == TokenType.LLAVE_IZQ) {
+            dentroDeInicializacionArreglo = true;
+            elementosArreglo.clear();
         }
+    }
 
-        // Capturar elementos del arreglo
-        if (dentroDeInicializacionArreglo) {
-            if (terminal.equals("entero") && token.type == TokenType.ENTERO) {
+    private void colectarElementoArreglo(int terminal, Token token) {
+        if (!dentroDeInicializacionArreglo) return;
+        switch (token.type) {
+            case ENTERO:
                 elementosArreglo.add("enterito");
-            } else if (terminal.equals("decimal") && token.type == TokenType.REAL) {
+                break;
+            case REAL:
                 elementosArreglo.add("realito");
-            } else if (terminal.equals("cadena") && token.type == TokenType.STRING) {
+                break;
+            case STRING:
                 elementosArreglo.add("cadenita");
-            } else if (terminal.equals("char") && token.type == TokenType.CHAR) {
+                break;
+            case CHAR:
                 elementosArreglo.add("charsito");
-            } else if ((terminal.equals("TRUE") || terminal.equals("FALSE")) && token.type == TokenType.BOOLEAN) {
+                break;
+            case BOOLEAN:
                 elementosArreglo.add("booleanito");
-            }
+                break;
+            default:
+                break;
         }
+    }
 
-        // 7. ENTRADA A BLOQUE
-        if (terminal.equals("{")) {
-            nivelBloque++;
-
-            if (!funcionActual.isEmpty() || dentroDeConstructor) {
-                dentroDeFuncion = true;
-                nivelBloqueFuncion++;
+    private void abrirBloque(int terminal, Token token) {
+        nivelBloque++;
 
-                if (!claseActual.isEmpty() && !funcionActual.isEmpty()) {
-                    dentroDeMetodo = true;
-                }
-            }
+        if (!funcionActual.isEmpty() || dentroDeConstructor) {
+            dentroDeFuncion = true;
+            nivelBloqueFuncion++;
 
-            if (funcionActual.isEmpty() && claseActual.isEmpty()) {
-                for (int i = currentTokenIndex - 1; i >= Math.max(0, currentTokenIndex - 5); i--) {
-                    if (tokens.get(i).type == TokenType.PRINCIPALSITO) {
-                        funcionActual = "principalsito";
-                        dentroDeFuncion = true;
-                        nivelBloqueFuncion = 1;
-                        tipoRetornoActual = "vacio";
-                        break;
-                    }
-                }
+            if (!claseActual.isEmpty() && !funcionActual.isEmpty()) {
+                dentroDeMetodo = true;
             }
         }
 
-        // 8. FIN DE DECLARACIÓN (:))
-        // 8. FIN DE DECLARACIÓN (:))
-        if (terminal.equals(":)")) {
-            // Validar arreglo si estábamos en inicialización
-            if (dentroDeInicializacionArreglo) {
-                validarArregloConstantito(token.line);
-                dentroDeInicializacionArreglo = false;
-                tamanoArregloDeclarado = -1;
-                elementosArreglo.clear();
-                tipoArregloActual = "";
-            }
-
-            if (!dentroDeMetodo && !idPendiente.isEmpty() && !tipoActual.isEmpty()) {
-                procesarFinDeclaracion(token);
-            }
-
-            if (dentroDeExpresion && varAsignando != null) {
-                ejecutarAsignacionConExpresion(token.line);
-                dentroDeExpresion = false;
-            }
+        if (principalPendiente && funcionActual.isEmpty() && claseActual.isEmpty()) {
+            principalPendiente = false;
+            funcionActual = "principalsito";
+            dentroDeFuncion = true;
+            nivelBloqueFuncion = 1;
+            tipoRetornoActual = "vacio";
         }
+    }
 
-        // 9. ASIGNACIÓN (porfavor)
-        if (terminal.equals("porfavor")) {
-            prepararAsignacion(token);
+    private void cerrarArreglo(int terminal, Token token) {
+        if (dentroDeInicializacionArreglo) {
+            validarArregloConstantito(token.line);
+            dentroDeInicializacionArreglo = false;
+            tamanoArregloDeclarado = -1;
+            elementosArreglo.clear();
+            tipoArregloActual = "";
         }
+    }
 
-        // 9b. VALIDACIÓN DE CONDICIONES BOOLEANAS EN ESTRUCTURAS DE CONTROL
-        if (terminal.equals("siCumple") || terminal.equals("peroSiCumple") ||
-                terminal.equals("SiPersiste") || terminal.equals("siControla")) {
-
-            String contexto = terminal;
-
-            // El siguiente token debe ser (
-            if (currentTokenIndex + 1 < tokens.size() &&
-                    tokens.get(currentTokenIndex + 1).type == TokenType.PAREN_IZQ) {
-
-                // Capturar tokens de la condición
-                List<Token> condicionTokens = new ArrayList<>();
-                int parenCount = 0;
-                int startIdx = currentTokenIndex + 1; // Empezar desde el (
-
-                for (int i = startIdx; i < tokens.size(); i++) {
-                    Token t = tokens.get(i);
-
-                    if (t.type == TokenType.PAREN_IZQ) {
-                        parenCount++;
-                        if (parenCount > 1) { // No incluir el primer (
-                            condicionTokens.add(t);
-                        }
-                    } else if (t.type == TokenType.PAREN_DER) {
-                        parenCount--;
-                        if (parenCount == 0) {
-                            // Encontramos el cierre, validar ahora
-                            break;
-                        } else {
-                            condicionTokens.add(t);
-                        }
-                    } else {
-                        condicionTokens.add(t);
-                    }
-                }
-
-                // Validar la condición
-                if (!condicionTokens.isEmpty()) {
-                    validarCondicionBooleana(condicionTokens, token.line, contexto);
-                }
-            }
+    private void finDeSentencia(int terminal, Token token) {
+        if (!dentroDeMetodo && !idPendiente.isEmpty() && !tipoActual.isEmpty()) {
+            procesarFinDeclaracion(token);
         }
 
-        // 10. CONTROL DE FLUJO
-        if (terminal.equals("saltear")) {
-            if (nivelBucle == 0) {
-                agregarError("'saltear' fuera de bucle (línea " + token.line + ")");
-            }
+        if (dentroDeExpresion && varAsignando != null) {
+            ejecutarAsignacionConExpresion(token.line);
+            dentroDeExpresion = false;
         }
+    }
 
-        if (terminal.equals("parar")) {
-            if (!dentroDeSwitch && nivelBucle == 0) {
-                agregarError("'parar' fuera de switch o bucle (línea " + token.line + ")");
-            }
+    /**
+     * La condición se junta a medida que se consume y se valida al cerrar
+     * su paréntesis: mirarla entera desde la palabra clave obligaba al
+     * cursor a retener tokens hasta el cierre.
+     */
+    private void verificarCondicion(int terminal, Token token) {
+        // El siguiente token debe ser (
+        if (tokens.has(currentTokenIndex + 1) && tokens.type(currentTokenIndex + 1) == TokenType.PAREN_IZQ) {
+            contextoCondicion = tabla.simbolo(terminal);
+            lineaCondicion = token.line;
+            profundidadCondicion = 0;
+            tokensCondicion.clear();
         }
+    }
 
-        if (terminal.equals("yo")) {
-            if (claseActual.isEmpty()) {
-                agregarError("'yo' usado fuera de clase (línea " + token.line + ")");
-            }
+    private void capturarCondicion(int terminal, Token token) {
+        if (contextoCondicion == null) return;
+        if (token.type == TokenType.PAREN_IZQ) {
+            // El primero abre la condición
+            if (profundidadCondicion++ == 0) return;
+        } else if (token.type == TokenType.PAREN_DER && --profundidadCondicion == 0) {
+            String contexto = contextoCondicion;
+            contextoCondicion = null;
+            if (!tokensCondicion.isEmpty()) validarCondicionBooleana(tokensCondicion, lineaCondicion, contexto);
+            tokensCondicion.clear();
+            return;
         }
+        tokensCondicion.add(token);
+    }
 
-        // 11. RETORNA
-        if (terminal.equals("retorna")) {
-            if (funcionActual.isEmpty()) {
-                agregarError("'retorna' fuera de función");
-            } else {
-                funcionTieneRetorno = true;
-            }
+    private void verificarSaltear(int terminal, Token token) {
+        if (nivelBucle == 0) {
+            agregarError("'saltear' fuera de bucle (línea " + token.line + ")");
         }
+    }
 
-        // 11b cases
-        if (terminal.equals("enCasoSea")) {
-            dentroDeSwitch = true;
-            tipoSwitch = "";
-            valoresCaseVistos.clear();
-            lineaSwitch = token.line;
-            capturandoExpresionSwitch = false;
-            tokensExpresionSwitch.clear();
+    private void verificarParar(int terminal, Token token) {
+        if (!dentroDeSwitch && nivelBucle == 0) {
+            agregarError("'parar' fuera de switch o bucle (línea " + token.line + ")");
         }
+    }
 
-        // Detectar inicio de expresión (paréntesis después de enCasoSea)
-        if (dentroDeSwitch && tipoSwitch.isEmpty() && terminal.equals("(")) {
-            capturandoExpresionSwitch = true;
-            tokensExpresionSwitch.clear();
+    private void verificarYo(int terminal, Token token) {
+        if (claseActual.isEmpty()) {
+            agregarError("'yo' usado fuera de clase (línea " + token.line + ")");
         }
+    }
 
-        // Capturar tokens de la expresión del switch
-        if (capturandoExpresionSwitch && !terminal.equals("(")) {
-            if (terminal.equals(")")) {
-                // Terminamos de capturar, evaluar tipo
-                capturandoExpresionSwitch = false;
-                evaluarTipoExpresionSwitch(token.line);
-            } else {
-                // Agregar token a la expresión
-                tokensExpresionSwitch.add(token);
-            }
+    private void alRetorna(int terminal, Token token) {
+        if (funcionActual.isEmpty()) {
+            agregarError("'retorna' fuera de función");
+        } else {
+            funcionTieneRetorno = true;
         }
+    }
 
-        // ========== NUEVA VALIDACIÓN DE CASES ==========
-        // Validar cuando encontramos DOS_PUNTOS después de un literal dentro del switch
-        if (terminal.equals(":") && dentroDeSwitch && !tipoSwitch.isEmpty()) {
-            // Mirar el token ANTERIOR (el valor del case)
-            if (currentTokenIndex > 0) {
-                Token tokenAnterior = tokens.get(currentTokenIndex - 1);
+    private void inicioSwitchCasos(int terminal, Token token) {
+        tipoSwitch = "";
+        valoresCaseVistos.clear();
+        lineaSwitch = token.line;
+        // Lo que sigue, hasta el paréntesis que cierra, es la expresión
+        capturandoExpresionSwitch = true;
+        tokensExpresionSwitch.clear();
+    }
 
-                // Verificar que NO es oSino (caso default)
-                if (tokenAnterior.type != TokenType.OSINO) {
-                    // Es un case con valor, validarlo
-                    validarCaseConToken(tokenAnterior);
-                }
-            }
+    private void capturarExpresionSwitch(int terminal, Token token) {
+        if (!capturandoExpresionSwitch) return;
+        if (token.type == TokenType.PAREN_DER) {
+            // Terminamos de capturar, evaluar tipo
+            capturandoExpresionSwitch = false;
+            evaluarTipoExpresionSwitch(token.line);
+        } else {
+            tokensExpresionSwitch.add(token);
         }
+    }
 
-        // 12. FIN DE BLOQUES (})
-        if (terminal.equals("}")) {
-            procesarCierreBloque();
-
-            if (dentroDeSwitch && nivelBloque <= 0) {
-                dentroDeSwitch = false;
-                tipoSwitch = "";
-                valoresCaseVistos.clear();
-                lineaSwitch = -1;
-                tokensExpresionSwitch.clear();
+    private void verificarCase(int terminal, Token token) {
+        // DOS_PUNTOS después del valor de un case: se valida el token ANTERIOR
+        if (dentroDeSwitch && !tipoSwitch.isEmpty() && currentTokenIndex > 0) {
+            Token tokenAnterior = tokens.get(currentTokenIndex - 1);
+
+            // oSino es el caso default
+            if (tokenAnterior.type != TokenType.OSINO) {
+                validarCaseConToken(tokenAnterior);
             }
         }
     }
@@ -1312,10 +1538,7 @@ public class Parser {
             case IDENTIFICADOR_MAYUSCULA:
                 // Es una variable/constante, buscar su valor
                 String nombreVar = tokenValor.lexeme;
-                String scope = obtenerScopeActual();
-
-                IdentificadorInfo varInfo = buscarIdentificador(scope + "." + nombreVar);
-                if (varInfo == null) varInfo = buscarIdentificador("global." + nombreVar);
+                IdentificadorInfo varInfo = buscarVisible(nombreVar);
 
                 if (varInfo == null) {
                     agregarError("Variable '" + nombreVar + "' no declarada en case (línea " + tokenValor.line + ")");
@@ -1348,8 +1571,10 @@ public class Parser {
 
         // Si todo está bien, agregar el valor
         valoresCaseVistos.add(valorActualCase);
-        imprimirAccionSemantica("Case válido: " + valorActualCase + " de tipo " +
-                tipoActualCase.toUpperCase() + " (línea " + tokenValor.line + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Case válido: " + valorActualCase + " de tipo " +
+                    tipoActualCase.toUpperCase() + " (línea " + tokenValor.line + ")");
+        }
     }
 
     private void evaluarTipoExpresionSwitch(int linea) {
@@ -1378,10 +1603,7 @@ public class Parser {
             else if (token.type == TokenType.IDENTIFICADOR ||
                     token.type == TokenType.IDENTIFICADOR_MAYUSCULA) {
                 String nombreVar = token.lexeme;
-                String scope = obtenerScopeActual();
-
-                IdentificadorInfo varInfo = buscarIdentificador(scope + "." + nombreVar);
-                if (varInfo == null) varInfo = buscarIdentificador("global." + nombreVar);
+                IdentificadorInfo varInfo = buscarVisible(nombreVar);
 
                 if (varInfo == null) {
                     agregarError("Variable '" + nombreVar + "' no declarada en switch (línea " + linea + ")");
@@ -1433,8 +1655,10 @@ public class Parser {
             tipoSwitch = resultado.tipo;
         }
 
-        imprimirAccionSemantica("Switch evaluado: expresión de tipo " + tipoSwitch.toUpperCase() +
-                " (línea " + lineaSwitch + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Switch evaluado: expresión de tipo " + tipoSwitch.toUpperCase() +
+                    " (línea " + lineaSwitch + ")");
+        }
     }
 
     private void validarCase(String terminal, Token token) {
@@ -1483,8 +1707,10 @@ public class Parser {
 
         // Si todo está bien, agregar el valor
         valoresCaseVistos.add(valorActualCase);
-        imprimirAccionSemantica("Case válido: " + valorActualCase + " de tipo " +
-                tipoActualCase.toUpperCase() + " (línea " + token.line + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Case válido: " + valorActualCase + " de tipo " +
+                    tipoActualCase.toUpperCase() + " (línea " + token.line + ")");
+        }
     }
 
     private void procesarIdentificador(Token token) {
@@ -1521,14 +1747,12 @@ public class Parser {
         }
 
         if (!objetoInvocando.isEmpty()) {
-            String scope = obtenerScopeActual();
-            IdentificadorInfo objInfo = buscarIdentificador(scope + "." + objetoInvocando);
-            if (objInfo == null) objInfo = buscarIdentificador("global." + objetoInvocando);
+            IdentificadorInfo objInfo = buscarVisible(objetoInvocando);
 
             if (objInfo != null && objInfo.modificador.equals("objeto")) {
                 String tipoClase = objInfo.tipo;
-                String metodoKey = "clase_" + tipoClase + "." + nombre;
-                IdentificadorInfo metodoInfo = buscarIdentificador(metodoKey);
+                int scopeClase = Interner.COMPARTIDO.intern("clase_" + tipoClase);
+                IdentificadorInfo metodoInfo = buscarIdentificador(scopeClase, nombre);
 
                 if (metodoInfo == null || !metodoInfo.modificador.equals("metodillo")) {
                     agregarError("Método '" + nombre + "' no existe en clase '" + tipoClase + "' (línea " + token.line + ")");
@@ -1569,7 +1793,7 @@ public class Parser {
     }
 
     private void registrarClase(String nombre, int linea) {
-        String key = "global." + nombre;
+        long key = clave(ID_GLOBAL, nombre);
 
         if (tablaSimbolos.containsKey(key)) {
             agregarError("Clase '" + nombre + "' ya declarada en línea " + tablaSimbolos.get(key).linea);
@@ -1580,11 +1804,13 @@ public class Parser {
         tablaSimbolos.put(key, info);
         claseActual = nombre;
 
-        imprimirAccionSemantica("Declarando clase: " + nombre);
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Declarando clase: " + nombre);
+        }
     }
 
     private void registrarFuncion(String nombre, int linea) {
-        String key = "global." + nombre;
+        long key = clave(ID_GLOBAL, nombre);
 
         if (tablaSimbolos.containsKey(key)) {
             agregarError("Función '" + nombre + "' ya declarada en línea " + tablaSimbolos.get(key).linea);
@@ -1598,14 +1824,16 @@ public class Parser {
         idPendiente = "";
         tipoActual = "";
 
-        imprimirAccionSemantica("Declarando función: " + nombre + " (Retorna: " + tipoRetornoActual.toUpperCase() + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Declarando función: " + nombre + " (Retorna: " + tipoRetornoActual.toUpperCase() + ")");
+        }
     }
 
     private void registrarMetodo(Token token) {
         if (funcionActual.isEmpty()) return;
 
         String scope = "clase_" + claseActual;
-        String key = scope + "." + funcionActual;
+        long key = clave(Interner.COMPARTIDO.intern(scope), funcionActual);
 
         if (tablaSimbolos.containsKey(key)) {
             agregarError("Método '" + funcionActual + "' ya declarado en clase " + claseActual);
@@ -1621,8 +1849,10 @@ public class Parser {
 
         tablaSimbolos.put(key, info);
 
-        imprimirAccionSemantica("Declarando método: " + funcionActual + " (Tipo: " + tipoRetornoActual.toUpperCase() +
-                ", Scope: " + scope + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Declarando método: " + funcionActual + " (Tipo: " + tipoRetornoActual.toUpperCase() +
+                    ", Scope: " + scope + ")");
+        }
     }
 
     private void registrarParametro(String nombre, int linea) {
@@ -1630,13 +1860,15 @@ public class Parser {
 
         String scope = !claseActual.isEmpty() ? "clase_" + claseActual :
                 funcionActual.equals("principalsito") ? "principalsito" : "funcion_" + funcionActual;
-        String key = scope + "." + nombre;
+        long key = clave(Interner.COMPARTIDO.intern(scope), nombre);
 
         IdentificadorInfo info = new IdentificadorInfo(nombre, tipoActual, obtenerValorDefault(tipoActual),
                 "parámetro", linea, scope);
         tablaSimbolos.put(key, info);
 
-        imprimirAccionSemantica("Parámetro: " + nombre + " (Tipo: " + tipoActual.toUpperCase() + ")");
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Parámetro: " + nombre + " (Tipo: " + tipoActual.toUpperCase() + ")");
+        }
 
         tipoActual = "";
     }
@@ -1644,7 +1876,7 @@ public class Parser {
     private void procesarFinDeclaracion(Token token) {
         if (!idPendiente.isEmpty() && !tipoActual.isEmpty()) {
             String scope = obtenerScopeActual();
-            String key = scope + "." + idPendiente;
+            long key = clave(idScopeActual(), idPendiente);
 
             if (tablaSimbolos.containsKey(key)) {
                 agregarError("Identificador '" + idPendiente + "' ya declarado en " + scope);
@@ -1664,8 +1896,10 @@ public class Parser {
                     modificador, token.line, scope);
             tablaSimbolos.put(key, info);
 
-            imprimirAccionSemantica("Declarando: " + idPendiente + " (Tipo: " + tipoActual.toUpperCase() +
-                    ", Modificador: " + modificador + ", Scope: " + scope + ")");
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Declarando: " + idPendiente + " (Tipo: " + tipoActual.toUpperCase() +
+                        ", Modificador: " + modificador + ", Scope: " + scope + ")");
+            }
 
             idPendiente = "";
             tipoActual = "";
@@ -1676,15 +1910,12 @@ public class Parser {
     private void prepararAsignacion(Token token) {
         int idx = currentTokenIndex + 1;
 
-        if (idx < tokens.size() &&
-                (tokens.get(idx).type == TokenType.IDENTIFICADOR ||
-                        tokens.get(idx).type == TokenType.IDENTIFICADOR_MAYUSCULA)) {
-
-            String varNombre = tokens.get(idx).lexeme;
-            String scope = obtenerScopeActual();
+        if (tokens.has(idx) &&
+                (tokens.type(idx) == TokenType.IDENTIFICADOR ||
+                        tokens.type(idx) == TokenType.IDENTIFICADOR_MAYUSCULA)) {
 
-            IdentificadorInfo var = buscarIdentificador(scope + "." + varNombre);
-            if (var == null) var = buscarIdentificador("global." + varNombre);
+            String varNombre = tokens.lexeme(idx);
+            IdentificadorInfo var = buscarVisible(varNombre);
 
             if (var == null) {
                 agregarError("Variable '" + varNombre + "' no declarada (línea " + token.line + ")");
@@ -1787,23 +2018,33 @@ public class Parser {
         if (resultado.esBooleano) {
             // Es una expresión booleana
             varAsignando.valor = resultado.valorBooleano;
-            imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + resultado.valorBooleano);
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + resultado.valorBooleano);
+            }
         } else if (tipoVariable.equals("enterito")) {
             varAsignando.valor = (int) resultado.valor;
-            imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + (int) resultado.valor);
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + (int) resultado.valor);
+            }
         } else if (tipoVariable.equals("realito")) {
             varAsignando.valor = resultado.valor;
-            imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + resultado.valor);
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = " + resultado.valor);
+            }
         } else if (tipoVariable.equals("cadenita")) {
             // ========== EXTRAER VALOR REAL DEL STRING ==========
             String valorString = extraerValorString(expresionTokens);
             varAsignando.valor = valorString;
-            imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = \"" + valorString + "\"");
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = \"" + valorString + "\"");
+            }
         } else if (tipoVariable.equals("charsito")) {
             // ========== EXTRAER VALOR REAL DEL CHAR ==========
             char valorChar = extraerValorChar(expresionTokens);
             varAsignando.valor = valorChar;
-            imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = '" + valorChar + "'");
+            if (traza.registra(Traza.Nivel.ACCIONES)) {
+                imprimirAccionSemantica("Asignando: " + nombreVarAsignando + " = '" + valorChar + "'");
+            }
         }
 
         varAsignando.inicializada = true;
@@ -1868,8 +2109,7 @@ public class Parser {
                     registrarMetodo(tokens.get(currentTokenIndex - 1));
                 } else {
                     if (!funcionActual.equals("principalsito")) {
-                        String key = "global." + funcionActual;
-                        IdentificadorInfo funcInfo = tablaSimbolos.get(key);
+                        IdentificadorInfo funcInfo = buscarIdentificador(ID_GLOBAL, funcionActual);
                         if (funcInfo != null) {
                             funcInfo.tiposParametros.clear();
                             funcInfo.nombresParametros.clear();
@@ -1950,28 +2190,51 @@ public class Parser {
             }
         }
 
-        imprimirAccionSemantica("Arreglo '" + idPendiente + "' validado: " + elementosArreglo.size() + "/" + tamanoArregloDeclarado +
-                " elementos de tipo " + tipoArregloActual.toUpperCase());
+        if (traza.registra(Traza.Nivel.ACCIONES)) {
+            imprimirAccionSemantica("Arreglo '" + idPendiente + "' validado: " + elementosArreglo.size() + "/" + tamanoArregloDeclarado +
+                    " elementos de tipo " + tipoArregloActual.toUpperCase());
+        }
     }
 
     private boolean esClase(String nombre) {
-        return tablaSimbolos.containsKey("global." + nombre) &&
-                tablaSimbolos.get("global." + nombre).modificador.equals("clasesita");
+        IdentificadorInfo info = buscarIdentificador(ID_GLOBAL, nombre);
+        return info != null && info.modificador.equals("clasesita");
     }
 
     private boolean existeFuncion(String nombre) {
-        IdentificadorInfo info = tablaSimbolos.get("global." + nombre);
+        IdentificadorInfo info = buscarIdentificador(ID_GLOBAL, nombre);
         return info != null && (info.modificador.equals("favor") || info.modificador.equals("metodillo"));
     }
 
-    private IdentificadorInfo buscarIdentificador(String key) {
-        return tablaSimbolos.get(key);
+    private IdentificadorInfo buscarIdentificador(int scope, String nombre) {
+        return tablaSimbolos.get(clave(scope, nombre));
+    }
+
+    /** Busca primero en el scope actual y después en el global. */
+    private IdentificadorInfo buscarVisible(String nombre) {
+        IdentificadorInfo info = buscarIdentificador(idScopeActual(), nombre);
+        return info != null ? info : buscarIdentificador(ID_GLOBAL, nombre);
+    }
+
+    private static long clave(int scope, String nombre) {
+        return (long) scope << 32 | Interner.COMPARTIDO.intern(nombre) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Id del scope actual. Se recalcula solo cuando cambian claseActual o
+     * funcionActual (comparados por referencia), no en cada búsqueda.
+     */
+    private int idScopeActual() {
+        if (claseActual != claseDelScope || funcionActual != funcionDelScope) {
+            claseDelScope = claseActual;
+            funcionDelScope = funcionActual;
+            idScope = Interner.COMPARTIDO.intern(obtenerScopeActual());
+        }
+        return idScope;
     }
 
     private void verificarIdentificadorDeclarado(String nombre, int linea) {
-        String scope = obtenerScopeActual();
-        IdentificadorInfo var = buscarIdentificador(scope + "." + nombre);
-        if (var == null) var = buscarIdentificador("global." + nombre);
+        IdentificadorInfo var = buscarVisible(nombre);
         if (var == null) {
             agregarError("Variable '" + nombre + "' no declarada (línea " + linea + ")");
         }
@@ -1998,29 +2261,38 @@ public class Parser {
         }
     }
 
-    private boolean esTipoDato(String terminal) {
-        return terminal.equals("enterito") || terminal.equals("realito") ||
-                terminal.equals("booleanito") || terminal.equals("charsito") ||
-                terminal.equals("cadenita") || terminal.equals("vacio") ||
-                terminal.equals("clasesita");
-    }
-
-    private String obtenerTerminalActual() {
-        if (currentTokenIndex >= tokens.size()) return "$";
+    /** Id en la tabla del terminal del token actual (-1 si la gramática no lo conoce). */
+    private int obtenerTerminalActual() {
+        if (!tokens.has(currentTokenIndex)) return idFin;
 
-        Token token = tokens.get(currentTokenIndex);
+        TokenType tipo = tokens.type(currentTokenIndex);
 
-        if (token.type == TokenType.BOOLEAN) {
-            return token.lexeme.equals("true") ? "TRUE" : "FALSE";
+        if (tipo == TokenType.BOOLEAN) {
+            return tokens.lexemeEquals(currentTokenIndex, "true") ? idTrue : idFalse;
         }
 
-        return tokenToTerminal.getOrDefault(token.type, token.lexeme);
+        int terminal = terminalDeTipo[tipo.ordinal()];
+        return terminal != SIN_TERMINAL ? terminal : tabla.id(tokens.lexeme(currentTokenIndex));
+    }
+
+    /** Ids de terminal de toda la entrada, terminados en $; para medir la derivación sin semántica. */
+    int[] terminales(TokenCursor tokensEntrada) {
+        this.tokens = tokensEntrada;
+        int[] ids = new int[64];
+        int n = 0;
+        for (currentTokenIndex = 0; ; currentTokenIndex++) {
+            if (n == ids.length) ids = Arrays.copyOf(ids, n * 2);
+            ids[n++] = obtenerTerminalActual();
+            if (!tokens.has(currentTokenIndex)) break;
+        }
+        currentTokenIndex = 0;
+        return Arrays.copyOf(ids, n);
     }
 
     private String obtenerEntradaRestante() {
         StringBuilder sb = new StringBuilder();
-        for (int i = currentTokenIndex; i < tokens.size(); i++) {
-            sb.append(tokens.get(i).lexeme).append(" ");
+        for (int i = currentTokenIndex; i < currentTokenIndex + VENTANA_ADELANTE && tokens.has(i); i++) {
+            sb.append(tokens.lexeme(i)).append(" ");
             if (sb.length() > 70) {
                 return sb.substring(0, 67) + "...";
             }
@@ -2029,88 +2301,115 @@ public class Parser {
     }
 
     private void avanzarToken() {
-        if (currentTokenIndex < tokens.size()) {
+        if (tokens.has(currentTokenIndex)) {
             currentTokenIndex++;
+            tokens.discardBefore(currentTokenIndex - VENTANA_RETENIDA);
         }
     }
 
-    private String buscarProduccion(String noTerminal, String terminal) {
-        Map<String, String> producciones = TAS.get(noTerminal);
-        return producciones != null ? producciones.get(terminal) : null;
+    private void empilar(int produccion) {
+        int[] cuerpo = acciones.cuerpo(produccion);
+        if (alturaPila + cuerpo.length > pila.length) {
+            pila = Arrays.copyOf(pila, Math.max(pila.length * 2, alturaPila + cuerpo.length));
+        }
+        System.arraycopy(cuerpo, 0, pila, alturaPila, cuerpo.length);
+        alturaPila += cuerpo.length;
     }
 
-    private void empilar(String produccion) {
-        if (isEpsilon(produccion)) return;
-
-        String[] simbolos = produccion.split("\\s+");
-        for (String simbolo : simbolos) {
-            if (!simbolo.isEmpty() && !isEpsilon(simbolo)) {
-                pila.push(simbolo);
-            }
+    /** Hijos del nodo recién desapilado, alineados con lo que empilar(produccion) va a apilar. */
+    private void derivarNodo(int produccion) {
+        int[] cuerpo = acciones.cuerpo(produccion);
+        if (alturaPila + cuerpo.length > nodosPila.length) {
+            nodosPila = Arrays.copyOf(nodosPila, Math.max(nodosPila.length * 2, alturaPila + cuerpo.length));
         }
+        arbol.derivar(nodosPila[alturaPila], produccion, cuerpo, tabla.simbolos(), nodosPila, alturaPila);
     }
 
-    private String mostrarPila() {
-        List<String> elementos = new ArrayList<>(pila);
-        Collections.reverse(elementos);
+    private void empilarSegmento(int[] segmento) {
+        if (alturaPila + segmento.length > pila.length) {
+            pila = Arrays.copyOf(pila, Math.max(pila.length * 2, alturaPila + segmento.length));
+        }
+        System.arraycopy(segmento, 0, pila, alturaPila, segmento.length);
+        alturaPila += segmento.length;
+    }
 
-        String pilaStr = String.join(" ", elementos);
+    private void apilar(int simbolo) {
+        if (alturaPila == pila.length) pila = Arrays.copyOf(pila, pila.length * 2);
+        pila[alturaPila++] = simbolo;
+    }
 
-        if (pilaStr.length() > 35) {
-            pilaStr = pilaStr.substring(0, 32) + "...";
+    /** Pila desde el tope, cortada a 35 columnas: solo recorre lo que se va a mostrar. */
+    private String mostrarPila() {
+        StringBuilder sb = new StringBuilder();
+        for (int k = alturaPila - 1; k >= 0; k--) {
+            if (acciones.esAccion(pila[k])) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(tabla.simbolo(pila[k]));
+            if (sb.length() > 35) {
+                return sb.substring(0, 32) + "...";
+            }
         }
-
-        return pilaStr;
+        return sb.toString();
     }
 
     private void agregarError(String mensaje) {
         String clave = mensaje.toLowerCase().replaceAll("\\s+", " ");
 
+        if (recuperando) return;
         if (!erroresReportados.contains(clave)) {
             erroresReportados.add(clave);
             erroresSemanticos.add("❌ ERROR: " + mensaje);
-            System.out.println("\n   >>> [Accion Semantica] [ERROR] " + mensaje);
+            traza.mensaje(Traza.ERROR_SEMANTICO, mensaje);
         }
     }
 
     private void agregarWarning(String mensaje) {
         warnings.add("⚠️  WARNING: " + mensaje);
-        System.out.println("\n   >>> [Accion Semantica] [WARNING] " + mensaje);
+        traza.mensaje(Traza.WARNING, mensaje);
     }
 
+    /** Los llamadores arman el mensaje solo si la traza registra ACCIONES. */
     private void imprimirAccionSemantica(String mensaje) {
-        System.out.println("\n   >>> [Accion Semantica] " + mensaje);
+        traza.mensaje(Traza.ACCION_SEMANTICA, mensaje);
+    }
+
+    /** Texto exacto a mostrar; los llamadores lo arman solo con la traza COMPLETA. */
+    private void depurar(String texto) {
+        traza.mensaje(Traza.DEPURACION, texto);
     }
 
     // =============================================================================
     // REPORTE FINAL
     // =============================================================================
 
-    private void imprimirReporteSemantico() {
-        System.out.println("\n" + "=".repeat(140));
-        System.out.println(" ".repeat(45) + "TABLA ÚNICA DE IDENTIFICADORES");
-        System.out.println("=".repeat(140));
+    private String reporteSemantico() {
+        StringWriter texto = new StringWriter();
+        PrintWriter out = new PrintWriter(texto);
 
-        System.out.println("\n📋 IDENTIFICADORES DECLARADOS:");
-        System.out.println("-".repeat(140));
-        System.out.printf("%-20s %-15s %-20s %-15s %-30s%n",
+        out.println("\n" + "=".repeat(140));
+        out.println(" ".repeat(45) + "TABLA ÚNICA DE IDENTIFICADORES");
+        out.println("=".repeat(140));
+
+        out.println("\n📋 IDENTIFICADORES DECLARADOS:");
+        out.println("-".repeat(140));
+        out.printf("%-20s %-15s %-20s %-15s %-30s%n",
                 "NOMBRE", "TIPO", "VALOR", "MODIFICADOR", "SCOPE");
-        System.out.println("-".repeat(140));
+        out.println("-".repeat(140));
 
         if (tablaSimbolos.isEmpty()) {
-            System.out.println(" (No se declararon identificadores)");
+            out.println(" (No se declararon identificadores)");
         } else {
-            List<Map.Entry<String, IdentificadorInfo>> entradas = new ArrayList<>(tablaSimbolos.entrySet());
+            List<Map.Entry<Long, IdentificadorInfo>> entradas = new ArrayList<>(tablaSimbolos.entrySet());
             entradas.sort((a, b) -> {
                 int scopeCompare = a.getValue().scope.compareTo(b.getValue().scope);
                 if (scopeCompare != 0) return scopeCompare;
                 return a.getValue().nombre.compareTo(b.getValue().nombre);
             });
 
-            for (Map.Entry<String, IdentificadorInfo> entry : entradas) {
+            for (Map.Entry<Long, IdentificadorInfo> entry : entradas) {
                 IdentificadorInfo info = entry.getValue();
 
-                System.out.printf("%-20s %-15s %-20s %-15s %-30s%n",
+                out.printf("%-20s %-15s %-20s %-15s %-30s%n",
                         info.nombre,
                         info.tipo,
                         info.valor != null ? info.valor.toString() : "null",
@@ -2120,23 +2419,23 @@ public class Parser {
         }
 
         if (!erroresSemanticos.isEmpty()) {
-            System.out.println("\n❌ ERRORES SEMÁNTICOS ENCONTRADOS:");
-            System.out.println("-".repeat(140));
+            out.println("\n❌ ERRORES SEMÁNTICOS ENCONTRADOS:");
+            out.println("-".repeat(140));
             for (String error : erroresSemanticos) {
-                System.out.println("   " + error);
+                out.println("   " + error);
             }
         }
 
         if (!warnings.isEmpty()) {
-            System.out.println("\n⚠️  ADVERTENCIAS:");
-            System.out.println("-".repeat(140));
+            out.println("\n⚠️  ADVERTENCIAS:");
+            out.println("-".repeat(140));
             for (String warning : warnings) {
-                System.out.println("   " + warning);
+                out.println("   " + warning);
             }
         }
 
-        System.out.println("\n- RESUMEN:");
-        System.out.println("-".repeat(140));
+        out.println("\n- RESUMEN:");
+        out.println("-".repeat(140));
 
         long totalClases = tablaSimbolos.values().stream().filter(i -> i.modificador.equals("clasesita")).count();
         long totalFunciones = tablaSimbolos.values().stream().filter(i -> i.modificador.equals("favor")).count();
@@ -2146,23 +2445,26 @@ public class Parser {
         long totalParametros = tablaSimbolos.values().stream().filter(i -> i.modificador.equals("parámetro")).count();
         long totalObjetos = tablaSimbolos.values().stream().filter(i -> i.modificador.equals("objeto")).count();
 
-        System.out.println("   Clases (clasesita):    " + totalClases);
-        System.out.println("   Funciones (favor):     " + totalFunciones);
-        System.out.println("   Métodos (metodillo):   " + totalMetodos);
-        System.out.println("   Variables:             " + totalVariables);
-        System.out.println("   Constantes:            " + totalConstantes);
-        System.out.println("   Parámetros:            " + totalParametros);
-        System.out.println("   Objetos:               " + totalObjetos);
-        System.out.println("   ─────────────────────────────");
-        System.out.println("   Total identificadores: " + tablaSimbolos.size());
-        System.out.println("   Errores semánticos:    " + erroresSemanticos.size());
-        System.out.println("   Warnings:              " + warnings.size());
-        System.out.println("=".repeat(140));
+        out.println("   Clases (clasesita):    " + totalClases);
+        out.println("   Funciones (favor):     " + totalFunciones);
+        out.println("   Métodos (metodillo):   " + totalMetodos);
+        out.println("   Variables:             " + totalVariables);
+        out.println("   Constantes:            " + totalConstantes);
+        out.println("   Parámetros:            " + totalParametros);
+        out.println("   Objetos:               " + totalObjetos);
+        out.println("   ─────────────────────────────");
+        out.println("   Total identificadores: " + tablaSimbolos.size());
+        out.println("   Errores semánticos:    " + erroresSemanticos.size());
+        out.println("   Warnings:              " + warnings.size());
+        out.println("=".repeat(140));
 
         if (erroresSemanticos.isEmpty()) {
-            System.out.println("\n✅ ANÁLISIS SEMÁNTICO COMPLETADO SIN ERRORES");
+            out.println("\n✅ ANÁLISIS SEMÁNTICO COMPLETADO SIN ERRORES");
         } else {
-            System.out.println("\n❌ ANÁLISIS SEMÁNTICO COMPLETADO CON ERRORES");
+            out.println("\n❌ ANÁLISIS SEMÁNTICO COMPLETADO CON ERRORES");
         }
+
+        out.flush();
+        return texto.toString();
     }
 }
\ No newline at end of file
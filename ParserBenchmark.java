@@ -0,0 +1,176 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compara la tabla interpretada (TablaTAS) con la generada por
+ * GeneradorParser y con las expansiones precalculadas de {@link Expansiones}:
+ * el costo de tenerla lista al arrancar y el de derivar una misma entrada,
+ * sin la semántica ni la traza del Parser. Verifica además que todas
+ * reconozcan lo mismo, también sobre variantes alteradas de la entrada.
+ *
+ * Uso: java lexico.ParserBenchmark archivo [tabla.xlsx] [repeticiones]
+ */
+public class ParserBenchmark {
+    private static final int CALENTAMIENTO = 5;
+    private static final int VARIANTES = 2000;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: java ParserBenchmark archivo [tabla.xlsx] [repeticiones]");
+            System.exit(64);
+        }
+        String source = Files.readString(Paths.get(args[0]), Charset.defaultCharset());
+        String xlsx = args.length > 1 ? args[1] : "TABLA_TAS_limpia_final.xlsx";
+        int repeticiones = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        long inicio = System.nanoTime();
+        TablaAnalisis interpretada = TablaTAS.cargar(Paths.get(xlsx));
+        System.out.printf("%-10s carga %8.2f ms%n", "tabla", (System.nanoTime() - inicio) / 1e6);
+        inicio = System.nanoTime();
+        TablaAnalisis generada = TablaGenerada.INSTANCIA;
+        System.out.printf("%-10s carga %8.2f ms%n", "generada", (System.nanoTime() - inicio) / 1e6);
+
+        TokenBuffer tokens = new Scanner(source).scanBuffer();
+        int[] entradaTabla = terminales(interpretada, tokens);
+        int[] entradaGenerada = terminales(generada, tokens);
+        if (!Arrays.equals(entradaTabla, entradaGenerada)
+                || !derivar(interpretada, null, entradaTabla).igual(derivar(generada, null, entradaGenerada))) {
+            System.out.println("- Las tablas derivan distinto");
+            System.exit(1);
+        }
+
+        Expansiones expansiones = Expansiones.calcular(interpretada, null);
+        int alteradas = mismoLenguaje(interpretada, expansiones, entradaTabla);
+        if (alteradas < 0) {
+            System.out.println("- Las expansiones reconocen distinto que la tabla");
+            System.exit(1);
+        }
+        System.out.println("Expansiones: mismo resultado en la entrada y " + alteradas + " variantes alteradas");
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            derivar(interpretada, null, entradaTabla);
+            derivar(generada, null, entradaGenerada);
+            derivar(interpretada, expansiones, entradaTabla);
+        }
+
+        medir("tabla", interpretada, null, entradaTabla, repeticiones);
+        medir("generada", generada, null, entradaGenerada, repeticiones);
+        medir("expandida", interpretada, expansiones, entradaTabla, repeticiones);
+    }
+
+    private static void medir(String nombre, TablaAnalisis tabla, Expansiones expansiones, int[] entrada,
+                              int repeticiones) {
+        long mejor = Long.MAX_VALUE;
+        long pasos = 0;
+        for (int i = 0; i < repeticiones; i++) {
+            long inicio = System.nanoTime();
+            pasos = derivar(tabla, expansiones, entrada).pasos;
+            mejor = Math.min(mejor, System.nanoTime() - inicio);
+        }
+        double segundos = mejor / 1e9;
+        System.out.printf("%-10s %10d pasos  %5.2f por token  %8.2f ms  %8.1f Mtokens/s%n",
+                nombre, pasos, (double) pasos / entrada.length, segundos * 1000, entrada.length / segundos / 1e6);
+    }
+
+    /**
+     * Compara la tabla con las expansiones sobre la entrada y sobre variantes
+     * con un terminal cambiado o borrado: aceptan lo mismo y se detienen en
+     * el mismo terminal. Devuelve las variantes probadas, o -1 ante la
+     * primera diferencia.
+     */
+    private static int mismoLenguaje(TablaAnalisis tabla, Expansiones expansiones, int[] entrada) {
+        if (!derivar(tabla, null, entrada).igual(derivar(tabla, expansiones, entrada))) return -1;
+
+        int noTerminales = 0;
+        while (tabla.esNoTerminal(noTerminales)) noTerminales++;
+        Random azar = new Random(1);
+        int variantes = Math.min(VARIANTES, 4 * entrada.length);
+        for (int v = 0; v < variantes; v++) {
+            int posicion = azar.nextInt(entrada.length - 1);
+            int[] alterada;
+            if (azar.nextBoolean()) {
+                alterada = entrada.clone();
+                alterada[posicion] = noTerminales + azar.nextInt(tabla.simbolos() - noTerminales);
+            } else {
+                alterada = new int[entrada.length - 1];
+                System.arraycopy(entrada, 0, alterada, 0, posicion);
+                System.arraycopy(entrada, posicion + 1, alterada, posicion, alterada.length - posicion);
+            }
+            if (!derivar(tabla, null, alterada).igual(derivar(tabla, expansiones, alterada))) return -1;
+        }
+        return variantes;
+    }
+
+    private static int[] terminales(TablaAnalisis tabla, TokenCursor tokens) {
+        Parser parser = new Parser();
+        parser.usarTabla(tabla);
+        return parser.terminales(tokens);
+    }
+
+    /** Cómo terminó una derivación: si aceptó, en qué terminal se detuvo y cuántos pasos dio. */
+    private static final class Recorrido {
+        final boolean aceptada;
+        final int posicion;
+        final long pasos;
+
+        Recorrido(boolean aceptada, int posicion, long pasos) {
+            this.aceptada = aceptada;
+            this.posicion = posicion;
+            this.pasos = pasos;
+        }
+
+        boolean igual(Recorrido otro) {
+            return aceptada == otro.aceptada && posicion == otro.posicion;
+        }
+    }
+
+    /**
+     * Bucle LL(1) del Parser reducido a la pila. Con expansiones, cada
+     * no terminal del tope se reemplaza por su cadena precalculada. Un paso
+     * es un pop de la pila: un match o una derivación (o expansión).
+     */
+    static Recorrido derivar(TablaAnalisis tabla, Expansiones expansiones, int[] entrada) {
+        int fin = tabla.id(TablaTAS.FIN);
+        int[] pila = new int[64];
+        int altura = 0;
+        pila[altura++] = fin;
+        pila[altura++] = tabla.id(TablaTAS.INICIAL);
+
+        long pasos = 0;
+        int i = 0;
+        while (altura > 0) {
+            pasos++;
+            int tope = pila[--altura];
+            int terminal = entrada[i];
+            if (tope == fin && terminal == fin) return new Recorrido(true, i, pasos);
+            if (!tabla.esNoTerminal(tope)) {
+                if (tope != terminal) return new Recorrido(false, i, pasos);
+                i++;
+                continue;
+            }
+
+            int[] cuerpo;
+            if (expansiones != null) {
+                Expansiones.Expansion expansion = expansiones.buscar(tope, terminal);
+                if (expansion == null) return new Recorrido(false, i, pasos);
+                cuerpo = expansion.segmento;
+            } else {
+                int produccion = tabla.buscar(tope, terminal);
+                if (produccion < 0) return new Recorrido(false, i, pasos);
+                cuerpo = tabla.cuerpo(produccion);
+            }
+            if (altura + cuerpo.length > pila.length) {
+                pila = Arrays.copyOf(pila, Math.max(pila.length * 2, altura + cuerpo.length));
+            }
+            System.arraycopy(cuerpo, 0, pila, altura, cuerpo.length);
+            altura += cuerpo.length;
+        }
+        return new Recorrido(false, i, pasos);
+    }
+}
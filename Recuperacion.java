@@ -0,0 +1,169 @@
+package lexico;
+
+import java.util.BitSet;
+
+/**
+ * Conjuntos para la recuperación de errores en modo pánico, calculados
+ * sobre una tabla ya cargada (sin la gramática: las producciones y sus
+ * cabezas salen de las celdas). Para cada no terminal, el SIGUIENTE: con
+ * uno de esos terminales adelante el no terminal se da por terminado.
+ * Además un conjunto de anclas, terminales que cierran o abren una
+ * sentencia: ante uno de ellos se abandonan símbolos de la pila, en lugar
+ * de descartar entrada, siempre que más abajo haya alguno que lo espere
+ * antes de la lista de sentencias que contiene al error.
+ */
+final class Recuperacion {
+    private final TablaAnalisis tabla;
+    private final int noTerminales;
+    private final BitSet[] siguientes;
+    private final BitSet anclas = new BitSet();
+    // No terminales con celda para un ancla que abre sentencia: listas de sentencias
+    private final BitSet listas = new BitSet();
+
+    private Recuperacion(TablaAnalisis tabla, int noTerminales, BitSet[] siguientes) {
+        this.tabla = tabla;
+        this.noTerminales = noTerminales;
+        this.siguientes = siguientes;
+    }
+
+    /**
+     * @param sentencia no terminal de una sentencia: los terminales que la
+     *                  empiezan y no empiezan también una expresión son anclas
+     * @param expresion no terminal de una expresión
+     * @param cierres   terminales que terminan una sentencia o un bloque
+     */
+    static Recuperacion calcular(TablaAnalisis tabla, String sentencia, String expresion, String... cierres) {
+        int simbolos = tabla.simbolos();
+        int noTerminales = 0;
+        while (noTerminales < simbolos && tabla.esNoTerminal(noTerminales)) noTerminales++;
+
+        // Cada producción de la tabla una vez, con su cabeza
+        int[] cabezas = new int[noTerminales * (simbolos - noTerminales)];
+        int[][] cuerpos = new int[cabezas.length][];
+        int producciones = 0;
+        BitSet vistas = new BitSet();
+        for (int nt = 0; nt < noTerminales; nt++) {
+            for (int t = noTerminales; t < simbolos; t++) {
+                int produccion = tabla.buscar(nt, t);
+                if (produccion < 0 || vistas.get(produccion)) continue;
+                vistas.set(produccion);
+                cabezas[producciones] = nt;
+                cuerpos[producciones++] = tabla.cuerpo(produccion);
+            }
+        }
+
+        boolean[] anulables = new boolean[noTerminales];
+        BitSet[] primeros = new BitSet[noTerminales];
+        BitSet[] siguientes = new BitSet[noTerminales];
+        for (int nt = 0; nt < noTerminales; nt++) {
+            primeros[nt] = new BitSet();
+            siguientes[nt] = new BitSet();
+        }
+        siguientes[tabla.id(TablaTAS.INICIAL)].set(tabla.id(TablaTAS.FIN));
+
+        // PRIMERO y anulables; el cuerpo está en orden de apilado, se lee de atrás hacia adelante
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int p = 0; p < producciones; p++) {
+                BitSet destino = primeros[cabezas[p]];
+                int antes = destino.cardinality();
+                boolean anulable = true;
+                for (int k = cuerpos[p].length - 1; k >= 0 && anulable; k--) {
+                    int simbolo = cuerpos[p][k];
+                    if (simbolo < noTerminales) {
+                        destino.or(primeros[simbolo]);
+                        anulable = anulables[simbolo];
+                    } else {
+                        destino.set(simbolo);
+                        anulable = false;
+                    }
+                }
+                if (anulable && !anulables[cabezas[p]]) {
+                    anulables[cabezas[p]] = true;
+                    cambio = true;
+                }
+                cambio |= destino.cardinality() != antes;
+            }
+        }
+
+        // SIGUIENTE: recorriendo cada cuerpo de derecha a izquierda (índice 0 hacia arriba)
+        cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int p = 0; p < producciones; p++) {
+                BitSet resto = (BitSet) siguientes[cabezas[p]].clone();
+                for (int k = 0; k < cuerpos[p].length; k++) {
+                    int simbolo = cuerpos[p][k];
+                    if (simbolo < noTerminales) {
+                        int antes = siguientes[simbolo].cardinality();
+                        siguientes[simbolo].or(resto);
+                        cambio |= siguientes[simbolo].cardinality() != antes;
+                        if (!anulables[simbolo]) resto.clear();
+                        resto.or(primeros[simbolo]);
+                    } else {
+                        resto.clear();
+                        resto.set(simbolo);
+                    }
+                }
+            }
+        }
+
+        Recuperacion recuperacion = new Recuperacion(tabla, noTerminales, siguientes);
+        int idSentencia = tabla.id(sentencia);
+        int idExpresion = tabla.id(expresion);
+        if (idSentencia >= 0 && idSentencia < noTerminales) {
+            for (int t = noTerminales; t < simbolos; t++) {
+                boolean empiezaExpresion = idExpresion >= 0 && idExpresion < noTerminales
+                        && tabla.buscar(idExpresion, t) >= 0;
+                if (tabla.buscar(idSentencia, t) >= 0 && !empiezaExpresion) recuperacion.anclas.set(t);
+            }
+        }
+        for (int nt = 0; nt < noTerminales; nt++) {
+            for (int t = recuperacion.anclas.nextSetBit(0); t >= 0; t = recuperacion.anclas.nextSetBit(t + 1)) {
+                if (tabla.buscar(nt, t) >= 0) recuperacion.listas.set(nt);
+            }
+        }
+        for (String cierre : cierres) {
+            int id = tabla.id(cierre);
+            if (id >= noTerminales) recuperacion.anclas.set(id);
+        }
+        return recuperacion;
+    }
+
+    /** Si el terminal está en el SIGUIENTE del no terminal: con él adelante se lo da por terminado. */
+    boolean sigue(int noTerminal, int terminal) {
+        return terminal >= 0 && siguientes[noTerminal].get(terminal);
+    }
+
+    /** Si el símbolo de la pila puede continuar con ese terminal: es él, o un no terminal con celda. */
+    boolean espera(int simbolo, int terminal) {
+        if (simbolo == terminal) return true;
+        return simbolo < noTerminales && terminal >= 0 && tabla.buscar(simbolo, terminal) >= 0;
+    }
+
+    /**
+     * Si el no terminal puede empezar una sentencia. Un ancla que no espera
+     * se busca más abajo solo hasta él: el ":)" de una sentencia rota no
+     * tiene que desarmar el bloque para llegar al de la función.
+     */
+    boolean esLista(int simbolo) {
+        return listas.get(simbolo);
+    }
+
+    boolean esAncla(int terminal) {
+        return terminal >= 0 && anclas.get(terminal);
+    }
+
+    /** Terminales válidos con ese símbolo en el tope, entre comillas y separados por coma. */
+    String esperados(int tope) {
+        if (!tabla.esNoTerminal(tope)) return "'" + tabla.simbolo(tope) + "'";
+        StringBuilder sb = new StringBuilder();
+        for (int t = noTerminales; t < tabla.simbolos(); t++) {
+            if (tabla.buscar(tope, t) < 0) continue;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append('\'').append(tabla.simbolo(t)).append('\'');
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,13 @@
 package lexico;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,26 +16,155 @@ import static lexico.TokenType.*;
 
 class Scanner {
 	private static final Map<String, TokenType> KEYWORDS = initKeywords();
+	private static final KeywordTrie KEYWORD_TRIE = new KeywordTrie(KEYWORDS);
+	private static final LexerDfa DFA = initDfa();
+	static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	// Ventana deslizante sobre el fuente. En modo String contiene el fuente
+	// completo; en modo Reader solo los caracteres desde el inicio del token
+	// actual, y se rellena bajo demanda.
+	private final Reader reader;
+	private char[] buffer;
+	private int limit;
+
+	// Posición absoluta en el fuente de buffer[0]
+	private long desplazamiento = 0;
 
-	private final String source;
 	private final List<Token> tokens = new ArrayList<>();
+	private Token pendiente;
+	private TokenSink destino;
+	private boolean emitido;
 	private int start = 0;
 	private int current = 0;
 	private int line = 1;
+	// Inicios de línea del fuente; los tokens solo guardan su offset
+	private final LineIndex lineas = new LineIndex();
+	// Comentarios vistos por nextToken(); en modo columnar van al destino
+	private final TriviaTable trivia = new TriviaTable();
+	// Motor alternativo: el autómata de tabla en lugar del switch de scanToken
+	private boolean usarDfa = false;
 
 	Scanner(String source) {
-		this.source = source;
+		this.reader = null;
+		this.buffer = source.toCharArray();
+		this.limit = buffer.length;
+	}
+
+	/**
+	 * Modo streaming: lee el fuente por bloques a través de un buffer de
+	 * tamaño fijo. La memoria usada depende del buffer (que solo crece si un
+	 * único lexema no cabe en él) y de los tokens que el llamador conserve,
+	 * no del tamaño del archivo.
+	 */
+	Scanner(Reader reader, int bufferSize) {
+		this.reader = reader;
+		this.buffer = new char[Math.max(bufferSize, 16)];
+		this.limit = 0;
+	}
+
+	Scanner(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Continúa el análisis desde una posición intermedia del fuente, que debe
+	 * ser una frontera entre tokens. El Reader ya tiene que estar en esa posición.
+	 */
+	Scanner(Reader reader, int bufferSize, long offsetInicial, int lineaInicial) {
+		this(reader, bufferSize);
+		this.desplazamiento = offsetInicial;
+		this.line = lineaInicial;
+	}
+
+	Scanner(ReadableByteChannel channel, Charset charset) {
+		this(Channels.newReader(channel, charset.newDecoder(), -1), DEFAULT_BUFFER_SIZE);
+	}
+
+	/** Elige entre el switch escrito a mano (por defecto) y el autómata de tabla. */
+	void usarDfa(boolean usar) {
+		this.usarDfa = usar;
 	}
 
 	List<Token> scanTokens() {
-		while (!isAtEnd()) {
+		Token token;
+		while ((token = nextToken()) != null) {
+			tokens.add(token);
+		}
+		return tokens;
+	}
+
+	/**
+	 * Escanea el fuente completo directamente al formato columnar, sin crear
+	 * un objeto Token por lexema.
+	 */
+	TokenBuffer scanBuffer() {
+		TokenBuffer buffer = new TokenBuffer();
+		scanInto(buffer);
+		buffer.usarLineas(lineas);
+		return buffer;
+	}
+
+	/** Comentarios salteados por nextToken() y scanTokens(). */
+	TriviaTable trivia() {
+		return trivia;
+	}
+
+	/** Inicios de línea de lo escaneado hasta ahora, para resolver posiciones. */
+	LineIndex lineas() {
+		return lineas;
+	}
+
+	void scanInto(TokenSink destino) {
+		this.destino = destino;
+		try {
+			while (!isAtEnd()) {
+				start = current;
+				scanToken();
+			}
+		} finally {
+			this.destino = null;
+		}
+	}
+
+	/**
+	 * Escanea hasta agregar un único token a {@code destino}. Devuelve false
+	 * si el fuente terminó sin producir ninguno.
+	 */
+	boolean scanNext(TokenSink destino) {
+		this.destino = destino;
+		this.emitido = false;
+		try {
+			while (!emitido && !isAtEnd()) {
+				start = current;
+				scanToken();
+			}
+			return emitido;
+		} finally {
+			this.destino = null;
+		}
+	}
+
+	/**
+	 * Devuelve el siguiente token del fuente, o null al llegar al final.
+	 * Permite consumir los tokens a medida que se generan sin materializar
+	 * la lista completa.
+	 */
+	Token nextToken() {
+		while (pendiente == null && !isAtEnd()) {
 			start = current;
 			scanToken();
 		}
-		return tokens;
+		Token token = pendiente;
+		pendiente = null;
+		return token;
 	}
 
 	private void scanToken() {
+		if (usarDfa) {
+			scanTokenDfa();
+			return;
+		}
+
 		char c = advance();
 		switch (c) {
 			case '(': addToken(PAREN_IZQ); break;
@@ -48,18 +184,18 @@ class Scanner {
 			case ':': addToken(match(')') ? SONRISA : DOS_PUNTOS); break;
 			case '!':
 				if (match('=')) addToken(DIFERENTE);
-				else addToken(ERROR, "Unexpected '" + c + "'");
+				else addError("Unexpected '" + c + "'");
 				break;
 			case '=': addToken(match('=') ? EQUIVALE : IGUAL); break;
 			case '<': addToken(match('=') ? MENOR_QUE : MENOR); break;
 			case '>': addToken(match('=') ? MAYOR_QUE : MAYOR); break;
 			case '&':
 				if (match('&')) addToken(AND);
-				else addToken(ERROR, "Unexpected '" + c + "'");
+				else addError("Unexpected '" + c + "'");
 				break;
 			case '|':
 				if (match('|')) addToken(OR);
-				else addToken(ERROR, "Unexpected '" + c + "'");
+				else addError("Unexpected '" + c + "'");
 				break;
 			case '/':
 				if (match('/')) {
@@ -75,9 +211,9 @@ class Scanner {
 			case ' ':
 			case '\r':
 			case '\t':
-				break;
 			case '\n':
-				line++;
+				current--;
+				skipWhitespace();
 				break;
 			default:
 				if (c == 'a' && checkKeyword("adios:(")) {
@@ -87,7 +223,65 @@ class Scanner {
 				} else if (isAlpha(c)) {
 					identifier();
 				} else {
-					addToken(ERROR, "Unexpected '" + c + "'");
+					addError("Unexpected '" + c + "'");
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Reconoce el lexema más largo que acepta el autómata, volviendo al último
+	 * estado de aceptación si se sigue de largo (como en "12." o "adios:)").
+	 * Si ningún prefijo es aceptado, el primer carácter es un error.
+	 */
+	private void scanTokenDfa() {
+		int estado = LexerDfa.INICIO;
+		int aceptado = LexerDfa.MUERTO;
+		int largoAceptado = 0;
+		int largo = 0;
+
+		escaneo:
+		do {
+			final char[] buf = buffer;
+			final int fin = limit;
+			int i = start + largo;
+			while (i < fin) {
+				estado = DFA.step(estado, buf[i]);
+				if (estado == LexerDfa.MUERTO) break escaneo;
+				i++;
+				if (DFA.acepta(estado)) {
+					aceptado = estado;
+					largoAceptado = i - start;
+				}
+			}
+			largo = i - start;
+			current = i;
+		} while (ensure(1));
+
+		if (aceptado == LexerDfa.MUERTO) {
+			current = start + 1;
+			addError("Unexpected '" + text() + "'");
+			return;
+		}
+
+		current = start + largoAceptado;
+		switch (DFA.accion(aceptado)) {
+			case LexerDfa.ESPACIO:
+				current = start;
+				skipWhitespace();
+				break;
+			case LexerDfa.CHAR: character(); break;
+			case LexerDfa.STRING: string(); break;
+			case LexerDfa.COMENTARIO_LINEA: commentOneLine(); break;
+			case LexerDfa.COMENTARIO_MULTILINEA: commentMultiLine(); break;
+			default:
+				TokenType type = DFA.tipo(aceptado);
+				if (type == ENTERO) {
+					addNumber(ENTERO, parseEntero());
+				} else if (type == REAL) {
+					addNumber(REAL, Double.doubleToRawLongBits(Double.parseDouble(text())));
+				} else {
+					addToken(type);
 				}
 				break;
 		}
@@ -95,26 +289,42 @@ class Scanner {
 
 	private void commentOneLine() {
 		// Avanzar hasta el final de la línea
-		while (peek() != '\n' && !isAtEnd()) {
-			advance();
-		}
-		// Agregar el comentario como token
-		String text = source.substring(start, current);
-		addToken(COMENTARIO_LINEA, text);
+		do {
+			int i = current;
+			final int fin = limit;
+			final char[] buf = buffer;
+			while (i < fin && buf[i] != '\n') i++;
+			current = i;
+			if (i < fin) break;
+		} while (ensure(1));
+		addTrivia(COMENTARIO_LINEA);
 	}
 
 	private void commentMultiLine() {
 		int startLine = line;
+		boolean cerrado = false;
+
+		// Avanzar hasta encontrar */ recorriendo el buffer directamente
+		while (true) {
+			int i = current;
+			final int fin = limit;
+			final char[] buf = buffer;
+			char c = '\0';
+			while (i < fin && (c = buf[i]) != '*') {
+				if (c == '\n') saltoDeLinea(i);
+				i++;
+			}
+			current = i;
 
-		// Avanzar hasta encontrar */
-		while (!isAtEnd()) {
-			if (peek() == '\n') {
-				line++;
+			if (i == fin) {
+				if (!ensure(1)) break;
+				continue;
 			}
 
-			if (peek() == '*' && peekNext() == '/') {
+			if (peekNext() == '/') {
 				advance(); // consume *
 				advance(); // consume /
+				cerrado = true;
 				break;
 			}
 
@@ -122,63 +332,83 @@ class Scanner {
 		}
 
 		// Verificar si el comentario se cerró
-		if (isAtEnd() && (current < 2 || source.charAt(current - 2) != '*' || source.charAt(current - 1) != '/')) {
-			addToken(ERROR, "Comentario multilínea sin cerrar (inicia en línea " + startLine + ")");
+		if (!cerrado) {
+			emit(ERROR, startLine, 0L, "Comentario multilínea sin cerrar (inicia en línea " + startLine + ")");
 			return;
 		}
 
-		String text = source.substring(start, current);
-		addToken(COMENTARIO_MULTILINEA, text);
+		addTrivia(COMENTARIO_MULTILINEA);
+	}
+
+	/**
+	 * Salta espacios, tabuladores y saltos de línea en un bucle cerrado sobre
+	 * el buffer, sin pasar por peek()/advance() en cada carácter.
+	 */
+	private void skipWhitespace() {
+		do {
+			start = current;
+			int i = current;
+			final int fin = limit;
+			final char[] buf = buffer;
+			while (i < fin) {
+				char c = buf[i];
+				if (c == '\n') {
+					saltoDeLinea(i);
+				} else if (c != ' ' && c != '\t' && c != '\r') {
+					break;
+				}
+				i++;
+			}
+			current = i;
+			if (i < fin) return;
+		} while (ensure(1));
 	}
 
 	private void character() {
 		if (isAtEnd() || !hasNext()) {
-			addToken(ERROR, "Unexpected '" + source.substring(start, current) + "'");
+			addError("Unexpected '" + text() + "'");
 			return;
 		}
 
 		char value = advance();
 
 		if (peek() != '\'') {
-			addToken(ERROR, "Unexpected '" + source.substring(start, current) + "'");
-			return;
+			addError("Unexpected '" + text() + "'");
+		} else {
+			advance();
+			addNumber(CHAR, value);
 		}
 
-		advance();
-		addToken(CHAR, value);
+		// Un salto de línea literal entre comillas también cuenta como línea
+		if (value == '\n') saltoDeLinea(start + 1);
 	}
 
 	private void identifier() {
-		while (isAlphaNumeric(peek()) || peek() == '_') {
+		// Clasificación en la misma pasada: se avanza por el trie de palabras
+		// reservadas y se comprueba si es un identificador en mayúsculas
+		// (empieza por A-Z y no contiene minúsculas) sin crear substrings.
+		char first = buffer[start];
+		int estado = KEYWORD_TRIE.step(KeywordTrie.RAIZ, first);
+		boolean mayuscula = first >= 'A' && first <= 'Z';
+
+		char c;
+		while (isAlphaNumeric(c = peek()) || c == '_') {
+			estado = KEYWORD_TRIE.step(estado, c);
+			if (c >= 'a' && c <= 'z') mayuscula = false;
 			advance();
 		}
 
-		String text = source.substring(start, current);
-		TokenType type = KEYWORDS.get(text);
+		TokenType type = KEYWORD_TRIE.accept(estado);
 
 		if (type != null) {
 			addToken(type);
-		} else if (isUppercaseIdentifier(text)) {
+		} else if (mayuscula) {
 			addToken(IDENTIFICADOR_MAYUSCULA);
 		} else {
 			addToken(IDENTIFICADOR);
 		}
 	}
 
-	private boolean isUppercaseIdentifier(String id) {
-		if (id.isEmpty()) return false;
-
-		char first = id.charAt(0);
-		if (first < 'A' || first > 'Z') return false;
-
-		for (int i = 1; i < id.length(); i++) {
-			char c = id.charAt(i);
-			if (c >= 'a' && c <= 'z') return false;
-			if (!((c >= 'A' && c <= 'Z') || isDigit(c) || c == '_')) return false;
-		}
-		return true;
-	}
-
 	private void number() {
 		while (isDigit(peek())) advance();
 
@@ -189,70 +419,104 @@ class Scanner {
 			while (isDigit(peek())) advance();
 		}
 
-		String text = source.substring(start, current);
 		if (isReal) {
-			addToken(REAL, Double.parseDouble(text));
+			addNumber(REAL, Double.doubleToRawLongBits(Double.parseDouble(text())));
 		} else {
-			addToken(ENTERO, Integer.parseInt(text));
+			addNumber(ENTERO, parseEntero());
 		}
 	}
 
 	private void string() {
 		while (peek() != '"' && !isAtEnd()) {
 			if (peek() == '\n') {
-				addToken(ERROR, "String con mala sintaxis");
+				addError("String con mala sintaxis");
 				return;
 			}
 			advance();
 		}
 
 		if (isAtEnd()) {
-			addToken(ERROR, "String sin cerrar");
+			addError("String sin cerrar");
 			return;
 		}
 
 		advance(); // Closing "
-		String value = source.substring(start + 1, current - 1);
-		addToken(STRING, value);
+		addToken(STRING);
 	}
 
 	private boolean checkKeyword(String expected) {
 		int length = expected.length();
-		if (current - 1 + length > source.length()) return false;
+		if (!ensure(length - 1)) return false;
 
-		String text = source.substring(current - 1, current - 1 + length);
-		if (text.equals(expected)) {
-			current = current - 1 + length;
-			return true;
+		int desde = current - 1;
+		for (int i = 0; i < length; i++) {
+			if (buffer[desde + i] != expected.charAt(i)) return false;
 		}
-		return false;
+		current = desde + length;
+		return true;
 	}
 
 	// Utility methods
 	private boolean isAtEnd() {
-		return current >= source.length();
+		return !ensure(1);
 	}
 
 	private boolean hasNext() {
-		return current < source.length();
+		return ensure(1);
 	}
 
 	private char advance() {
-		return source.charAt(current++);
+		return buffer[current++];
 	}
 
 	private boolean match(char expected) {
-		if (isAtEnd() || source.charAt(current) != expected) return false;
+		if (isAtEnd() || buffer[current] != expected) return false;
 		current++;
 		return true;
 	}
 
 	private char peek() {
-		return isAtEnd() ? '\0' : source.charAt(current);
+		return isAtEnd() ? '\0' : buffer[current];
 	}
 
 	private char peekNext() {
-		return (current + 1 >= source.length()) ? '\0' : source.charAt(current + 1);
+		return !ensure(2) ? '\0' : buffer[current + 1];
+	}
+
+	/**
+	 * Garantiza que haya al menos {@code n} caracteres disponibles a partir
+	 * de {@code current}, leyendo más del Reader si hace falta. Los
+	 * caracteres anteriores al token actual se descartan para reutilizar el
+	 * espacio; el buffer solo crece si el propio token no cabe.
+	 */
+	private boolean ensure(int n) {
+		if (current + n <= limit) return true;
+		if (reader == null) return false;
+
+		try {
+			while (current + n > limit) {
+				if (start > 0) {
+					desplazamiento += start;
+					System.arraycopy(buffer, start, buffer, 0, limit - start);
+					limit -= start;
+					current -= start;
+					start = 0;
+				}
+				if (limit == buffer.length) {
+					buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				}
+				int leidos = reader.read(buffer, limit, buffer.length - limit);
+				if (leidos < 0) return false;
+				limit += leidos;
+			}
+			return true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String text() {
+		return new String(buffer, start, current - start);
 	}
 
 	private boolean isAlpha(char c) {
@@ -267,13 +531,104 @@ class Scanner {
 		return c >= '0' && c <= '9';
 	}
 
+	private void saltoDeLinea(int i) {
+		line++;
+		lineas.agregarSalto(desplazamiento + i);
+	}
+
+	/** Los comentarios no son tokens: van a la tabla de trivia. */
+	private void addTrivia(TokenType type) {
+		if (destino != null) {
+			destino.addTrivia(type, buffer, start, current - start, desplazamiento + start);
+		} else {
+			trivia.add(type, buffer, start, current - start, desplazamiento + start);
+		}
+	}
+
 	private void addToken(TokenType type) {
-		addToken(type, null);
+		emit(type, line, 0L, null);
 	}
 
-	private void addToken(TokenType type, Object literal) {
-		String text = source.substring(start, current);
-		tokens.add(new Token(type, text, literal, line));
+	private void addNumber(TokenType type, long valor) {
+		emit(type, line, valor, null);
+	}
+
+	private void addError(String mensaje) {
+		emit(ERROR, line, 0L, mensaje);
+	}
+
+	/** {@code linea} es la línea donde empieza el token. */
+	private void emit(TokenType type, int linea, long numero, String mensaje) {
+		emitido = true;
+		if (destino != null) {
+			destino.add(type, buffer, start, current - start, desplazamiento + start, linea, numero, mensaje);
+		} else {
+			pendiente = new Token(type, text(), literal(type, numero, mensaje), linea);
+		}
+	}
+
+	private Object literal(TokenType type, long numero, String mensaje) {
+		switch (type) {
+			case ENTERO: return (int) numero;
+			case REAL: return Double.longBitsToDouble(numero);
+			case CHAR: return (char) numero;
+			case STRING: return new String(buffer, start + 1, current - start - 2);
+			case ERROR: return mensaje;
+			default: return null;
+		}
+	}
+
+	/** Integer.parseInt sobre el buffer, sin crear el String del lexema. */
+	private int parseEntero() {
+		long valor = 0;
+		for (int i = start; i < current; i++) {
+			valor = valor * 10 + (buffer[i] - '0');
+			if (valor > Integer.MAX_VALUE) {
+				throw new NumberFormatException("For input string: \"" + text() + "\"");
+			}
+		}
+		return (int) valor;
+	}
+
+	/**
+	 * Especificación de tokens para el autómata. El orden es la prioridad
+	 * ante lexemas del mismo largo: palabras reservadas antes que los
+	 * patrones de identificador.
+	 */
+	private static LexerDfa initDfa() {
+		LexerDfa.Builder spec = new LexerDfa.Builder();
+
+		for (String espacio : new String[]{" ", "\r", "\t", "\n"}) {
+			spec.inicioDe(espacio, LexerDfa.ESPACIO, null);
+		}
+		spec.inicioDe("'", LexerDfa.CHAR, CHAR);
+		spec.inicioDe("\"", LexerDfa.STRING, STRING);
+		spec.inicioDe("//", LexerDfa.COMENTARIO_LINEA, COMENTARIO_LINEA);
+		spec.inicioDe("/*", LexerDfa.COMENTARIO_MULTILINEA, COMENTARIO_MULTILINEA);
+
+		spec.literal("(", PAREN_IZQ).literal(")", PAREN_DER)
+				.literal("{", LLAVE_IZQ).literal("}", LLAVE_DER)
+				.literal("[", CORCHETE_IZQ).literal("]", CORCHETE_DER)
+				.literal(",", COMA).literal(".", PUNTO)
+				.literal("-", MENOS).literal("+", SUMA).literal("*", ASTERISCO)
+				.literal("/", DIVISION).literal("%", MOD)
+				.literal(":", DOS_PUNTOS).literal(":)", SONRISA)
+				.literal("!=", DIFERENTE)
+				.literal("=", IGUAL).literal("==", EQUIVALE)
+				.literal("<", MENOR).literal("<=", MENOR_QUE)
+				.literal(">", MAYOR).literal(">=", MAYOR_QUE)
+				.literal("&&", AND).literal("||", OR)
+				.literal("adios:(", ADIOS_TRISTE);
+
+		for (Map.Entry<String, TokenType> keyword : KEYWORDS.entrySet()) {
+			spec.literal(keyword.getKey(), keyword.getValue());
+		}
+
+		return spec.patron("[A-Z][A-Z0-9_]*", IDENTIFICADOR_MAYUSCULA)
+				.patron("[a-zA-Z_][a-zA-Z0-9_]*", IDENTIFICADOR)
+				.patron("[0-9]+", ENTERO)
+				.patron("[0-9]+\\.[0-9]+", REAL)
+				.build();
 	}
 
 	private static Map<String, TokenType> initKeywords() {
@@ -0,0 +1,27 @@
+package lexico;
+
+/**
+ * Tabla LL(1) sobre la que deriva el Parser, con los símbolos como ints
+ * densos (los no terminales primero). La implementan la tabla interpretada
+ * ({@link TablaTAS}, cargada del XLSX o de su instantánea) y la clase que
+ * emite {@link GeneradorParser}, compilada junto con el resto del código.
+ */
+interface TablaAnalisis {
+    /** Id del símbolo, o -1 si la gramática no lo menciona. */
+    int id(String simbolo);
+
+    String simbolo(int id);
+
+    int simbolos();
+
+    boolean esNoTerminal(int simbolo);
+
+    /** Producción de la celda (noTerminal, terminal), o -1 si está vacía o el terminal es desconocido. */
+    int buscar(int noTerminal, int terminal);
+
+    /** Texto de la producción tal como figura en la tabla. */
+    String texto(int produccion);
+
+    /** Símbolos a apilar, ya sin ε; vacío para una producción ε. */
+    int[] cuerpo(int produccion);
+}
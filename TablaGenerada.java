@@ -0,0 +1,1291 @@
+package lexico;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla LL(1) compilada a código desde TABLA_TAS_limpia_final.xlsx.
+ * Generada por GeneradorParser: no editar a mano, volver a generarla.
+ */
+final class TablaGenerada implements TablaAnalisis {
+    static final TablaGenerada INSTANCIA = new TablaGenerada();
+    static final long HUELLA = 0x325e90c45150L;
+
+    private static final int NO_TERMINALES = 63;
+
+    private static final String[] SIMBOLOS = {
+            "S", "V", "D", "TIPODATO", "CLASE", "ATRIBUTOS", "CONSTRUCTOR", "BLOQUE_CONSTRUCTOR",
+            "METODO", "EXPR", "ACCESO_ARREGLO", "EXPR_ARREGLO", "J", "EXPR_ARIT", "A", "T",
+            "B", "H", "C", "N", "M", "F", "OP_COMP", "OP_LOG",
+            "OP_SUMA", "OP_MULTI", "LITERAL", "BLOQUE", "INST", "DECL", "CDECL", "MDECL",
+            "ARR", "ARRC", "MLITERAL", "ASIG", "ASIGARREGLO", "IMPR", "CONCAT", "MCONCAT",
+            "LECT", "LLAMADA_FUNCION", "ARGUMENTOS", "ARGUMENTOS2", "CONTROL_IF", "ELSE", "CONTINUEORBREAK", "CONTROL_WHILE",
+            "CONTROL_WHILE_IF", "WHILE_ELSE", "CONTROL_SWITCH", "CASOS", "CASOIZQ", "CASODEFAULT", "CONTINUE", "BREAK",
+            "BREAK2", "FUNC", "CFUNC", "PARAMETRO", "MPARAMETRO", "CLONACION_OBJETO", "LLAMADA_METODO_OBJETO", "$",
+            "}", "{", ")", "(", "principalsito", "favor", "porfavor", "podriasCrear",
+            "clasesita", "enterito", "realito", "booleanito", "charsito", "cadenita", "id", ":)",
+            "=", ".", "yo", "metodillo", "arreglito", "entero", "decimal", "cadena",
+            "char", "TRUE", "FALSE", "]", "[", "+", "-", "*",
+            "/", "&&", "||", ",", "==", "!=", "<", ">",
+            "<=", ">=", "podriasImprimir", "podriasLeer", "aclama", "invoco", "siCumple", "SiPersiste",
+            "siControla", "enCasoSea", "saltear", "parar", "retorna", "constantito", "peroSiCumple", "casoContrario",
+            ":", "oSino", "vacio", "clona",
+    };
+
+    private static final String[] PRODUCCIONES = {
+            "} BLOQUE { ) ( principalsito V",
+            "λ",
+            "V D",
+            "FUNC",
+            "ASIG",
+            "DECL",
+            "CLASE",
+            "enterito",
+            "realito",
+            "booleanito",
+            "charsito",
+            "cadenita",
+            "} METODO CONSTRUCTOR ATRIBUTOS { id clasesita",
+            "ATRIBUTOS DECL",
+            "} BLOQUE_CONSTRUCTOR { ) PARAMETRO  ( id",
+            "BLOQUE_CONSTRUCTOR :) EXPR = id . yo porfavor",
+            "METODO CFUNC metodillo porfavor",
+            "EXPR_ARIT",
+            "ACCESO_ARREGLO",
+            "] EXPR_ARREGLO [ id . arreglito",
+            "J id",
+            "J entero",
+            "J ) EXPR_ARREGLO (",
+            "EXPR_ARREGLO OP_SUMA",
+            "EXPR_ARREGLO OP_MULTI",
+            "A T",
+            "A T OP_LOG",
+            "B H",
+            "B H OP_COMP",
+            "C N",
+            "C N OP_SUMA",
+            "M F",
+            "M F OP_MULTI",
+            "id",
+            "LITERAL",
+            ") EXPR_ARIT (",
+            "==",
+            "!=",
+            "<",
+            ">",
+            "<=",
+            ">=",
+            "&&",
+            "||",
+            "+",
+            "-",
+            "*",
+            "/",
+            "entero",
+            "decimal",
+            "cadena",
+            "char",
+            "TRUE",
+            "FALSE",
+            "BLOQUE INST",
+            "IMPR",
+            "LECT",
+            "CLONACION_OBJETO",
+            "LLAMADA_FUNCION",
+            "LLAMADA_METODO_OBJETO",
+            "CONTROL_IF",
+            "CONTROL_WHILE",
+            "CONTROL_SWITCH",
+            ":) CDECL podriasCrear",
+            "MDECL ARR id TIPODATO",
+            "ARRC id TIPODATO constantito",
+            "MDECL ARR id ,",
+            "] EXPR_ARREGLO [",
+            "} MLITERAL LITERAL { = ] entero [",
+            "LITERAL =",
+            "MLITERAL LITERAL ,",
+            "ASIGARREGLO = id porfavor",
+            ":) EXPR",
+            ":) } MLITERAL LITERAL {",
+            ":) ) CONCAT ( podriasImprimir",
+            "MCONCAT id",
+            "MCONCAT cadena",
+            "CONCAT +",
+            ":) ) id ( podriasLeer",
+            ":) ) ARGUMENTOS ( id . aclama",
+            "ARGUMENTOS2 EXPR",
+            "ARGUMENTOS2 EXPR ,",
+            "ELSE } BLOQUE { ) EXPR ( siCumple",
+            "ELSE } BLOQUE { ) EXPR ( peroSiCumple",
+            "} BLOQUE { casoContrario",
+            "CONTINUE",
+            "BREAK",
+            "} CONTROL_WHILE_IF BLOQUE { ) EXPR ( SiPersiste",
+            "WHILE_ELSE } CONTINUEORBREAK BLOQUE { ) EXPR ( siControla",
+            "WHILE_ELSE } CONTINUEORBREAK BLOQUE { ) EXPR ( peroSiCumple",
+            "} CONTINUEORBREAK BLOQUE { casoContrario",
+            "} CASODEFAULT CASOS { ) id ( enCasoSea",
+            "CASOS BREAK2 BLOQUE : CASOIZQ",
+            "BLOQUE : oSino",
+            "saltear",
+            ":) parar",
+            ":) CFUNC favor",
+            "} :) EXPR retorna BLOQUE { ) PARAMETRO ( id TIPODATO",
+            "} BLOQUE { ) PARAMETRO ( id vacio",
+            "MPARAMETRO id TIPODATO",
+            "MPARAMETRO id TIPODATO ,",
+            ":) ) ARGUMENTOS ( id clona = id id",
+            ":) ) ARGUMENTOS ( id . id invoco",
+    };
+
+    private static final int[][] CUERPOS = {
+            {64, 27, 65, 66, 67, 68, 1},
+            {},
+            {1, 2},
+            {57},
+            {35},
+            {29},
+            {4},
+            {73},
+            {74},
+            {75},
+            {76},
+            {77},
+            {64, 8, 6, 5, 65, 78, 72},
+            {5, 29},
+            {64, 7, 65, 66, 59, 67, 78},
+            {7, 79, 9, 80, 78, 81, 82, 70},
+            {8, 58, 83, 70},
+            {13},
+            {10},
+            {91, 11, 92, 78, 81, 84},
+            {12, 78},
+            {12, 85},
+            {12, 66, 11, 67},
+            {11, 24},
+            {11, 25},
+            {14, 15},
+            {14, 15, 23},
+            {16, 17},
+            {16, 17, 22},
+            {18, 19},
+            {18, 19, 24},
+            {20, 21},
+            {20, 21, 25},
+            {78},
+            {26},
+            {66, 13, 67},
+            {100},
+            {101},
+            {102},
+            {103},
+            {104},
+            {105},
+            {97},
+            {98},
+            {93},
+            {94},
+            {95},
+            {96},
+            {85},
+            {86},
+            {87},
+            {88},
+            {89},
+            {90},
+            {27, 28},
+            {37},
+            {40},
+            {61},
+            {41},
+            {62},
+            {44},
+            {47},
+            {50},
+            {79, 30, 71},
+            {31, 32, 78, 3},
+            {33, 78, 3, 117},
+            {31, 32, 78, 99},
+            {91, 11, 92},
+            {64, 34, 26, 65, 80, 91, 85, 92},
+            {26, 80},
+            {34, 26, 99},
+            {36, 80, 78, 70},
+            {79, 9},
+            {79, 64, 34, 26, 65},
+            {79, 66, 38, 67, 106},
+            {39, 78},
+            {39, 87},
+            {38, 93},
+            {79, 66, 78, 67, 107},
+            {79, 66, 42, 67, 78, 81, 108},
+            {43, 9},
+            {43, 9, 99},
+            {45, 64, 27, 65, 66, 9, 67, 110},
+            {45, 64, 27, 65, 66, 9, 67, 118},
+            {64, 27, 65, 119},
+            {54},
+            {55},
+            {64, 48, 27, 65, 66, 9, 67, 111},
+            {49, 64, 46, 27, 65, 66, 9, 67, 112},
+            {49, 64, 46, 27, 65, 66, 9, 67, 118},
+            {64, 46, 27, 65, 119},
+            {64, 53, 51, 65, 66, 78, 67, 113},
+            {51, 56, 27, 120, 52},
+            {27, 120, 121},
+            {114},
+            {79, 115},
+            {79, 58, 69},
+            {64, 79, 9, 116, 27, 65, 66, 59, 67, 78, 3},
+            {64, 27, 65, 66, 59, 67, 78, 122},
+            {60, 78, 3},
+            {60, 78, 3, 99},
+            {79, 66, 42, 67, 78, 123, 80, 78, 78},
+            {79, 66, 42, 67, 78, 81, 78, 109},
+    };
+
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static {
+        for (int s = 0; s < SIMBOLOS.length; s++) IDS.put(SIMBOLOS[s], s);
+    }
+
+    private TablaGenerada() {
+    }
+
+    @Override
+    public int id(String simbolo) {
+        Integer id = IDS.get(simbolo);
+        return id != null ? id : -1;
+    }
+
+    @Override
+    public String simbolo(int id) {
+        return SIMBOLOS[id];
+    }
+
+    @Override
+    public int simbolos() {
+        return SIMBOLOS.length;
+    }
+
+    @Override
+    public boolean esNoTerminal(int simbolo) {
+        return simbolo < NO_TERMINALES;
+    }
+
+    @Override
+    public String texto(int produccion) {
+        return PRODUCCIONES[produccion];
+    }
+
+    @Override
+    public int[] cuerpo(int produccion) {
+        return CUERPOS[produccion];
+    }
+
+    @Override
+    public int buscar(int noTerminal, int terminal) {
+        switch (noTerminal) {
+            case 0: return filaS(terminal);
+            case 1: return filaV(terminal);
+            case 2: return filaD(terminal);
+            case 3: return filaTIPODATO(terminal);
+            case 4: return filaCLASE(terminal);
+            case 5: return filaATRIBUTOS(terminal);
+            case 6: return filaCONSTRUCTOR(terminal);
+            case 7: return filaBLOQUE_CONSTRUCTOR(terminal);
+            case 8: return filaMETODO(terminal);
+            case 9: return filaEXPR(terminal);
+            case 10: return filaACCESO_ARREGLO(terminal);
+            case 11: return filaEXPR_ARREGLO(terminal);
+            case 12: return filaJ(terminal);
+            case 13: return filaEXPR_ARIT(terminal);
+            case 14: return filaA(terminal);
+            case 15: return filaT(terminal);
+            case 16: return filaB(terminal);
+            case 17: return filaH(terminal);
+            case 18: return filaC(terminal);
+            case 19: return filaN(terminal);
+            case 20: return filaM(terminal);
+            case 21: return filaF(terminal);
+            case 22: return filaOP_COMP(terminal);
+            case 23: return filaOP_LOG(terminal);
+            case 24: return filaOP_SUMA(terminal);
+            case 25: return filaOP_MULTI(terminal);
+            case 26: return filaLITERAL(terminal);
+            case 27: return filaBLOQUE(terminal);
+            case 28: return filaINST(terminal);
+            case 29: return filaDECL(terminal);
+            case 30: return filaCDECL(terminal);
+            case 31: return filaMDECL(terminal);
+            case 32: return filaARR(terminal);
+            case 33: return filaARRC(terminal);
+            case 34: return filaMLITERAL(terminal);
+            case 35: return filaASIG(terminal);
+            case 36: return filaASIGARREGLO(terminal);
+            case 37: return filaIMPR(terminal);
+            case 38: return filaCONCAT(terminal);
+            case 39: return filaMCONCAT(terminal);
+            case 40: return filaLECT(terminal);
+            case 41: return filaLLAMADA_FUNCION(terminal);
+            case 42: return filaARGUMENTOS(terminal);
+            case 43: return filaARGUMENTOS2(terminal);
+            case 44: return filaCONTROL_IF(terminal);
+            case 45: return filaELSE(terminal);
+            case 46: return filaCONTINUEORBREAK(terminal);
+            case 47: return filaCONTROL_WHILE(terminal);
+            case 48: return filaCONTROL_WHILE_IF(terminal);
+            case 49: return filaWHILE_ELSE(terminal);
+            case 50: return filaCONTROL_SWITCH(terminal);
+            case 51: return filaCASOS(terminal);
+            case 52: return filaCASOIZQ(terminal);
+            case 53: return filaCASODEFAULT(terminal);
+            case 54: return filaCONTINUE(terminal);
+            case 55: return filaBREAK(terminal);
+            case 56: return filaBREAK2(terminal);
+            case 57: return filaFUNC(terminal);
+            case 58: return filaCFUNC(terminal);
+            case 59: return filaPARAMETRO(terminal);
+            case 60: return filaMPARAMETRO(terminal);
+            case 61: return filaCLONACION_OBJETO(terminal);
+            case 62: return filaLLAMADA_METODO_OBJETO(terminal);
+            default: return -1;
+        }
+    }
+
+    /** S */
+    private static int filaS(int terminal) {
+        switch (terminal) {
+            case 68:    // principalsito
+            case 69:    // favor
+            case 70:    // porfavor
+            case 71:    // podriasCrear
+            case 72:    // clasesita
+                return 0;    // } BLOQUE { ) ( principalsito V
+            default:
+                return -1;
+        }
+    }
+
+    /** V */
+    private static int filaV(int terminal) {
+        switch (terminal) {
+            case 68:    // principalsito
+                return 1;    // λ
+            case 69:    // favor
+            case 70:    // porfavor
+            case 71:    // podriasCrear
+            case 72:    // clasesita
+                return 2;    // V D
+            default:
+                return -1;
+        }
+    }
+
+    /** D */
+    private static int filaD(int terminal) {
+        switch (terminal) {
+            case 69:    // favor
+                return 3;    // FUNC
+            case 70:    // porfavor
+                return 4;    // ASIG
+            case 71:    // podriasCrear
+                return 5;    // DECL
+            case 72:    // clasesita
+                return 6;    // CLASE
+            default:
+                return -1;
+        }
+    }
+
+    /** TIPODATO */
+    private static int filaTIPODATO(int terminal) {
+        switch (terminal) {
+            case 73:    // enterito
+                return 7;    // enterito
+            case 74:    // realito
+                return 8;    // realito
+            case 75:    // booleanito
+                return 9;    // booleanito
+            case 76:    // charsito
+                return 10;    // charsito
+            case 77:    // cadenita
+                return 11;    // cadenita
+            default:
+                return -1;
+        }
+    }
+
+    /** CLASE */
+    private static int filaCLASE(int terminal) {
+        switch (terminal) {
+            case 72:    // clasesita
+                return 12;    // } METODO CONSTRUCTOR ATRIBUTOS { id clasesita
+            default:
+                return -1;
+        }
+    }
+
+    /** ATRIBUTOS */
+    private static int filaATRIBUTOS(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+            case 70:    // porfavor
+            case 78:    // id
+                return 1;    // λ
+            case 71:    // podriasCrear
+                return 13;    // ATRIBUTOS DECL
+            default:
+                return -1;
+        }
+    }
+
+    /** CONSTRUCTOR */
+    private static int filaCONSTRUCTOR(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+            case 70:    // porfavor
+                return 1;    // λ
+            case 78:    // id
+                return 14;    // } BLOQUE_CONSTRUCTOR { ) PARAMETRO  ( id
+            default:
+                return -1;
+        }
+    }
+
+    /** BLOQUE_CONSTRUCTOR */
+    private static int filaBLOQUE_CONSTRUCTOR(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 70:    // porfavor
+                return 15;    // BLOQUE_CONSTRUCTOR :) EXPR = id . yo porfavor
+            default:
+                return -1;
+        }
+    }
+
+    /** METODO */
+    private static int filaMETODO(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 70:    // porfavor
+                return 16;    // METODO CFUNC metodillo porfavor
+            default:
+                return -1;
+        }
+    }
+
+    /** EXPR */
+    private static int filaEXPR(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 17;    // EXPR_ARIT
+            case 84:    // arreglito
+                return 18;    // ACCESO_ARREGLO
+            default:
+                return -1;
+        }
+    }
+
+    /** ACCESO_ARREGLO */
+    private static int filaACCESO_ARREGLO(int terminal) {
+        switch (terminal) {
+            case 84:    // arreglito
+                return 19;    // ] EXPR_ARREGLO [ id . arreglito
+            default:
+                return -1;
+        }
+    }
+
+    /** EXPR_ARREGLO */
+    private static int filaEXPR_ARREGLO(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+                return 22;    // J ) EXPR_ARREGLO (
+            case 78:    // id
+                return 20;    // J id
+            case 85:    // entero
+                return 21;    // J entero
+            default:
+                return -1;
+        }
+    }
+
+    /** J */
+    private static int filaJ(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+            case 91:    // ]
+                return 1;    // λ
+            case 93:    // +
+            case 94:    // -
+                return 23;    // EXPR_ARREGLO OP_SUMA
+            case 95:    // *
+            case 96:    // /
+                return 24;    // EXPR_ARREGLO OP_MULTI
+            default:
+                return -1;
+        }
+    }
+
+    /** EXPR_ARIT */
+    private static int filaEXPR_ARIT(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 25;    // A T
+            default:
+                return -1;
+        }
+    }
+
+    /** A */
+    private static int filaA(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+            case 79:    // :)
+            case 99:    // ,
+                return 1;    // λ
+            case 97:    // &&
+            case 98:    // ||
+                return 26;    // A T OP_LOG
+            default:
+                return -1;
+        }
+    }
+
+    /** T */
+    private static int filaT(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 27;    // B H
+            default:
+                return -1;
+        }
+    }
+
+    /** B */
+    private static int filaB(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+            case 79:    // :)
+            case 97:    // &&
+            case 98:    // ||
+            case 99:    // ,
+                return 1;    // λ
+            case 100:    // ==
+            case 101:    // !=
+            case 102:    // <
+            case 103:    // >
+            case 104:    // <=
+            case 105:    // >=
+                return 28;    // B H OP_COMP
+            default:
+                return -1;
+        }
+    }
+
+    /** H */
+    private static int filaH(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 29;    // C N
+            default:
+                return -1;
+        }
+    }
+
+    /** C */
+    private static int filaC(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+            case 79:    // :)
+            case 97:    // &&
+            case 98:    // ||
+            case 99:    // ,
+            case 100:    // ==
+            case 101:    // !=
+            case 102:    // <
+            case 103:    // >
+            case 104:    // <=
+            case 105:    // >=
+                return 1;    // λ
+            case 93:    // +
+            case 94:    // -
+                return 30;    // C N OP_SUMA
+            default:
+                return -1;
+        }
+    }
+
+    /** N */
+    private static int filaN(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 31;    // M F
+            default:
+                return -1;
+        }
+    }
+
+    /** M */
+    private static int filaM(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+            case 79:    // :)
+            case 93:    // +
+            case 94:    // -
+            case 97:    // &&
+            case 98:    // ||
+            case 99:    // ,
+            case 100:    // ==
+            case 101:    // !=
+            case 102:    // <
+            case 103:    // >
+            case 104:    // <=
+            case 105:    // >=
+                return 1;    // λ
+            case 95:    // *
+            case 96:    // /
+                return 32;    // M F OP_MULTI
+            default:
+                return -1;
+        }
+    }
+
+    /** F */
+    private static int filaF(int terminal) {
+        switch (terminal) {
+            case 67:    // (
+                return 35;    // ) EXPR_ARIT (
+            case 78:    // id
+                return 33;    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 34;    // LITERAL
+            default:
+                return -1;
+        }
+    }
+
+    /** OP_COMP */
+    private static int filaOP_COMP(int terminal) {
+        switch (terminal) {
+            case 100:    // ==
+                return 36;    // ==
+            case 101:    // !=
+                return 37;    // !=
+            case 102:    // <
+                return 38;    // <
+            case 103:    // >
+                return 39;    // >
+            case 104:    // <=
+                return 40;    // <=
+            case 105:    // >=
+                return 41;    // >=
+            default:
+                return -1;
+        }
+    }
+
+    /** OP_LOG */
+    private static int filaOP_LOG(int terminal) {
+        switch (terminal) {
+            case 97:    // &&
+                return 42;    // &&
+            case 98:    // ||
+                return 43;    // ||
+            default:
+                return -1;
+        }
+    }
+
+    /** OP_SUMA */
+    private static int filaOP_SUMA(int terminal) {
+        switch (terminal) {
+            case 93:    // +
+                return 44;    // +
+            case 94:    // -
+                return 45;    // -
+            default:
+                return -1;
+        }
+    }
+
+    /** OP_MULTI */
+    private static int filaOP_MULTI(int terminal) {
+        switch (terminal) {
+            case 95:    // *
+                return 46;    // *
+            case 96:    // /
+                return 47;    // /
+            default:
+                return -1;
+        }
+    }
+
+    /** LITERAL */
+    private static int filaLITERAL(int terminal) {
+        switch (terminal) {
+            case 85:    // entero
+                return 48;    // entero
+            case 86:    // decimal
+                return 49;    // decimal
+            case 87:    // cadena
+                return 50;    // cadena
+            case 88:    // char
+                return 51;    // char
+            case 89:    // TRUE
+                return 52;    // TRUE
+            case 90:    // FALSE
+                return 53;    // FALSE
+            default:
+                return -1;
+        }
+    }
+
+    /** BLOQUE */
+    private static int filaBLOQUE(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+            case 112:    // siControla
+            case 114:    // saltear
+            case 115:    // parar
+            case 116:    // retorna
+                return 1;    // λ
+            case 70:    // porfavor
+            case 71:    // podriasCrear
+            case 78:    // id
+            case 106:    // podriasImprimir
+            case 107:    // podriasLeer
+            case 108:    // aclama
+            case 109:    // invoco
+            case 110:    // siCumple
+            case 111:    // SiPersiste
+            case 113:    // enCasoSea
+                return 54;    // BLOQUE INST
+            default:
+                return -1;
+        }
+    }
+
+    /** INST */
+    private static int filaINST(int terminal) {
+        switch (terminal) {
+            case 70:    // porfavor
+                return 4;    // ASIG
+            case 71:    // podriasCrear
+                return 5;    // DECL
+            case 78:    // id
+                return 57;    // CLONACION_OBJETO
+            case 106:    // podriasImprimir
+                return 55;    // IMPR
+            case 107:    // podriasLeer
+                return 56;    // LECT
+            case 108:    // aclama
+                return 58;    // LLAMADA_FUNCION
+            case 109:    // invoco
+                return 59;    // LLAMADA_METODO_OBJETO
+            case 110:    // siCumple
+                return 60;    // CONTROL_IF
+            case 111:    // SiPersiste
+                return 61;    // CONTROL_WHILE
+            case 113:    // enCasoSea
+                return 62;    // CONTROL_SWITCH
+            default:
+                return -1;
+        }
+    }
+
+    /** DECL */
+    private static int filaDECL(int terminal) {
+        switch (terminal) {
+            case 71:    // podriasCrear
+                return 63;    // :) CDECL podriasCrear
+            default:
+                return -1;
+        }
+    }
+
+    /** CDECL */
+    private static int filaCDECL(int terminal) {
+        switch (terminal) {
+            case 73:    // enterito
+            case 74:    // realito
+            case 75:    // booleanito
+            case 76:    // charsito
+            case 77:    // cadenita
+                return 64;    // MDECL ARR id TIPODATO
+            case 117:    // constantito
+                return 65;    // ARRC id TIPODATO constantito
+            default:
+                return -1;
+        }
+    }
+
+    /** MDECL */
+    private static int filaMDECL(int terminal) {
+        switch (terminal) {
+            case 79:    // :)
+                return 1;    // λ
+            case 99:    // ,
+                return 66;    // MDECL ARR id ,
+            default:
+                return -1;
+        }
+    }
+
+    /** ARR */
+    private static int filaARR(int terminal) {
+        switch (terminal) {
+            case 79:    // :)
+            case 99:    // ,
+                return 1;    // λ
+            case 92:    // [
+                return 67;    // ] EXPR_ARREGLO [
+            default:
+                return -1;
+        }
+    }
+
+    /** ARRC */
+    private static int filaARRC(int terminal) {
+        switch (terminal) {
+            case 80:    // =
+                return 69;    // LITERAL =
+            case 92:    // [
+                return 68;    // } MLITERAL LITERAL { = ] entero [
+            default:
+                return -1;
+        }
+    }
+
+    /** MLITERAL */
+    private static int filaMLITERAL(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 99:    // ,
+                return 70;    // MLITERAL LITERAL ,
+            default:
+                return -1;
+        }
+    }
+
+    /** ASIG */
+    private static int filaASIG(int terminal) {
+        switch (terminal) {
+            case 70:    // porfavor
+                return 71;    // ASIGARREGLO = id porfavor
+            default:
+                return -1;
+        }
+    }
+
+    /** ASIGARREGLO */
+    private static int filaASIGARREGLO(int terminal) {
+        switch (terminal) {
+            case 65:    // {
+                return 73;    // :) } MLITERAL LITERAL {
+            case 67:    // (
+            case 78:    // id
+            case 84:    // arreglito
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 72;    // :) EXPR
+            default:
+                return -1;
+        }
+    }
+
+    /** IMPR */
+    private static int filaIMPR(int terminal) {
+        switch (terminal) {
+            case 69:    // favor
+            case 106:    // podriasImprimir
+                return 74;    // :) ) CONCAT ( podriasImprimir
+            default:
+                return -1;
+        }
+    }
+
+    /** CONCAT */
+    private static int filaCONCAT(int terminal) {
+        switch (terminal) {
+            case 78:    // id
+                return 75;    // MCONCAT id
+            case 87:    // cadena
+                return 76;    // MCONCAT cadena
+            default:
+                return -1;
+        }
+    }
+
+    /** MCONCAT */
+    private static int filaMCONCAT(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+                return 1;    // λ
+            case 93:    // +
+                return 77;    // CONCAT +
+            default:
+                return -1;
+        }
+    }
+
+    /** LECT */
+    private static int filaLECT(int terminal) {
+        switch (terminal) {
+            case 107:    // podriasLeer
+                return 78;    // :) ) id ( podriasLeer
+            default:
+                return -1;
+        }
+    }
+
+    /** LLAMADA_FUNCION */
+    private static int filaLLAMADA_FUNCION(int terminal) {
+        switch (terminal) {
+            case 108:    // aclama
+                return 79;    // :) ) ARGUMENTOS ( id . aclama
+            default:
+                return -1;
+        }
+    }
+
+    /** ARGUMENTOS */
+    private static int filaARGUMENTOS(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+                return 1;    // λ
+            case 67:    // (
+            case 78:    // id
+            case 84:    // arreglito
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 80;    // ARGUMENTOS2 EXPR
+            default:
+                return -1;
+        }
+    }
+
+    /** ARGUMENTOS2 */
+    private static int filaARGUMENTOS2(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+                return 1;    // λ
+            case 99:    // ,
+                return 81;    // ARGUMENTOS2 EXPR ,
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTROL_IF */
+    private static int filaCONTROL_IF(int terminal) {
+        switch (terminal) {
+            case 110:    // siCumple
+                return 82;    // ELSE } BLOQUE { ) EXPR ( siCumple
+            default:
+                return -1;
+        }
+    }
+
+    /** ELSE */
+    private static int filaELSE(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+            case 70:    // porfavor
+            case 71:    // podriasCrear
+            case 78:    // id
+            case 79:    // :)
+            case 106:    // podriasImprimir
+            case 107:    // podriasLeer
+            case 108:    // aclama
+            case 109:    // invoco
+            case 110:    // siCumple
+            case 111:    // SiPersiste
+            case 112:    // siControla
+            case 113:    // enCasoSea
+            case 114:    // saltear
+            case 115:    // parar
+            case 116:    // retorna
+                return 1;    // λ
+            case 118:    // peroSiCumple
+                return 83;    // ELSE } BLOQUE { ) EXPR ( peroSiCumple
+            case 119:    // casoContrario
+                return 84;    // } BLOQUE { casoContrario
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTINUEORBREAK */
+    private static int filaCONTINUEORBREAK(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 79:    // :)
+                return 86;    // BREAK
+            case 114:    // saltear
+                return 85;    // CONTINUE
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTROL_WHILE */
+    private static int filaCONTROL_WHILE(int terminal) {
+        switch (terminal) {
+            case 111:    // SiPersiste
+                return 87;    // } CONTROL_WHILE_IF BLOQUE { ) EXPR ( SiPersiste
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTROL_WHILE_IF */
+    private static int filaCONTROL_WHILE_IF(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 112:    // siControla
+                return 88;    // WHILE_ELSE } CONTINUEORBREAK BLOQUE { ) EXPR ( siControla
+            default:
+                return -1;
+        }
+    }
+
+    /** WHILE_ELSE */
+    private static int filaWHILE_ELSE(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 118:    // peroSiCumple
+                return 89;    // WHILE_ELSE } CONTINUEORBREAK BLOQUE { ) EXPR ( peroSiCumple
+            case 119:    // casoContrario
+                return 90;    // } CONTINUEORBREAK BLOQUE { casoContrario
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTROL_SWITCH */
+    private static int filaCONTROL_SWITCH(int terminal) {
+        switch (terminal) {
+            case 113:    // enCasoSea
+                return 91;    // } CASODEFAULT CASOS { ) id ( enCasoSea
+            default:
+                return -1;
+        }
+    }
+
+    /** CASOS */
+    private static int filaCASOS(int terminal) {
+        switch (terminal) {
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 92;    // CASOS BREAK2 BLOQUE : CASOIZQ
+            case 121:    // oSino
+                return 1;    // λ
+            default:
+                return -1;
+        }
+    }
+
+    /** CASOIZQ */
+    private static int filaCASOIZQ(int terminal) {
+        switch (terminal) {
+            case 78:    // id
+                return 33;    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+                return 34;    // LITERAL
+            default:
+                return -1;
+        }
+    }
+
+    /** CASODEFAULT */
+    private static int filaCASODEFAULT(int terminal) {
+        switch (terminal) {
+            case 64:    // }
+                return 1;    // λ
+            case 121:    // oSino
+                return 93;    // BLOQUE : oSino
+            default:
+                return -1;
+        }
+    }
+
+    /** CONTINUE */
+    private static int filaCONTINUE(int terminal) {
+        switch (terminal) {
+            case 114:    // saltear
+                return 94;    // saltear
+            default:
+                return -1;
+        }
+    }
+
+    /** BREAK */
+    private static int filaBREAK(int terminal) {
+        switch (terminal) {
+            case 115:    // parar
+                return 95;    // :) parar
+            default:
+                return -1;
+        }
+    }
+
+    /** BREAK2 */
+    private static int filaBREAK2(int terminal) {
+        switch (terminal) {
+            case 78:    // id
+            case 85:    // entero
+            case 86:    // decimal
+            case 87:    // cadena
+            case 88:    // char
+            case 89:    // TRUE
+            case 90:    // FALSE
+            case 121:    // oSino
+                return 1;    // λ
+            case 115:    // parar
+                return 95;    // :) parar
+            default:
+                return -1;
+        }
+    }
+
+    /** FUNC */
+    private static int filaFUNC(int terminal) {
+        switch (terminal) {
+            case 69:    // favor
+                return 96;    // :) CFUNC favor
+            default:
+                return -1;
+        }
+    }
+
+    /** CFUNC */
+    private static int filaCFUNC(int terminal) {
+        switch (terminal) {
+            case 73:    // enterito
+            case 74:    // realito
+            case 75:    // booleanito
+            case 76:    // charsito
+            case 77:    // cadenita
+                return 97;    // } :) EXPR retorna BLOQUE { ) PARAMETRO ( id TIPODATO
+            case 122:    // vacio
+                return 98;    // } BLOQUE { ) PARAMETRO ( id vacio
+            default:
+                return -1;
+        }
+    }
+
+    /** PARAMETRO */
+    private static int filaPARAMETRO(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+                return 1;    // λ
+            case 73:    // enterito
+            case 74:    // realito
+            case 75:    // booleanito
+            case 76:    // charsito
+            case 77:    // cadenita
+                return 99;    // MPARAMETRO id TIPODATO
+            default:
+                return -1;
+        }
+    }
+
+    /** MPARAMETRO */
+    private static int filaMPARAMETRO(int terminal) {
+        switch (terminal) {
+            case 66:    // )
+                return 1;    // λ
+            case 99:    // ,
+                return 100;    // MPARAMETRO id TIPODATO ,
+            default:
+                return -1;
+        }
+    }
+
+    /** CLONACION_OBJETO */
+    private static int filaCLONACION_OBJETO(int terminal) {
+        switch (terminal) {
+            case 78:    // id
+                return 101;    // :) ) ARGUMENTOS ( id clona = id id
+            default:
+                return -1;
+        }
+    }
+
+    /** LLAMADA_METODO_OBJETO */
+    private static int filaLLAMADA_METODO_OBJETO(int terminal) {
+        switch (terminal) {
+            case 109:    // invoco
+                return 102;    // :) ) ARGUMENTOS ( id . id invoco
+            default:
+                return -1;
+        }
+    }
+}
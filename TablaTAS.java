@@ -0,0 +1,561 @@
+package lexico;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Tabla de análisis sintáctico (TAS) compilada: cada símbolo de la gramática
+ * es un int denso (los no terminales primero), cada producción es el int[]
+ * de símbolos en el orden en que se apilan y la tabla es un arreglo plano
+ * comprimido por desplazamiento de filas: cada fila se encaja en los huecos
+ * de las anteriores y una posición guarda la producción junto con la fila
+ * dueña, así que las celdas vacías casi no ocupan lugar aunque la gramática
+ * crezca. El Parser deriva con accesos a arreglos, sin buscar Strings.
+ *
+ * La tabla sale de la planilla XLSX o de una gramática BNF (.bnf), de la
+ * que {@link Gramatica} calcula las celdas con PRIMEROS y SIGUIENTES.
+ *
+ * Descomprimir el XLSX y recorrer sus XML es lo más caro del arranque,
+ * así que la tabla compilada se guarda en una instantánea binaria junto al
+ * archivo fuente (misma ruta, extensión .tas) y las cargas siguientes la
+ * leen de una sola vez. La instantánea lleva una huella del contenido del
+ * archivo del que salió (largo y CRC32C): si cambia, se regenera sola.
+ *
+ * La instantánea ocupa unos pocos KB: leerla con un read cuesta décimas de
+ * milisegundo, mientras que mapearla (FileChannel.map) y calcular un SHA-256
+ * inicializan maquinaria que en un arranque en frío tarda decenas de
+ * milisegundos cada una.
+ *
+ * Formato (big endian):
+ * MAGIA | VERSION | huella (long) | símbolos | cantidad de no terminales |
+ * producciones (texto, ids del cuerpo) | celdas (no terminal, terminal, producción)
+ */
+final class TablaTAS implements TablaAnalisis {
+    static final String[] EPSILON_VALUES = {"ε", "λ", "&"};
+
+    private static final int MAGIA = 0x54415331;   // "TAS1"
+    private static final int VERSION = 2;
+    private static final String EXTENSION = ".tas";
+    static final String EXTENSION_GRAMATICA = ".bnf";
+
+    static final String FIN = "$";
+    static final String INICIAL = "S";
+
+    private final String[] simbolos;               // los no terminales van primero
+    private final int noTerminales;
+    private final String[] producciones;           // texto tal como figura en la tabla
+    private final int[][] cuerpos;                 // símbolos en el orden en que se apilan
+    private final int[] celdas;                    // tríos (no terminal, terminal, producción)
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    // La celda (nt, t) está en base[nt] + t si dueno[] de esa posición es nt
+    private final int[] base;
+    private final int[] dueno;
+    private final int[] valores;
+
+    private TablaTAS(String[] simbolos, int noTerminales, String[] producciones, int[][] cuerpos, int[] celdas) {
+        this.simbolos = simbolos;
+        this.noTerminales = noTerminales;
+        this.producciones = producciones;
+        this.cuerpos = cuerpos;
+        this.celdas = celdas;
+
+        for (int s = 0; s < simbolos.length; s++) ids.put(simbolos[s], s);
+
+        // Filas con sus terminales, encajadas de la más llena a la más vacía (first fit)
+        int[][] filas = new int[noTerminales][];
+        int[] llenas = new int[noTerminales];
+        for (int c = 0; c < celdas.length; c += 3) llenas[celdas[c]]++;
+        for (int nt = 0; nt < noTerminales; nt++) filas[nt] = new int[llenas[nt]];
+        Arrays.fill(llenas, 0);
+        for (int c = 0; c < celdas.length; c += 3) filas[celdas[c]][llenas[celdas[c]]++] = c;
+
+        Integer[] orden = new Integer[noTerminales];
+        for (int nt = 0; nt < noTerminales; nt++) orden[nt] = nt;
+        Arrays.sort(orden, (a, b) -> filas[b].length - filas[a].length);
+
+        base = new int[noTerminales];
+        int[] duenos = new int[simbolos.length];
+        int[] contenidos = new int[simbolos.length];
+        Arrays.fill(duenos, -1);
+        int largo = 0;
+        for (int nt : orden) {
+            int[] fila = filas[nt];
+            if (fila.length == 0) continue;
+            int minimo = Integer.MAX_VALUE;
+            for (int c : fila) minimo = Math.min(minimo, celdas[c + 1]);
+
+            int desplazamiento = -minimo;
+            while (!cabe(fila, celdas, duenos, desplazamiento)) desplazamiento++;
+            base[nt] = desplazamiento;
+            for (int c : fila) {
+                int k = desplazamiento + celdas[c + 1];
+                if (k >= duenos.length) {
+                    int nuevo = Math.max(duenos.length * 2, k + 1);
+                    duenos = Arrays.copyOf(duenos, nuevo);
+                    contenidos = Arrays.copyOf(contenidos, nuevo);
+                    Arrays.fill(duenos, largo, nuevo, -1);
+                }
+                duenos[k] = nt;
+                contenidos[k] = celdas[c + 2];
+                largo = Math.max(largo, k + 1);
+            }
+        }
+        dueno = Arrays.copyOf(duenos, largo);
+        valores = Arrays.copyOf(contenidos, largo);
+    }
+
+    private static boolean cabe(int[] fila, int[] celdas, int[] duenos, int desplazamiento) {
+        for (int c : fila) {
+            int k = desplazamiento + celdas[c + 1];
+            if (k < duenos.length && duenos[k] != -1) return false;
+        }
+        return true;
+    }
+
+    // =============================================================================
+    // CONSULTA
+    // =============================================================================
+
+    @Override
+    public int id(String simbolo) {
+        Integer id = ids.get(simbolo);
+        return id != null ? id : -1;
+    }
+
+    @Override
+    public String simbolo(int id) {
+        return simbolos[id];
+    }
+
+    @Override
+    public int simbolos() {
+        return simbolos.length;
+    }
+
+    @Override
+    public boolean esNoTerminal(int simbolo) {
+        return simbolo < noTerminales;
+    }
+
+    int noTerminales() {
+        return noTerminales;
+    }
+
+    @Override
+    public int buscar(int noTerminal, int terminal) {
+        if (terminal < 0) return -1;
+        int k = base[noTerminal] + terminal;
+        return k >= 0 && k < valores.length && dueno[k] == noTerminal ? valores[k] : -1;
+    }
+
+    /** Posiciones que ocupa la tabla comprimida (la densa ocuparía noTerminales * simbolos). */
+    int posiciones() {
+        return valores.length;
+    }
+
+    @Override
+    public String texto(int produccion) {
+        return producciones[produccion];
+    }
+
+    int producciones() {
+        return producciones.length;
+    }
+
+    @Override
+    public int[] cuerpo(int produccion) {
+        return cuerpos[produccion];
+    }
+
+    static boolean isEpsilon(String str) {
+        for (String eps : EPSILON_VALUES) {
+            if (str.equals(eps)) return true;
+        }
+        return false;
+    }
+
+    // =============================================================================
+    // CARGA
+    // =============================================================================
+
+    /**
+     * Tabla del XLSX o la gramática indicada: desde la instantánea si su
+     * huella coincide con la del archivo; si no, leyendo el archivo y
+     * regenerando la instantánea. Si la instantánea no se puede escribir, la
+     * tabla igual se devuelve.
+     */
+    static TablaTAS cargar(Path fuente) throws IOException {
+        byte[] contenido = Files.readAllBytes(fuente);
+        long huella = huella(contenido);
+        Path instantanea = rutaInstantanea(fuente);
+
+        if (Files.isRegularFile(instantanea)) {
+            try {
+                TablaTAS tabla = leerInstantanea(instantanea, huella);
+                if (tabla != null) return tabla;
+            } catch (IOException | RuntimeException e) {
+                // Instantánea corrupta o de otra versión: se regenera
+            }
+        }
+
+        TablaTAS tabla = desdeFuente(fuente);
+        try {
+            tabla.escribirInstantanea(instantanea, huella);
+        } catch (IOException e) {
+            // Directorio de solo lectura: se seguirá leyendo el XLSX
+        }
+        return tabla;
+    }
+
+    /** Lee la tabla sin pasar por la instantánea: gramática si la extensión es .bnf, si no XLSX. */
+    static TablaTAS desdeFuente(Path fuente) throws IOException {
+        return fuente.getFileName().toString().endsWith(EXTENSION_GRAMATICA) ? desdeGramatica(fuente) : desdeXlsx(fuente);
+    }
+
+    static Path rutaInstantanea(Path fuente) {
+        String nombre = fuente.getFileName().toString();
+        int punto = nombre.lastIndexOf('.');
+        return fuente.resolveSibling((punto > 0 ? nombre.substring(0, punto) : nombre) + EXTENSION);
+    }
+
+    static long huella(byte[] contenido) {
+        CRC32C crc = new CRC32C();
+        crc.update(contenido);
+        return (long) contenido.length << 32 | crc.getValue();
+    }
+
+    // =============================================================================
+    // INSTANTÁNEA BINARIA
+    // =============================================================================
+
+    /** Tabla de la instantánea, o null si fue generada desde otro XLSX. */
+    private static TablaTAS leerInstantanea(Path archivo, long huellaEsperada) throws IOException {
+        ByteBuffer datos = ByteBuffer.wrap(Files.readAllBytes(archivo));
+
+        if (datos.getInt() != MAGIA || datos.getInt() != VERSION) return null;
+        if (datos.getLong() != huellaEsperada) return null;
+
+        String[] simbolos = new String[datos.getInt()];
+        for (int s = 0; s < simbolos.length; s++) simbolos[s] = leerTexto(datos);
+        int noTerminales = datos.getInt();
+
+        String[] producciones = new String[datos.getInt()];
+        int[][] cuerpos = new int[producciones.length][];
+        for (int p = 0; p < producciones.length; p++) {
+            producciones[p] = leerTexto(datos);
+            cuerpos[p] = new int[datos.getInt()];
+            datos.asIntBuffer().get(cuerpos[p]);
+            datos.position(datos.position() + cuerpos[p].length * 4);
+        }
+
+        int[] celdas = new int[datos.getInt() * 3];
+        datos.asIntBuffer().get(celdas);
+        return new TablaTAS(simbolos, noTerminales, producciones, cuerpos, celdas);
+    }
+
+    private static String leerTexto(ByteBuffer datos) {
+        char[] chars = new char[datos.getInt()];
+        datos.asCharBuffer().get(chars);
+        datos.position(datos.position() + chars.length * 2);
+        return new String(chars);
+    }
+
+    /** Escribe a un temporal y lo renombra, para que un lector nunca vea una instantánea a medias. */
+    private void escribirInstantanea(Path archivo, long huella) throws IOException {
+        Path temporal = Files.createTempFile(archivo.toAbsolutePath().getParent(), "tas", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                out.writeInt(MAGIA);
+                out.writeInt(VERSION);
+                out.writeLong(huella);
+
+                out.writeInt(simbolos.length);
+                for (String simbolo : simbolos) escribirTexto(out, simbolo);
+                out.writeInt(noTerminales);
+
+                out.writeInt(producciones.length);
+                for (int p = 0; p < producciones.length; p++) {
+                    escribirTexto(out, producciones[p]);
+                    out.writeInt(cuerpos[p].length);
+                    for (int simbolo : cuerpos[p]) out.writeInt(simbolo);
+                }
+
+                out.writeInt(celdas.length / 3);
+                for (int valor : celdas) out.writeInt(valor);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    private static void escribirTexto(DataOutputStream out, String texto) throws IOException {
+        out.writeInt(texto.length());
+        out.writeChars(texto);
+    }
+
+    // =============================================================================
+    // LECTURA DE LA GRAMÁTICA
+    // =============================================================================
+
+    /** Celdas calculadas por {@link Gramatica}; no se carga con conflictos que no declare {@code %expect}. */
+    static TablaTAS desdeGramatica(Path archivo) throws IOException {
+        Gramatica gramatica = Gramatica.leer(archivo);
+        if (!gramatica.inicial().equals(INICIAL)) {
+            throw new IOException(archivo + ": la primera regla debe ser la de " + INICIAL);
+        }
+        if (!gramatica.conflictosAceptados()) {
+            StringBuilder sb = new StringBuilder(archivo + ": la gramática no es LL(1)");
+            for (Gramatica.Conflicto conflicto : gramatica.conflictos()) sb.append("\n  ").append(conflicto);
+            throw new IOException(sb.toString());
+        }
+
+        Map<String, Map<String, String>> tas = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<String, Gramatica.Produccion>> fila : gramatica.tabla().entrySet()) {
+            Map<String, String> producciones = new LinkedHashMap<>();
+            for (Map.Entry<String, Gramatica.Produccion> celda : fila.getValue().entrySet()) {
+                producciones.put(celda.getKey(), celda.getValue().textoApilado());
+            }
+            tas.put(fila.getKey(), producciones);
+        }
+        return compilar(tas);
+    }
+
+    // =============================================================================
+    // LECTURA DEL XLSX
+    // =============================================================================
+
+    /**
+     * Lee la hoja en una sola pasada StAX, sin DOM ni copias intermedias:
+     * primero los shared strings (a un arreglo), después las filas de la
+     * hoja, que se vuelcan a la tabla a medida que se cierran. ZipFile da
+     * acceso directo a cada entrada, así que el orden dentro del ZIP no importa.
+     */
+    static TablaTAS desdeXlsx(Path xlsx) throws IOException {
+        try (ZipFile zip = new ZipFile(xlsx.toFile())) {
+            ZipEntry hoja = zip.getEntry("xl/worksheets/sheet1.xml");
+            if (hoja == null) {
+                throw new IOException("No se encontró sheet1.xml");
+            }
+
+            ZipEntry strings = zip.getEntry("xl/sharedStrings.xml");
+            String[] sharedStrings = new String[0];
+            if (strings != null) {
+                try (InputStream in = zip.getInputStream(strings)) {
+                    sharedStrings = leerSharedStrings(in);
+                }
+            }
+
+            try (InputStream in = zip.getInputStream(hoja)) {
+                return compilar(leerFilas(in, sharedStrings));
+            }
+        } catch (Exception e) {
+            throw new IOException("Error al procesar XLSX: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLStreamReader abrirXml(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory.createXMLStreamReader(in);
+    }
+
+    /** Texto del primer {@code <t>} de cada {@code <si>}, en orden. */
+    private static String[] leerSharedStrings(InputStream in) throws XMLStreamException {
+        String[] strings = new String[256];
+        int cantidad = 0;
+        String actual = null;
+
+        XMLStreamReader xml = abrirXml(in);
+        try {
+            while (xml.hasNext()) {
+                int evento = xml.next();
+                if (evento == XMLStreamConstants.START_ELEMENT) {
+                    String nombre = xml.getLocalName();
+                    if (nombre.equals("si")) {
+                        actual = null;
+                    } else if (nombre.equals("t") && actual == null) {
+                        actual = xml.getElementText();
+                    }
+                } else if (evento == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("si")) {
+                    if (cantidad == strings.length) strings = Arrays.copyOf(strings, cantidad * 2);
+                    strings[cantidad++] = actual != null ? actual : "";
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return Arrays.copyOf(strings, cantidad);
+    }
+
+    /**
+     * Filas de la hoja: la 3 tiene los terminales (encabezados), desde la 4
+     * cada fila es un no terminal (columna B) con sus producciones.
+     */
+    private static Map<String, Map<String, String>> leerFilas(InputStream in, String[] sharedStrings)
+            throws XMLStreamException {
+        Map<String, Map<String, String>> tas = new LinkedHashMap<>();
+        String[] encabezados = null;
+
+        List<String> valores = new ArrayList<>();
+        int rowNum = 0;
+        String tipoCelda = null;
+        String valorCelda = null;
+
+        XMLStreamReader xml = abrirXml(in);
+        try {
+            while (xml.hasNext()) {
+                int evento = xml.next();
+                if (evento == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "row":
+                            rowNum = Integer.parseInt(atributo(xml, "r"));
+                            valores.clear();
+                            break;
+                        case "c":
+                            // Las celdas vacías no aparecen: se rellenan hasta la columna de esta
+                            int targetCol = getColumnIndex(atributo(xml, "r"));
+                            while (valores.size() < targetCol) valores.add("");
+                            tipoCelda = atributo(xml, "t");
+                            valorCelda = null;
+                            break;
+                        case "v":
+                            if (valorCelda == null) valorCelda = xml.getElementText();
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (evento == XMLStreamConstants.END_ELEMENT) {
+                    String nombre = xml.getLocalName();
+                    if (nombre.equals("c")) {
+                        valores.add(valorCelda(tipoCelda, valorCelda, sharedStrings));
+                    } else if (nombre.equals("row") && rowNum > 2) {
+                        String[] datos = valores.toArray(new String[0]);
+                        if (rowNum == 3) {
+                            encabezados = datos;
+                        } else {
+                            agregarFila(tas, encabezados, datos);
+                        }
+                    }
+                }
+            }
+        } finally {
+            xml.close();
+        }
+        return tas;
+    }
+
+    private static void agregarFila(Map<String, Map<String, String>> tas, String[] encabezados, String[] datos) {
+        if (datos.length < 2 || datos[1].trim().isEmpty()) return;
+
+        String noTerminal = datos[1].trim();
+
+        Map<String, String> producciones = new LinkedHashMap<>();
+        for (int i = 2; i < datos.length && encabezados != null && i < encabezados.length; i++) {
+            String produccion = datos[i].trim();
+            String terminal = encabezados[i].trim();
+
+            if (!produccion.isEmpty() && !produccion.equals("?")) {
+                producciones.put(terminal, produccion);
+            } else if (isEpsilon(produccion)) {
+                producciones.put(terminal, "λ");
+            }
+        }
+
+        tas.put(noTerminal, producciones);
+    }
+
+    private static String valorCelda(String tipo, String v, String[] sharedStrings) {
+        if (v == null) return "";
+        if ("s".equals(tipo)) {
+            int index = Integer.parseInt(v);
+            return index < sharedStrings.length ? sharedStrings[index] : "";
+        }
+        return v;
+    }
+
+    private static String atributo(XMLStreamReader xml, String nombre) {
+        String valor = xml.getAttributeValue(null, nombre);
+        return valor != null ? valor : "";
+    }
+
+    private static int getColumnIndex(String cellRef) {
+        int index = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char c = cellRef.charAt(i);
+            if (c >= '0' && c <= '9') continue;
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
+
+    /**
+     * Internado de símbolos y producciones: los no terminales reciben los
+     * primeros ids; las producciones con el mismo texto se comparten.
+     */
+    private static TablaTAS compilar(Map<String, Map<String, String>> tas) {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (String noTerminal : tas.keySet()) ids.put(noTerminal, ids.size());
+        int noTerminales = ids.size();
+        // El Parser arranca con "$ S" en la pila aunque la tabla no los mencione
+        ids.putIfAbsent(FIN, ids.size());
+        ids.putIfAbsent(INICIAL, ids.size());
+
+        Map<String, Integer> idsProduccion = new LinkedHashMap<>();
+        List<String[]> cuerpos = new ArrayList<>();
+        List<Integer> celdas = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, String>> fila : tas.entrySet()) {
+            for (Map.Entry<String, String> celda : fila.getValue().entrySet()) {
+                String texto = celda.getValue();
+                Integer produccion = idsProduccion.get(texto);
+                if (produccion == null) {
+                    produccion = idsProduccion.size();
+                    idsProduccion.put(texto, produccion);
+                    String[] cuerpo = separar(texto);
+                    for (String simbolo : cuerpo) ids.putIfAbsent(simbolo, ids.size());
+                    cuerpos.add(cuerpo);
+                }
+                ids.putIfAbsent(celda.getKey(), ids.size());
+
+                celdas.add(ids.get(fila.getKey()));
+                celdas.add(ids.get(celda.getKey()));
+                celdas.add(produccion);
+            }
+        }
+
+        String[] simbolos = ids.keySet().toArray(new String[0]);
+        int[][] cuerposInternados = new int[cuerpos.size()][];
+        for (int p = 0; p < cuerpos.size(); p++) {
+            String[] cuerpo = cuerpos.get(p);
+            cuerposInternados[p] = new int[cuerpo.length];
+            for (int k = 0; k < cuerpo.length; k++) cuerposInternados[p][k] = ids.get(cuerpo[k]);
+        }
+
+        int[] arregloCeldas = new int[celdas.size()];
+        for (int c = 0; c < arregloCeldas.length; c++) arregloCeldas[c] = celdas.get(c);
+
+        return new TablaTAS(simbolos, noTerminales, idsProduccion.keySet().toArray(new String[0]),
+                cuerposInternados, arregloCeldas);
+    }
+
+    /** Símbolos de la producción tal como los apila el Parser, sin ε. */
+    private static String[] separar(String produccion) {
+        if (isEpsilon(produccion)) return new String[0];
+        List<String> cuerpo = new ArrayList<>();
+        for (String simbolo : produccion.split("\\s+")) {
+            if (!simbolo.isEmpty() && !isEpsilon(simbolo)) cuerpo.add(simbolo);
+        }
+        return cuerpo.toArray(new String[0]);
+    }
+}
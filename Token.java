@@ -15,6 +15,10 @@ public class Token {
 
     @Override
     public String toString() {
+        return format(type, lexeme, literal);
+    }
+
+    static String format(TokenType type, String lexeme, Object literal) {
         String literalStr = literal == null ? "" : literal.toString();
         return String.format("%-30s | %-15s | %-10s | %-25s",
                 type.name() + " (" + type.getCode() + ")",
@@ -0,0 +1,317 @@
+package lexico;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Almacén de tokens fuera del heap (Foreign Function & Memory API).
+ *
+ * Los tokens se guardan como registros de 32 bytes en segmentos nativos de
+ * tamaño fijo y los lexemas en segmentos de chars aparte. Cuando la memoria
+ * nativa residente supera el presupuesto, los segmentos más antiguos ya
+ * completos se vuelcan a un archivo temporal y se reemplazan por un mapeo
+ * de ese archivo, de modo que el sistema operativo puede desalojarlos. El
+ * heap solo guarda los índices de segmentos y los mensajes de error, así que
+ * las pausas del GC no dependen del tamaño de la entrada.
+ *
+ * Los identificadores y strings no pasan por {@link Interner#COMPARTIDO}:
+ * ese pool vive en el heap y no se libera, y crecería con cada lexema
+ * distinto. El texto de cada token ya está en los segmentos de chars, que
+ * se vuelcan como el resto; {@link #lexeme} lo lee de ahí y
+ * {@link #symbolId} interna solo cuando alguien lo pide (el árbol).
+ *
+ * Registro: tipo (int) | línea (int) | offset (long) | inicio de texto (long) | número, índice de mensaje o pareja (long)
+ */
+final class TokenArena implements TokenSink, TokenCursor, AutoCloseable {
+	private static final TokenType[] TIPOS = TokenType.values();
+
+	private static final long REGISTRO = 32;
+	private static final long OFF_TIPO = 0;
+	private static final long OFF_LINEA = 4;
+	private static final long OFF_OFFSET = 8;
+	private static final long OFF_TEXTO = 16;
+	private static final long OFF_AUX = 24;
+
+	private static final int SHIFT_TOKENS = 16;                    // 64K tokens por segmento
+	private static final int TOKENS_POR_SEGMENTO = 1 << SHIFT_TOKENS;
+	private static final int SHIFT_CHARS = 20;                     // 1M chars por segmento
+	private static final int CHARS_POR_SEGMENTO = 1 << SHIFT_CHARS;
+
+	static final long PRESUPUESTO_POR_DEFECTO = 256L * 1024 * 1024;
+
+	private final long presupuesto;
+	private final Arena arenaMapeos = Arena.ofShared();
+
+	private final List<Bloque> registros = new ArrayList<>();
+	private final List<Bloque> textos = new ArrayList<>();
+	private final List<String> mensajes = new ArrayList<>();
+	// Los comentarios son pocos comparados con los tokens: quedan en el heap
+	private final TriviaTable trivia = new TriviaTable();
+	private final Delimitadores delimitadores = new Delimitadores();
+
+	// Orden de creación de los bloques residentes, para volcar primero los más antiguos
+	private final List<Bloque> residentes = new ArrayList<>();
+	private long bytesResidentes = 0;
+
+	private FileChannel volcado;
+	private long finVolcado = 0;
+
+	private int size = 0;
+	private long largoTexto = 0;
+
+	/** Segmento nativo propio (mientras reside en memoria) o mapeo del archivo de volcado. */
+	private static final class Bloque {
+		MemorySegment segmento;
+		Arena arena;
+		boolean completo;
+	}
+
+	TokenArena() {
+		this(PRESUPUESTO_POR_DEFECTO);
+	}
+
+	TokenArena(long presupuestoBytes) {
+		this.presupuesto = presupuestoBytes;
+	}
+
+	// =============================================================================
+	// ESCRITURA
+	// =============================================================================
+
+	@Override
+	public void add(TokenType type, char[] fuente, int desde, int largo, long offset, int line, long numero, String mensaje) {
+		int indice = size & (TOKENS_POR_SEGMENTO - 1);
+		if (indice == 0) {
+			if (!registros.isEmpty()) registros.get(registros.size() - 1).completo = true;
+			registros.add(nuevoBloque(TOKENS_POR_SEGMENTO * REGISTRO));
+		}
+
+		long textoInicio = largoTexto;
+		escribirTexto(fuente, desde, largo);
+
+		long aux = numero;
+		if (Delimitadores.esDelimitador(type)) {
+			aux = delimitadores.registrar(type, size);
+		} else if (type == TokenType.ERROR) {
+			aux = mensajes.size();
+			mensajes.add(mensaje);
+		}
+
+		MemorySegment seg = registros.get(registros.size() - 1).segmento;
+		long base = indice * REGISTRO;
+		seg.set(ValueLayout.JAVA_INT, base + OFF_TIPO, type.ordinal());
+		seg.set(ValueLayout.JAVA_INT, base + OFF_LINEA, line);
+		seg.set(ValueLayout.JAVA_LONG, base + OFF_OFFSET, offset);
+		seg.set(ValueLayout.JAVA_LONG, base + OFF_TEXTO, textoInicio);
+		seg.set(ValueLayout.JAVA_LONG, base + OFF_AUX, aux);
+		if (Delimitadores.esDelimitador(type) && aux != Delimitadores.SIN_PAREJA) {
+			// El cierre completa la apertura, que puede estar en un bloque ya volcado
+			registro((int) aux).set(ValueLayout.JAVA_LONG, base((int) aux) + OFF_AUX, size);
+		}
+		size++;
+
+		volcarSiExcede();
+	}
+
+	@Override
+	public void addTrivia(TokenType type, char[] fuente, int desde, int largo, long offset) {
+		trivia.add(type, fuente, desde, largo, offset);
+	}
+
+	TriviaTable trivia() {
+		return trivia;
+	}
+
+	private void escribirTexto(char[] fuente, int desde, int largo) {
+		while (largo > 0) {
+			int enSegmento = (int) (largoTexto & (CHARS_POR_SEGMENTO - 1));
+			if (enSegmento == 0 && (largoTexto >>> SHIFT_CHARS) == textos.size()) {
+				if (!textos.isEmpty()) textos.get(textos.size() - 1).completo = true;
+				textos.add(nuevoBloque(CHARS_POR_SEGMENTO * 2L));
+			}
+			int n = Math.min(largo, CHARS_POR_SEGMENTO - enSegmento);
+			MemorySegment seg = textos.get((int) (largoTexto >>> SHIFT_CHARS)).segmento;
+			MemorySegment.copy(fuente, desde, seg, ValueLayout.JAVA_CHAR, enSegmento * 2L, n);
+			desde += n;
+			largo -= n;
+			largoTexto += n;
+		}
+	}
+
+	private Bloque nuevoBloque(long bytes) {
+		Bloque bloque = new Bloque();
+		bloque.arena = Arena.ofShared();
+		bloque.segmento = bloque.arena.allocate(bytes, 8);
+		residentes.add(bloque);
+		bytesResidentes += bytes;
+		return bloque;
+	}
+
+	/**
+	 * Vuelca al archivo temporal los bloques completos más antiguos hasta
+	 * volver a estar dentro del presupuesto.
+	 */
+	private void volcarSiExcede() {
+		if (bytesResidentes <= presupuesto) return;
+
+		try {
+			for (int i = 0; i < residentes.size() && bytesResidentes > presupuesto; ) {
+				Bloque bloque = residentes.get(i);
+				if (!bloque.completo) {
+					i++;
+					continue;
+				}
+				volcar(bloque);
+				residentes.remove(i);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void volcar(Bloque bloque) throws IOException {
+		if (volcado == null) {
+			Path archivo = Files.createTempFile("tokens", ".spill");
+			volcado = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+		}
+
+		long bytes = bloque.segmento.byteSize();
+		long posicion = finVolcado;
+		ByteBuffer datos = bloque.segmento.asByteBuffer();
+		while (datos.hasRemaining()) {
+			volcado.write(datos, posicion + datos.position());
+		}
+		finVolcado += bytes;
+
+		bloque.segmento = volcado.map(FileChannel.MapMode.READ_WRITE, posicion, bytes, arenaMapeos);
+		bloque.arena.close();
+		bloque.arena = null;
+		bytesResidentes -= bytes;
+	}
+
+	// =============================================================================
+	// LECTURA
+	// =============================================================================
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private MemorySegment registro(int i) {
+		return registros.get(i >>> SHIFT_TOKENS).segmento;
+	}
+
+	private long base(int i) {
+		return (i & (TOKENS_POR_SEGMENTO - 1)) * REGISTRO;
+	}
+
+	@Override
+	public TokenType type(int i) {
+		return TIPOS[registro(i).get(ValueLayout.JAVA_INT, base(i) + OFF_TIPO)];
+	}
+
+	@Override
+	public int line(int i) {
+		return registro(i).get(ValueLayout.JAVA_INT, base(i) + OFF_LINEA);
+	}
+
+	long offset(int i) {
+		return registro(i).get(ValueLayout.JAVA_LONG, base(i) + OFF_OFFSET);
+	}
+
+	private long inicioTexto(int i) {
+		return i == size ? largoTexto : registro(i).get(ValueLayout.JAVA_LONG, base(i) + OFF_TEXTO);
+	}
+
+	private long aux(int i) {
+		return registro(i).get(ValueLayout.JAVA_LONG, base(i) + OFF_AUX);
+	}
+
+	int length(int i) {
+		return (int) (inicioTexto(i + 1) - inicioTexto(i));
+	}
+
+	private char charAt(long posicion) {
+		MemorySegment seg = textos.get((int) (posicion >>> SHIFT_CHARS)).segmento;
+		return seg.get(ValueLayout.JAVA_CHAR, (posicion & (CHARS_POR_SEGMENTO - 1)) * 2);
+	}
+
+	private String texto(long desde, int largo) {
+		char[] chars = new char[largo];
+		int copiados = 0;
+		while (copiados < largo) {
+			long posicion = desde + copiados;
+			int enSegmento = (int) (posicion & (CHARS_POR_SEGMENTO - 1));
+			int n = Math.min(largo - copiados, CHARS_POR_SEGMENTO - enSegmento);
+			MemorySegment seg = textos.get((int) (posicion >>> SHIFT_CHARS)).segmento;
+			MemorySegment.copy(seg, ValueLayout.JAVA_CHAR, enSegmento * 2L, chars, copiados, n);
+			copiados += n;
+		}
+		return new String(chars);
+	}
+
+	/** Se arma desde los segmentos de texto en cada llamada; la arena no guarda Strings. */
+	@Override
+	public String lexeme(int i) {
+		return texto(inicioTexto(i), length(i));
+	}
+
+	@Override
+	public int partner(int i) {
+		return Delimitadores.esDelimitador(type(i)) ? (int) aux(i) : Delimitadores.SIN_PAREJA;
+	}
+
+	@Override
+	public boolean lexemeEquals(int i, String otro) {
+		long desde = inicioTexto(i);
+		int largo = length(i);
+		if (largo != otro.length()) return false;
+		for (int k = 0; k < largo; k++) {
+			if (charAt(desde + k) != otro.charAt(k)) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int intValue(int i) {
+		return (int) aux(i);
+	}
+
+	@Override
+	public Object literal(int i) {
+		switch (type(i)) {
+			case ENTERO: return (int) aux(i);
+			case REAL: return Double.longBitsToDouble(aux(i));
+			case CHAR: return (char) aux(i);
+			case STRING: return texto(inicioTexto(i) + 1, length(i) - 2);
+			case ERROR: return mensajes.get((int) aux(i));
+			default: return null;
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Bloque bloque : residentes) {
+			bloque.arena.close();
+		}
+		residentes.clear();
+		registros.clear();
+		textos.clear();
+		arenaMapeos.close();
+		if (volcado != null) {
+			volcado.close();
+		}
+	}
+}
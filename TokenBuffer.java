@@ -0,0 +1,344 @@
+package lexico;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Almacén columnar de tokens: en lugar de un objeto Token por lexema, cada
+ * atributo vive en su propio arreglo primitivo indexado por la posición del
+ * token. Los lexemas se guardan contiguos en un único char[] y solo se
+ * convierten a String cuando alguien los pide; los literales numéricos se
+ * guardan sin boxing en un arreglo lateral.
+ *
+ * Identificadores y strings no copian sus caracteres: la columna de
+ * literales guarda su id del {@link Interner}, que tiene el texto una sola
+ * vez por lexema distinto, y su tramo en el char[] queda vacío. Los
+ * delimitadores guardan ahí el índice de su pareja. La línea y la columna
+ * no se guardan: se resuelven desde el offset con el {@link LineIndex} del
+ * fuente cuando alguien las pide.
+ *
+ * Por token: 1 byte de tipo + 4 de offset (relativo a una base long cada
+ * 4K tokens) + 4 de inicio de texto + 4 de índice de literal = 13 bytes,
+ * más 2 por char en palabras clave, operadores y números (que además usan
+ * 8 en el arreglo lateral). Los lexemas internados cuestan lo suyo una vez
+ * en el pool, no por aparición, así que en fuentes con nombres repetidos
+ * el promedio queda por debajo de 20 bytes; un número largo o una palabra
+ * clave de muchas letras lo pasan.
+ */
+final class TokenBuffer implements TokenSink, TokenCursor {
+	private static final TokenType[] TIPOS = TokenType.values();
+	private static final int CAPACIDAD_INICIAL = 1024;
+	private static final int SHIFT_BLOQUE = 12;                    // 4K tokens por base de offset
+	private static final int TOKENS_POR_BLOQUE = 1 << SHIFT_BLOQUE;
+
+	private byte[] tipos;
+	private long[] bases;           // offset del primer token de cada bloque
+	private int[] offsets;          // relativo a la base de su bloque
+	private int[] inicioTexto;      // tamaño + 1: el lexema i es [inicioTexto[i], inicioTexto[i + 1])
+	private int[] literales;        // índice en numeros/mensajes, id del Interner, pareja, o -1
+	private LineIndex lineas = new LineIndex();
+	private final TriviaTable trivia = new TriviaTable();
+	private final Delimitadores delimitadores = new Delimitadores();
+
+	private char[] texto;
+	private int largoTexto = 0;
+
+	private long[] numeros = new long[64];
+	private int cantidadNumeros = 0;
+	private String[] mensajes = new String[8];
+	private int cantidadMensajes = 0;
+
+	private int size = 0;
+
+	TokenBuffer() {
+		this(CAPACIDAD_INICIAL);
+	}
+
+	TokenBuffer(int capacidad) {
+		capacidad = Math.max(capacidad, 16);
+		tipos = new byte[capacidad];
+		offsets = new int[capacidad];
+		bases = new long[(capacidad >>> SHIFT_BLOQUE) + 1];
+		inicioTexto = new int[capacidad + 1];
+		literales = new int[capacidad];
+		texto = new char[capacidad * 4];
+	}
+
+	// =============================================================================
+	// ESCRITURA (desde el Scanner)
+	// =============================================================================
+
+	@Override
+	public void add(TokenType type, char[] fuente, int desde, int largo, long offset, int line, long numero, String mensaje) {
+		if (size == tipos.length) crecer();
+		if (!Interner.seInterna(type)) {
+			if (largoTexto + largo > texto.length) {
+				texto = Arrays.copyOf(texto, Math.max(texto.length * 2, largoTexto + largo));
+			}
+			System.arraycopy(fuente, desde, texto, largoTexto, largo);
+			largoTexto += largo;
+		}
+
+		tipos[size] = (byte) type.ordinal();
+		guardarOffset(size, offset);
+		inicioTexto[size + 1] = largoTexto;
+		literales[size] = guardarLiteral(type, fuente, desde, largo, numero, mensaje);
+		if (Delimitadores.esDelimitador(type)) emparejar(type, size);
+		size++;
+	}
+
+	@Override
+	public void addTrivia(TokenType type, char[] fuente, int desde, int largo, long offset) {
+		trivia.add(type, fuente, desde, largo, offset);
+	}
+
+	/**
+	 * Los offsets son absolutos (long: el fuente puede pasar de 2 GB) pero se
+	 * guardan como distancia a la base del bloque, que entra en un int salvo
+	 * que entre dos tokens de un mismo bloque haya más de 2 GB de espacios o
+	 * comentarios.
+	 */
+	private void guardarOffset(int i, long offset) {
+		int bloque = i >>> SHIFT_BLOQUE;
+		if ((i & (TOKENS_POR_BLOQUE - 1)) == 0) bases[bloque] = offset;
+		long relativo = offset - bases[bloque];
+		if (relativo < 0 || relativo > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Offset " + offset + " fuera de rango para el bloque que empieza en " + bases[bloque]);
+		}
+		offsets[i] = (int) relativo;
+	}
+
+	private int guardarLiteral(TokenType type, char[] fuente, int desde, int largo, long numero, String mensaje) {
+		switch (type) {
+			case IDENTIFICADOR:
+			case IDENTIFICADOR_MAYUSCULA:
+			case STRING:
+				return Interner.COMPARTIDO.intern(fuente, desde, largo);
+			case ENTERO:
+			case REAL:
+			case CHAR:
+				if (cantidadNumeros == numeros.length) numeros = Arrays.copyOf(numeros, numeros.length * 2);
+				numeros[cantidadNumeros] = numero;
+				return cantidadNumeros++;
+			case ERROR:
+				if (cantidadMensajes == mensajes.length) mensajes = Arrays.copyOf(mensajes, mensajes.length * 2);
+				mensajes[cantidadMensajes] = mensaje;
+				return cantidadMensajes++;
+			default:
+				return -1;
+		}
+	}
+
+	private void emparejar(TokenType type, int i) {
+		int apertura = delimitadores.registrar(type, i);
+		literales[i] = apertura;
+		if (apertura != Delimitadores.SIN_PAREJA) literales[apertura] = i;
+	}
+
+	/**
+	 * Copia los tokens [desde, hasta) de {@code origen} al final de este
+	 * buffer, desplazando sus offsets. Copia columnas completas en bloque,
+	 * sin volver a escanear ni crear Strings; los ids internados se copian tal
+	 * cual y las parejas de delimitadores se recalculan con las de este buffer.
+	 */
+	void appendRange(TokenBuffer origen, int desde, int hasta, long deltaOffset) {
+		int n = hasta - desde;
+		if (n <= 0) return;
+
+		while (size + n > tipos.length) crecer();
+		int chars = origen.inicioTexto[hasta] - origen.inicioTexto[desde];
+		if (largoTexto + chars > texto.length) {
+			texto = Arrays.copyOf(texto, Math.max(texto.length * 2, largoTexto + chars));
+		}
+
+		System.arraycopy(origen.tipos, desde, tipos, size, n);
+		System.arraycopy(origen.texto, origen.inicioTexto[desde], texto, largoTexto, chars);
+
+		int deltaTexto = largoTexto - origen.inicioTexto[desde];
+		for (int k = 0; k < n; k++) {
+			int i = desde + k;
+			guardarOffset(size + k, origen.offset(i) + deltaOffset);
+			inicioTexto[size + k + 1] = origen.inicioTexto[i + 1] + deltaTexto;
+
+			TokenType tipo = origen.type(i);
+			int literal = origen.literales[i];
+			if (Delimitadores.esDelimitador(tipo)) {
+				emparejar(tipo, size + k);
+			} else {
+				literales[size + k] = literal < 0 || Interner.seInterna(tipo) ? literal : guardarLiteral(tipo, null, 0, 0,
+						tipo == TokenType.ERROR ? 0L : origen.numeros[literal],
+						tipo == TokenType.ERROR ? origen.mensajes[literal] : null);
+			}
+		}
+
+		largoTexto += chars;
+		size += n;
+	}
+
+	/** Copia los comentarios de {@code origen} con offset en [desde, hasta). */
+	void appendTrivia(TokenBuffer origen, long desde, long hasta, long deltaOffset) {
+		trivia.appendRange(origen.trivia, desde, hasta, deltaOffset);
+	}
+
+	private void crecer() {
+		int capacidad = tipos.length * 2;
+		tipos = Arrays.copyOf(tipos, capacidad);
+		offsets = Arrays.copyOf(offsets, capacidad);
+		bases = Arrays.copyOf(bases, (capacidad >>> SHIFT_BLOQUE) + 1);
+		inicioTexto = Arrays.copyOf(inicioTexto, capacidad + 1);
+		literales = Arrays.copyOf(literales, capacidad);
+	}
+
+	// =============================================================================
+	// LECTURA
+	// =============================================================================
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public TokenType type(int i) {
+		return TIPOS[tipos[i]];
+	}
+
+	long offset(int i) {
+		return bases[i >>> SHIFT_BLOQUE] + offsets[i];
+	}
+
+	/** Índice de líneas del fuente del que salieron estos tokens. */
+	void usarLineas(LineIndex lineas) {
+		this.lineas = lineas;
+	}
+
+	LineIndex lineas() {
+		return lineas;
+	}
+
+	/** Comentarios del fuente, fuera de la secuencia de tokens. */
+	TriviaTable trivia() {
+		return trivia;
+	}
+
+	/**
+	 * Comentarios entre el token anterior y el token i (o el final del
+	 * fuente si i == size()): los índices [triviaDesde(i), triviaHasta(i)) de trivia().
+	 */
+	int triviaDesde(int i) {
+		return trivia.primeroDesde(i == 0 ? 0 : offset(i - 1) + length(i - 1));
+	}
+
+	int triviaHasta(int i) {
+		return i == size ? trivia.size() : trivia.primeroDesde(offset(i));
+	}
+
+	@Override
+	public int line(int i) {
+		return lineas.linea(offset(i));
+	}
+
+	long column(int i) {
+		return lineas.columna(offset(i));
+	}
+
+	@Override
+	public String position(int i) {
+		return lineas.rango(offset(i), length(i));
+	}
+
+	int length(int i) {
+		if (Interner.seInterna(type(i))) return Interner.COMPARTIDO.texto(literales[i]).length();
+		return inicioTexto[i + 1] - inicioTexto[i];
+	}
+
+	@Override
+	public String lexeme(int i) {
+		if (Interner.seInterna(type(i))) return Interner.COMPARTIDO.texto(literales[i]);
+		return new String(texto, inicioTexto[i], length(i));
+	}
+
+	@Override
+	public int symbolId(int i) {
+		return Interner.seInterna(type(i)) ? literales[i] : TokenCursor.super.symbolId(i);
+	}
+
+	@Override
+	public boolean lexemeEquals(int i, String otro) {
+		if (Interner.seInterna(type(i))) return Interner.COMPARTIDO.texto(literales[i]).equals(otro);
+		int desde = inicioTexto[i];
+		int largo = length(i);
+		if (largo != otro.length()) return false;
+		for (int k = 0; k < largo; k++) {
+			if (texto[desde + k] != otro.charAt(k)) return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int intValue(int i) {
+		return (int) numeros[literales[i]];
+	}
+
+	@Override
+	public int partner(int i) {
+		return Delimitadores.esDelimitador(type(i)) ? literales[i] : Delimitadores.SIN_PAREJA;
+	}
+
+	double realValue(int i) {
+		return Double.longBitsToDouble(numeros[literales[i]]);
+	}
+
+	char charValue(int i) {
+		return (char) numeros[literales[i]];
+	}
+
+	@Override
+	public Object literal(int i) {
+		switch (type(i)) {
+			case ENTERO: return intValue(i);
+			case REAL: return realValue(i);
+			case CHAR: return charValue(i);
+			case STRING: return lexeme(i).substring(1, length(i) - 1);
+			case ERROR: return mensajes[literales[i]];
+			default: return null;
+		}
+	}
+
+	// =============================================================================
+	// COMPARACIÓN
+	// =============================================================================
+
+	/**
+	 * Primer token en que este buffer y {@code otro} difieren (tipo, posición,
+	 * lexema, literal, pareja o comentarios que lo preceden), o -1 si son
+	 * iguales. Si uno es prefijo del otro, el largo del más corto. Con esto
+	 * se verifican los lexers alternativos contra el escaneo secuencial.
+	 */
+	int primeraDiferencia(TokenBuffer otro) {
+		int n = Math.min(size, otro.size);
+		for (int i = 0; i < n; i++) {
+			if (type(i) != otro.type(i) || offset(i) != otro.offset(i) || line(i) != otro.line(i)
+					|| !lexeme(i).equals(otro.lexeme(i)) || !Objects.equals(literal(i), otro.literal(i))
+					|| partner(i) != otro.partner(i) || !mismaTrivia(otro, i)) {
+				return i;
+			}
+		}
+		return size == otro.size && mismaTrivia(otro, n) ? -1 : n;
+	}
+
+	private boolean mismaTrivia(TokenBuffer otro, int i) {
+		int desde = triviaDesde(i);
+		int otroDesde = otro.triviaDesde(i);
+		int n = triviaHasta(i) - desde;
+		if (n != otro.triviaHasta(i) - otroDesde) return false;
+		for (int k = 0; k < n; k++) {
+			if (trivia.type(desde + k) != otro.trivia.type(otroDesde + k)
+					|| trivia.offset(desde + k) != otro.trivia.offset(otroDesde + k)
+					|| !trivia.text(desde + k).equals(otro.trivia.text(otroDesde + k))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
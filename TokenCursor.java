@@ -0,0 +1,65 @@
+package lexico;
+
+/**
+ * Vista de solo lectura sobre una secuencia de tokens indexada por posición.
+ * Es lo que consume el Parser, independientemente de dónde estén guardados.
+ *
+ * El Parser lee dentro de una ventana fija alrededor del token actual (ver
+ * Parser.VENTANA_RETENIDA y VENTANA_ADELANTE) y descarta lo que queda
+ * atrás con {@link #discardBefore(int)}: sobre una fuente en streaming la
+ * memoria no depende del largo del programa.
+ */
+interface TokenCursor {
+	/** Cantidad total de tokens. En una fuente en streaming obliga a esperar el final. */
+	int size();
+
+	/**
+	 * Indica si existe el token i. Es lo que debe usar quien recorre la
+	 * secuencia, porque no necesita conocer el total.
+	 */
+	default boolean has(int i) {
+		return i < size();
+	}
+
+	/**
+	 * Avisa que los tokens anteriores a i ya no se van a leer, para que una
+	 * fuente en streaming pueda liberarlos.
+	 */
+	default void discardBefore(int i) {
+	}
+
+	TokenType type(int i);
+
+	String lexeme(int i);
+
+	/** Id del lexema en {@link Interner#COMPARTIDO}; los almacenes lo guardan al escanear. */
+	default int symbolId(int i) {
+		return Interner.COMPARTIDO.intern(lexeme(i));
+	}
+
+	/** Compara el lexema sin crear un String. */
+	boolean lexemeEquals(int i, String otro);
+
+	int line(int i);
+
+	/** Posición del token para los mensajes de diagnóstico. */
+	default String position(int i) {
+		return "línea " + line(i);
+	}
+
+	int intValue(int i);
+
+	/**
+	 * Índice del delimitador que cierra (o abre) el paréntesis, llave o
+	 * corchete i, o -1 si no tiene pareja o no es un delimitador.
+	 */
+	int partner(int i);
+
+	/** Literal con la misma forma que Token.literal (creado bajo demanda). */
+	Object literal(int i);
+
+	/** Materializa el token i como objeto, para el código que aún trabaja con Token. */
+	default Token get(int i) {
+		return new Token(type(i), lexeme(i), literal(i), line(i));
+	}
+}
@@ -0,0 +1,287 @@
+package lexico;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola circular acotada de un productor (el Scanner) y un consumidor (el
+ * Parser), sin locks: cada lado publica su avance con una escritura volátil
+ * y el otro la lee antes de tocar los casilleros.
+ *
+ * Para el consumidor es un TokenCursor indexado por posición absoluta. Los
+ * tokens ya consumidos se conservan hasta que él los descarta con
+ * {@link #discardBefore(int)}, lo que deja una ventana hacia atrás para las
+ * miradas al token anterior; al descartarlos se sueltan sus Strings, y
+ * leer uno descartado es un error en lugar de devolver lo que haya
+ * ocupado su casillero. Hacia adelante, {@link #has(int)} espera a que el
+ * Scanner llegue; si el consumidor pide más allá de la capacidad, el
+ * productor agranda la cola en lugar de esperar.
+ */
+final class TokenRing implements TokenSink, TokenCursor {
+	private static final TokenType[] TIPOS = TokenType.values();
+	static final int CAPACIDAD_POR_DEFECTO = 1 << 14;
+	private static final int GIROS_ANTES_DE_DORMIR = 256;
+	private static final long ESPERA_NANOS = 20_000;
+	// Apertura cuyo cierre todavía no llegó
+	private static final long PENDIENTE = -2;
+
+	/** Casilleros de la cola; se reemplazan enteros al crecer. */
+	private static final class Almacen {
+		final int mascara;
+		final byte[] tipos;
+		final int[] lineas;
+		final String[] lexemas;
+		final long[] numeros;          // literal, id internado o pareja del delimitador
+		final String[] mensajes;
+
+		Almacen(int capacidad) {
+			mascara = capacidad - 1;
+			tipos = new byte[capacidad];
+			lineas = new int[capacidad];
+			lexemas = new String[capacidad];
+			numeros = new long[capacidad];
+			mensajes = new String[capacidad];
+		}
+
+		int capacidad() {
+			return mascara + 1;
+		}
+	}
+
+	private volatile Almacen almacen;
+
+	// Escritos solo por el productor
+	private final Delimitadores delimitadores = new Delimitadores();
+	private volatile int producidos = 0;
+	private volatile boolean terminado = false;
+	private volatile Throwable falla;
+	private volatile int erroresLexicos = 0;
+
+	// Escritos solo por el consumidor
+	private volatile int liberados = 0;
+	private volatile int demanda = 0;
+	private volatile boolean cancelado = false;
+
+	TokenRing() {
+		this(CAPACIDAD_POR_DEFECTO);
+	}
+
+	TokenRing(int capacidad) {
+		this.almacen = new Almacen(Integer.highestOneBit(Math.max(capacidad, 16) - 1) << 1);
+	}
+
+	// =============================================================================
+	// PRODUCTOR
+	// =============================================================================
+
+	@Override
+	public void add(TokenType type, char[] fuente, int desde, int largo, long offset, int line, long numero, String mensaje) {
+		int n = producidos;
+		Almacen a = esperarLugar(n);
+
+		int slot = n & a.mascara;
+		a.tipos[slot] = (byte) type.ordinal();
+		a.lineas[slot] = line;
+		if (Interner.seInterna(type)) {
+			int id = Interner.COMPARTIDO.intern(fuente, desde, largo);
+			a.lexemas[slot] = Interner.COMPARTIDO.texto(id);
+			a.numeros[slot] = id;
+		} else if (Delimitadores.esDelimitador(type)) {
+			a.lexemas[slot] = new String(fuente, desde, largo);
+			a.numeros[slot] = emparejar(a, type, n);
+		} else {
+			a.lexemas[slot] = new String(fuente, desde, largo);
+			a.numeros[slot] = numero;
+		}
+		a.mensajes[slot] = mensaje;
+
+		if (type == TokenType.ERROR) erroresLexicos++;
+		producidos = n + 1;
+	}
+
+	@Override
+	public void addTrivia(TokenType type, char[] fuente, int desde, int largo, long offset) {
+		// El Parser no usa los comentarios: en modo pipeline se descartan
+	}
+
+	/**
+	 * Pareja del delimitador n al publicarlo. Un cierre completa también el
+	 * casillero de su apertura, salvo que ya se haya reutilizado (la
+	 * apertura fue descartada hace tiempo y nadie la va a consultar).
+	 */
+	private long emparejar(Almacen a, TokenType type, int n) {
+		int apertura = delimitadores.registrar(type, n);
+		if (apertura == Delimitadores.SIN_PAREJA) {
+			return Delimitadores.esApertura(type) ? PENDIENTE : Delimitadores.SIN_PAREJA;
+		}
+		if (n - apertura < a.capacidad()) a.numeros[apertura & a.mascara] = n;
+		return apertura;
+	}
+
+	/** Lo llama el hilo del Scanner al terminar, con la excepción si falló. */
+	void cerrar(Throwable error) {
+		falla = error;
+		terminado = true;
+	}
+
+	private Almacen esperarLugar(int n) {
+		int giros = 0;
+		while (true) {
+			if (cancelado) throw new CancellationException();
+			Almacen a = almacen;
+			if (n - liberados < a.capacidad()) return a;
+			if (demanda > n) return crecer(a, n);
+			giros = esperar(giros);
+		}
+	}
+
+	/** El consumidor espera un token que no cabe: se duplica la cola conservando lo retenido. */
+	private Almacen crecer(Almacen viejo, int n) {
+		Almacen nuevo = new Almacen(viejo.capacidad() * 2);
+		for (int i = liberados; i < n; i++) {
+			int de = i & viejo.mascara;
+			int a = i & nuevo.mascara;
+			nuevo.tipos[a] = viejo.tipos[de];
+			nuevo.lineas[a] = viejo.lineas[de];
+			nuevo.lexemas[a] = viejo.lexemas[de];
+			nuevo.numeros[a] = viejo.numeros[de];
+			nuevo.mensajes[a] = viejo.mensajes[de];
+		}
+		almacen = nuevo;
+		return nuevo;
+	}
+
+	// =============================================================================
+	// CONSUMIDOR
+	// =============================================================================
+
+	@Override
+	public boolean has(int i) {
+		int giros = 0;
+		while (producidos <= i) {
+			if (terminado) {
+				// Releer: el último token puede haberse publicado justo antes de terminar
+				if (falla != null) throw new IllegalStateException("Falló el análisis léxico", falla);
+				return i < producidos;
+			}
+			if (demanda <= i) demanda = i + 1;
+			giros = esperar(giros);
+		}
+		return true;
+	}
+
+	/** Cantidad total de tokens: espera a que el Scanner termine. */
+	@Override
+	public int size() {
+		has(Integer.MAX_VALUE - 1);
+		return producidos;
+	}
+
+	/** Suelta los lexemas y mensajes antes de publicar el avance: después el casillero es del productor. */
+	@Override
+	public void discardBefore(int i) {
+		int hasta = Math.min(i, producidos);
+		int desde = liberados;
+		if (hasta <= desde) return;
+		Almacen a = almacen;
+		for (int k = desde; k < hasta; k++) {
+			a.lexemas[k & a.mascara] = null;
+			a.mensajes[k & a.mascara] = null;
+		}
+		liberados = hasta;
+	}
+
+	/** Tokens ERROR producidos hasta ahora. */
+	int lexicalErrors() {
+		return erroresLexicos;
+	}
+
+	/** El consumidor ya no leerá más: el productor deja de esperar y se detiene. */
+	void cancelar() {
+		cancelado = true;
+		liberados = Integer.MAX_VALUE;
+	}
+
+	private Almacen leer(int i) {
+		if (!has(i)) throw new IndexOutOfBoundsException("Token " + i + " fuera del fuente");
+		if (i < liberados) throw new IndexOutOfBoundsException("Token " + i + " ya descartado");
+		return almacen;
+	}
+
+	@Override
+	public TokenType type(int i) {
+		Almacen a = leer(i);
+		return TIPOS[a.tipos[i & a.mascara]];
+	}
+
+	@Override
+	public String lexeme(int i) {
+		Almacen a = leer(i);
+		return a.lexemas[i & a.mascara];
+	}
+
+	@Override
+	public boolean lexemeEquals(int i, String otro) {
+		return lexeme(i).equals(otro);
+	}
+
+	/**
+	 * Si i es una apertura cuyo cierre aún no se produjo, espera token a
+	 * token hasta verlo o hasta que el Scanner termine sin cerrarla.
+	 */
+	@Override
+	public int partner(int i) {
+		for (int k = i + 1; ; k++) {
+			Almacen a = leer(i);
+			int slot = i & a.mascara;
+			if (!Delimitadores.esDelimitador(TIPOS[a.tipos[slot]])) return Delimitadores.SIN_PAREJA;
+			long pareja = a.numeros[slot];
+			if (pareja != PENDIENTE) return (int) pareja;
+			if (!has(k)) return Delimitadores.SIN_PAREJA;
+		}
+	}
+
+	@Override
+	public int symbolId(int i) {
+		Almacen a = leer(i);
+		int slot = i & a.mascara;
+		if (Interner.seInterna(TIPOS[a.tipos[slot]])) return (int) a.numeros[slot];
+		return Interner.COMPARTIDO.intern(a.lexemas[slot]);
+	}
+
+	@Override
+	public int line(int i) {
+		Almacen a = leer(i);
+		return a.lineas[i & a.mascara];
+	}
+
+	@Override
+	public int intValue(int i) {
+		Almacen a = leer(i);
+		return (int) a.numeros[i & a.mascara];
+	}
+
+	@Override
+	public Object literal(int i) {
+		Almacen a = leer(i);
+		int slot = i & a.mascara;
+		long numero = a.numeros[slot];
+		switch (TIPOS[a.tipos[slot]]) {
+			case ENTERO: return (int) numero;
+			case REAL: return Double.longBitsToDouble(numero);
+			case CHAR: return (char) numero;
+			case STRING: return a.lexemas[slot].substring(1, a.lexemas[slot].length() - 1);
+			case ERROR: return a.mensajes[slot];
+			default: return null;
+		}
+	}
+
+	private static int esperar(int giros) {
+		if (giros < GIROS_ANTES_DE_DORMIR) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(ESPERA_NANOS);
+		}
+		return giros + 1;
+	}
+}
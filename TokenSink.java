@@ -0,0 +1,17 @@
+package lexico;
+
+/**
+ * Destino de los tokens que produce el Scanner en modo columnar. Permite
+ * cambiar el almacenamiento (en heap o fuera de él) sin tocar el lexer.
+ */
+interface TokenSink {
+	/**
+	 * Agrega un token copiando su lexema desde {@code fuente}. {@code numero}
+	 * lleva el valor de ENTERO (int), REAL (bits del double) o CHAR; {@code
+	 * mensaje} el texto de los tokens ERROR.
+	 */
+	void add(TokenType type, char[] fuente, int desde, int largo, long offset, int line, long numero, String mensaje);
+
+	/** Agrega un comentario a la tabla de trivia, fuera de la secuencia de tokens. */
+	void addTrivia(TokenType type, char[] fuente, int desde, int largo, long offset);
+}
@@ -0,0 +1,341 @@
+package lexico;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traza del Parser. El Parser anota eventos compactos (tipo, ids de símbolo
+ * y producción, índice y línea del token, a lo sumo un mensaje) en un único
+ * registro que se reutiliza, y los sumideros deciden qué hacer con él: la
+ * consola y el archivo lo formatean en el momento, el anillo copia los
+ * campos y solo formatea si se lo vuelca. Cada evento tiene un nivel
+ * mínimo; por debajo de él, o sin sumideros, el Parser no llega a armar
+ * ni un String (pregunta con {@link #registra} antes de construir mensajes).
+ *
+ * Niveles: APAGADA no anota nada; RESUMEN, el veredicto, los errores y
+ * advertencias semánticos y el reporte final; ACCIONES, además, cada match,
+ * derivación y acción semántica; COMPLETA, además, la tabla PILA/ENTRADA de
+ * cada paso y la depuración de expresiones (la salida de siempre).
+ *
+ * Con APAGADA ni el veredicto se imprime: el resultado queda solo en el
+ * código de salida del analizador (65 ante errores de sintaxis o
+ * semánticos), así que hay que leerlo junto con ella.
+ */
+final class Traza {
+    enum Nivel { APAGADA, RESUMEN, ACCIONES, COMPLETA }
+
+    // Tipos de evento
+    static final int ENCABEZADO = 0;
+    static final int PASO = 1;
+    static final int MATCH = 2;
+    static final int DERIVACION = 3;
+    static final int EXPANSION = 4;
+    static final int ERROR_SINTAXIS = 5;
+    static final int ACEPTADA = 6;
+    static final int ACCION_SEMANTICA = 7;
+    static final int ERROR_SEMANTICO = 8;
+    static final int WARNING = 9;
+    static final int DEPURACION = 10;
+    static final int REPORTE = 11;
+
+    private static final Nivel[] NIVEL_DE_EVENTO = {
+            Nivel.COMPLETA, Nivel.COMPLETA, Nivel.ACCIONES, Nivel.ACCIONES, Nivel.ACCIONES,
+            Nivel.RESUMEN, Nivel.RESUMEN, Nivel.ACCIONES, Nivel.RESUMEN, Nivel.RESUMEN,
+            Nivel.COMPLETA, Nivel.RESUMEN,
+    };
+
+    /** Lo que un sumidero puede consultar del Parser al formatear. */
+    interface Vista {
+        String simbolo(int id);
+
+        String produccion(int produccion);
+
+        /** Pila desde el tope, recortada para la columna PILA. */
+        String pila();
+
+        /** Resto de la entrada, recortado para la columna ENTRADA. */
+        String entrada();
+    }
+
+    /** Evento en curso; solo es válido durante {@link Sumidero#registrar}. */
+    static final class Evento {
+        int tipo;
+        int simbolo;       // terminal del match, no terminal de la derivación
+        int produccion;    // producción aplicada; en una expansión, los pasos que resume
+        int indice;        // token actual
+        int linea;
+        int[] segmento;    // expansión: lo que reemplaza al no terminal
+        String mensaje;    // acción semántica, error, depuración o reporte
+    }
+
+    interface Sumidero {
+        void registrar(Evento evento, Vista vista);
+
+        default void cerrar() {
+        }
+    }
+
+    private final Nivel nivel;
+    private final List<Sumidero> sumideros = new ArrayList<>();
+    private final Evento evento = new Evento();
+    private Vista vista;
+
+    Traza(Nivel nivel) {
+        this.nivel = nivel;
+    }
+
+    /** La traza de siempre: nivel completo en la salida estándar. */
+    static Traza porDefecto() {
+        return new Traza(Nivel.COMPLETA).agregar(new Consola(System.out, true));
+    }
+
+    Traza agregar(Sumidero sumidero) {
+        sumideros.add(sumidero);
+        return this;
+    }
+
+    void conectar(Vista vista) {
+        this.vista = vista;
+    }
+
+    Nivel nivel() {
+        return nivel;
+    }
+
+    /** Si vale la pena armar un evento de ese nivel. */
+    boolean registra(Nivel minimo) {
+        return nivel.compareTo(minimo) >= 0 && !sumideros.isEmpty();
+    }
+
+    void cerrar() {
+        for (Sumidero sumidero : sumideros) sumidero.cerrar();
+    }
+
+    // =============================================================================
+    // EVENTOS
+    // =============================================================================
+
+    void encabezado() {
+        emitir(ENCABEZADO, -1, -1, -1, -1, null, null);
+    }
+
+    void paso(int indice) {
+        emitir(PASO, -1, -1, indice, -1, null, null);
+    }
+
+    void match(int terminal, int indice, int linea) {
+        emitir(MATCH, terminal, -1, indice, linea, null, null);
+    }
+
+    void derivacion(int noTerminal, int produccion, int indice, int linea) {
+        emitir(DERIVACION, noTerminal, produccion, indice, linea, null, null);
+    }
+
+    void expansion(int noTerminal, int primera, int pasos, int[] segmento, int indice, int linea) {
+        if (pasos == 1) {
+            emitir(DERIVACION, noTerminal, primera, indice, linea, null, null);
+        } else {
+            emitir(EXPANSION, noTerminal, pasos, indice, linea, segmento, null);
+        }
+    }
+
+    void errorSintaxis(int indice, int linea) {
+        errorSintaxis(indice, linea, null);
+    }
+
+    /** Con detalle (qué se encontró y qué se esperaba) cuando el Parser se recupera del error. */
+    void errorSintaxis(int indice, int linea, String detalle) {
+        emitir(ERROR_SINTAXIS, -1, -1, indice, linea, null, detalle);
+    }
+
+    void aceptada() {
+        emitir(ACEPTADA, -1, -1, -1, -1, null, null);
+    }
+
+    void mensaje(int tipo, String mensaje) {
+        emitir(tipo, -1, -1, -1, -1, null, mensaje);
+    }
+
+    private void emitir(int tipo, int simbolo, int produccion, int indice, int linea, int[] segmento, String mensaje) {
+        if (!registra(NIVEL_DE_EVENTO[tipo])) return;
+        evento.tipo = tipo;
+        evento.simbolo = simbolo;
+        evento.produccion = produccion;
+        evento.indice = indice;
+        evento.linea = linea;
+        evento.segmento = segmento;
+        evento.mensaje = mensaje;
+        for (Sumidero sumidero : sumideros) sumidero.registrar(evento, vista);
+    }
+
+    // =============================================================================
+    // SUMIDEROS
+    // =============================================================================
+
+    /**
+     * Formatea cada evento en el momento. Con ANSI es exactamente la salida
+     * de consola de siempre; sin ANSI sirve para escribir a un archivo.
+     */
+    static final class Consola implements Sumidero {
+        private final PrintStream out;
+        private final boolean ansi;
+        // Se imprimieron las columnas PILA y ENTRADA y falta la ACCIÓN
+        private boolean filaAbierta = false;
+
+        Consola(PrintStream out, boolean ansi) {
+            this.out = out;
+            this.ansi = ansi;
+        }
+
+        @Override
+        public void registrar(Evento e, Vista vista) {
+            switch (e.tipo) {
+                case ENCABEZADO:
+                    out.println("═".repeat(140));
+                    out.printf(negrita("%-35s %-70s %-35s%n"), "PILA", "ENTRADA", "ACCIÓN");
+                    out.println("═".repeat(140));
+                    break;
+                case PASO:
+                    out.printf("%-35s %-70s ", vista.pila(), vista.entrada());
+                    filaAbierta = true;
+                    return;
+                case MATCH:
+                    if (filaAbierta) {
+                        out.println();
+                    } else {
+                        out.println("match " + vista.simbolo(e.simbolo) + " (línea " + e.linea + ")");
+                    }
+                    break;
+                case DERIVACION:
+                    out.printf(negrita("%s -> %s%n"), vista.simbolo(e.simbolo), textoProduccion(vista, e.produccion));
+                    break;
+                case EXPANSION:
+                    out.printf(negrita("%s =>* %s (%d pasos)%n"), vista.simbolo(e.simbolo),
+                            textoSegmento(vista, e.segmento), e.produccion);
+                    break;
+                case ERROR_SINTAXIS:
+                    if (e.mensaje != null) {
+                        out.println((filaAbierta ? "\n\n" : "\n") + "error de sintaxis (línea " + e.linea + "): " + e.mensaje);
+                    } else {
+                        out.println(filaAbierta ? "\n\nerror de sintaxis" : "\nerror de sintaxis (línea " + e.linea + ")");
+                    }
+                    break;
+                case ACEPTADA:
+                    out.println((filaAbierta ? "\n\n" : "\n") + "ANÁLISIS SINTÁCTICO CORRECTO");
+                    break;
+                case ACCION_SEMANTICA:
+                    out.println("\n   >>> [Accion Semantica] " + e.mensaje);
+                    break;
+                case ERROR_SEMANTICO:
+                    out.println("\n   >>> [Accion Semantica] [ERROR] " + e.mensaje);
+                    break;
+                case WARNING:
+                    out.println("\n   >>> [Accion Semantica] [WARNING] " + e.mensaje);
+                    break;
+                case DEPURACION:
+                case REPORTE:
+                    out.print(e.mensaje);
+                    break;
+                default:
+                    break;
+            }
+            filaAbierta = false;
+        }
+
+        @Override
+        public void cerrar() {
+            out.flush();
+            if (out != System.out && out != System.err) out.close();
+        }
+
+        private String negrita(String formato) {
+            return ansi ? "\033[1m" + formato + "\033[0m" : formato;
+        }
+    }
+
+    /**
+     * Guarda los últimos eventos sin formatearlos (tipo, ids, línea y la
+     * referencia al mensaje) y los formatea solo al volcarlos, p. ej.
+     * después de un error de sintaxis. Los pasos (columnas PILA/ENTRADA)
+     * no se guardan: dependen del estado del Parser en ese momento.
+     */
+    static final class Anillo implements Sumidero {
+        private final int[] tipos;
+        private final int[] simbolos;
+        private final int[] producciones;
+        private final int[] lineas;
+        private final String[] mensajes;
+        private long total = 0;
+        private Vista vista;
+
+        Anillo(int capacidad) {
+            tipos = new int[capacidad];
+            simbolos = new int[capacidad];
+            producciones = new int[capacidad];
+            lineas = new int[capacidad];
+            mensajes = new String[capacidad];
+        }
+
+        @Override
+        public void registrar(Evento e, Vista vista) {
+            if (e.tipo == PASO || e.tipo == ENCABEZADO || e.tipo == REPORTE) return;
+            this.vista = vista;
+            int k = (int) (total++ % tipos.length);
+            tipos[k] = e.tipo;
+            simbolos[k] = e.simbolo;
+            producciones[k] = e.produccion;
+            lineas[k] = e.linea;
+            mensajes[k] = e.mensaje;
+        }
+
+        /** Eventos retenidos, del más viejo al más nuevo, una línea cada uno. */
+        void volcar(PrintStream out) {
+            long desde = Math.max(0, total - tipos.length);
+            out.println("Últimos " + (total - desde) + " eventos de " + total + ":");
+            for (long n = desde; n < total; n++) {
+                int k = (int) (n % tipos.length);
+                out.println("  " + formatear(k));
+            }
+        }
+
+        private String formatear(int k) {
+            String linea = lineas[k] >= 0 ? "[" + lineas[k] + "] " : "";
+            switch (tipos[k]) {
+                case MATCH:
+                    return linea + "match " + vista.simbolo(simbolos[k]);
+                case DERIVACION:
+                    return linea + vista.simbolo(simbolos[k]) + " -> " + textoProduccion(vista, producciones[k]);
+                case EXPANSION:
+                    return linea + vista.simbolo(simbolos[k]) + " =>* (" + producciones[k] + " pasos)";
+                case ERROR_SINTAXIS:
+                    return linea + "error de sintaxis" + (mensajes[k] != null ? ": " + mensajes[k] : "");
+                case ACEPTADA:
+                    return "ANÁLISIS SINTÁCTICO CORRECTO";
+                case ACCION_SEMANTICA:
+                    return "[Accion Semantica] " + mensajes[k];
+                case ERROR_SEMANTICO:
+                    return "[ERROR] " + mensajes[k];
+                case WARNING:
+                    return "[WARNING] " + mensajes[k];
+                default:
+                    return mensajes[k] != null ? mensajes[k].trim() : "";
+            }
+        }
+    }
+
+    private static String textoProduccion(Vista vista, int produccion) {
+        String texto = vista.produccion(produccion);
+        return TablaTAS.isEpsilon(texto) ? "&" : texto;
+    }
+
+    private static String textoSegmento(Vista vista, int[] segmento) {
+        if (segmento.length == 0) return "&";
+        StringBuilder sb = new StringBuilder();
+        for (int simbolo : segmento) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(vista.simbolo(simbolo));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package lexico;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Tabla lateral de comentarios ("trivia"). Los comentarios no entran en la
+ * secuencia de tokens que recorre el Parser: se guardan aquí como tramos
+ * (tipo, offset, largo) sobre un único char[], ordenados por offset.
+ *
+ * Un comentario queda asociado a los tokens vecinos por su posición: los que
+ * están entre el final de un token y el inicio del siguiente son los que
+ * preceden a ese siguiente token.
+ *
+ * El texto de cada comentario se copia una vez, al escanearlo, desde el
+ * buffer del Scanner: ese buffer se desliza sobre el fuente y no lo
+ * retiene, así que guardar solo (offset, largo) no alcanzaría para leerlo
+ * después. {@link #text} lo entrega como una vista de solo lectura sobre
+ * el arreglo, sin volver a copiarlo.
+ */
+final class TriviaTable {
+	private static final TokenType[] TIPOS = TokenType.values();
+
+	private byte[] tipos = new byte[16];
+	private long[] offsets = new long[16];
+	private int[] inicioTexto = new int[17];     // tamaño + 1, como en TokenBuffer
+
+	private char[] texto = new char[256];
+	private int size = 0;
+
+	void add(TokenType type, char[] fuente, int desde, int largo, long offset) {
+		if (size == tipos.length) {
+			int capacidad = size * 2;
+			tipos = Arrays.copyOf(tipos, capacidad);
+			offsets = Arrays.copyOf(offsets, capacidad);
+			inicioTexto = Arrays.copyOf(inicioTexto, capacidad + 1);
+		}
+		int largoTexto = inicioTexto[size];
+		if (largoTexto + largo > texto.length) {
+			texto = Arrays.copyOf(texto, Math.max(texto.length * 2, largoTexto + largo));
+		}
+		System.arraycopy(fuente, desde, texto, largoTexto, largo);
+
+		tipos[size] = (byte) type.ordinal();
+		offsets[size] = offset;
+		inicioTexto[size + 1] = largoTexto + largo;
+		size++;
+	}
+
+	/**
+	 * Copia los comentarios de {@code origen} con offset en [desde, hasta),
+	 * desplazados en {@code deltaOffset}. Deben quedar después de los que ya
+	 * hay en esta tabla.
+	 */
+	void appendRange(TriviaTable origen, long desde, long hasta, long deltaOffset) {
+		for (int k = origen.primeroDesde(desde); k < origen.size && origen.offsets[k] < hasta; k++) {
+			add(origen.type(k), origen.texto, origen.inicioTexto[k], origen.length(k), origen.offsets[k] + deltaOffset);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+
+	TokenType type(int k) {
+		return TIPOS[tipos[k]];
+	}
+
+	long offset(int k) {
+		return offsets[k];
+	}
+
+	int length(int k) {
+		return inicioTexto[k + 1] - inicioTexto[k];
+	}
+
+	/** Texto del comentario como vista de solo lectura, sin copia. */
+	CharBuffer text(int k) {
+		return CharBuffer.wrap(texto, inicioTexto[k], length(k)).asReadOnlyBuffer();
+	}
+
+	/** Primer comentario con offset >= {@code offset} (o size() si no hay). */
+	int primeroDesde(long offset) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (offsets[mid] < offset) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+}
@@ -0,0 +1,44 @@
+package lexico;
+
+import java.util.Random;
+
+/**
+ * Verifica que {@link IncrementalLexer} dé los mismos tokens que volver a
+ * escanear todo el fuente. Aplica ediciones al azar que insertan o borran
+ * trozos que abren y cierran comentarios, strings y líneas; cada una se
+ * re-escanea en forma incremental a partir del resultado de la anterior,
+ * así que un error también se arrastra.
+ */
+final class IncrementalLexerCheck implements Verificaciones.Verificacion {
+    private static final String[] FRAGMENTOS = {
+            "/*", "*/", "//", "\"", "'", "\n", " ", ":)", ":(", "adios", "12.5", "3.", ".", "7", "x",
+            "siCumple", "(", ")", "{", "}", "#", "a'b'",
+    };
+
+    @Override
+    public String correr(Verificaciones arnes) {
+        String texto = arnes.fuente();
+        int ediciones = arnes.casos(5000);
+        Random azar = arnes.azar();
+
+        TokenBuffer tokens = new Scanner(texto).scanBuffer();
+        for (int e = 0; e < ediciones; e++) {
+            int offset = azar.nextInt(texto.length() + 1);
+            int eliminados = Math.min(azar.nextInt(8), texto.length() - offset);
+            String insertado = azar.nextInt(3) == 0 ? "" : FRAGMENTOS[azar.nextInt(FRAGMENTOS.length)];
+            String nuevo = texto.substring(0, offset) + insertado + texto.substring(offset + eliminados);
+
+            TokenBuffer incremental = IncrementalLexer.relex(tokens, nuevo,
+                    new IncrementalLexer.Edicion(offset, eliminados, insertado));
+            TokenBuffer completo = new Scanner(nuevo).scanBuffer();
+            int i = completo.primeraDiferencia(incremental);
+            if (i >= 0) {
+                arnes.fallar(String.format("Edición %d (offset %d, %d eliminados, insertado \"%s\"): el token %d difiere del escaneo completo",
+                        e, offset, eliminados, insertado.replace("\n", "\\n"), i));
+            }
+            texto = nuevo;
+            tokens = incremental;
+        }
+        return "IncrementalLexer: mismos tokens que el escaneo completo en " + ediciones + " ediciones";
+    }
+}
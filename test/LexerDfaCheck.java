@@ -0,0 +1,52 @@
+package lexico;
+
+import java.util.Random;
+
+/**
+ * Verifica que el autómata de tabla ({@link LexerDfa}) dé los mismos tokens
+ * que el switch escrito a mano, errores léxicos incluidos: sobre el
+ * archivo, sobre variantes con caracteres sueltos insertados y sobre
+ * cadenas al azar del alfabeto de los tokens más algunos caracteres que
+ * ninguno acepta.
+ */
+final class LexerDfaCheck implements Verificaciones.Verificacion {
+    private static final String ALFABETO = "abcxyzAZ_09.5+-*/%<>=!&|:();{}[],'\" \t\n#@$ñá";
+
+    @Override
+    public String correr(Verificaciones arnes) {
+        String original = arnes.fuente();
+        int variantes = arnes.casos(20000);
+        Random azar = arnes.azar();
+
+        verificar(arnes, "el archivo", original);
+        for (int v = 0; v < variantes; v++) {
+            StringBuilder texto;
+            if (v % 2 == 0) {
+                texto = new StringBuilder(original);
+                for (int k = 1 + azar.nextInt(4); k > 0; k--) {
+                    texto.insert(azar.nextInt(texto.length() + 1), ALFABETO.charAt(azar.nextInt(ALFABETO.length())));
+                }
+            } else {
+                texto = new StringBuilder();
+                for (int k = 1 + azar.nextInt(40); k > 0; k--) {
+                    texto.append(ALFABETO.charAt(azar.nextInt(ALFABETO.length())));
+                }
+            }
+            verificar(arnes, "la variante " + v, texto.toString());
+        }
+        return "LexerDfa: mismos tokens que el switch en el archivo y " + variantes + " variantes";
+    }
+
+    private static void verificar(Verificaciones arnes, String nombre, String texto) {
+        int i = scan(texto, false).primeraDiferencia(scan(texto, true));
+        if (i >= 0) {
+            arnes.fallar(String.format("En %s el token %d difiere entre el switch y el autómata", nombre, i), texto);
+        }
+    }
+
+    private static TokenBuffer scan(String source, boolean dfa) {
+        Scanner scanner = new Scanner(source);
+        scanner.usarDfa(dfa);
+        return scanner.scanBuffer();
+    }
+}
@@ -0,0 +1,47 @@
+package lexico;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Verifica que {@link ParallelLexer} dé los mismos tokens que el escaneo
+ * secuencial. Usa tramos de pocos caracteres para que los cortes caigan
+ * dentro de comentarios multilínea, strings y números, sobre el archivo y
+ * sobre variantes al azar con comentarios y strings abiertos o cerrados
+ * en cualquier lugar.
+ */
+final class ParallelLexerCheck implements Verificaciones.Verificacion {
+    private static final int[] TAMANOS_TRAMO = {1, 16, 61, 256, 1024};
+    private static final String[] FRAGMENTOS = {"/*", "*/", "//", "\"", "'", "\n", "12.", "5", "adios:("};
+
+    @Override
+    public String correr(Verificaciones arnes) {
+        String original = arnes.fuente();
+        int variantes = arnes.casos(200);
+        Random azar = arnes.azar();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            String texto = original;
+            for (int v = 0; v <= variantes; v++) {
+                TokenBuffer secuencial = new Scanner(texto).scanBuffer();
+                for (int tamano : TAMANOS_TRAMO) {
+                    int i = secuencial.primeraDiferencia(ParallelLexer.scan(texto, pool, tamano));
+                    if (i >= 0) {
+                        arnes.fallar(String.format("Variante %d, tramos de %d: el token %d difiere del escaneo secuencial", v, tamano, i));
+                    }
+                }
+
+                texto = original;
+                for (int k = 1 + azar.nextInt(3); k > 0; k--) {
+                    int offset = azar.nextInt(texto.length() + 1);
+                    texto = texto.substring(0, offset) + FRAGMENTOS[azar.nextInt(FRAGMENTOS.length)] + texto.substring(offset);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return "ParallelLexer: mismos tokens que el escaneo secuencial en " + (variantes + 1)
+                + " fuentes y " + TAMANOS_TRAMO.length + " tamaños de tramo";
+    }
+}
@@ -0,0 +1,134 @@
+package lexico;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Verifica la recuperación de errores (--recover) contra el Parser sin ella:
+ * <ul>
+ * <li>en un programa con dos errores conocidos informa los dos, en sus
+ * líneas, y declara las variables de las sentencias posteriores;</li>
+ * <li>en los programas de Ejemplos.txt que el Parser acepta, recuperar no
+ * cambia nada: mismo veredicto y mismos mensajes;</li>
+ * <li>en variantes al azar con un token borrado, duplicado o reemplazado
+ * por ":)", el primer error es el mismo que informa el Parser sin
+ * recuperación, y el análisis termina.</li>
+ * </ul>
+ */
+final class RecoveryCheck implements Verificaciones.Verificacion {
+    private static final String CONOCIDO = String.join("\n",
+            "principalsito () {",
+            "    podriasCrear enterito x :)",
+            "    porfavor x = :)",
+            "    podriasCrear enterito y :)",
+            "    porfavor y = 3 + :)",
+            "    podriasCrear enterito z :)",
+            "}",
+            "");
+    private static final int[] LINEAS_CONOCIDAS = {3, 5};
+
+    private TablaAnalisis tabla;
+
+    @Override
+    public String correr(Verificaciones arnes) throws IOException {
+        int variantes = arnes.casos(2000);
+        Random azar = arnes.azar();
+        tabla = arnes.tabla();
+
+        Registro conocido = analizar(CONOCIDO, true);
+        if (conocido.aceptada || !Arrays.equals(conocido.lineasDeError(), LINEAS_CONOCIDAS)
+                || !conocido.declara("y") || !conocido.declara("z")) {
+            arnes.fallar("El programa con errores conocidos informa los errores en las líneas "
+                    + Arrays.toString(conocido.lineasDeError()) + " en lugar de " + Arrays.toString(LINEAS_CONOCIDAS)
+                    + " o no declara lo que sigue");
+        }
+
+        List<String> validos = new ArrayList<>();
+        for (String programa : arnes.fuente().split("(?m)^\\s*#\\s*$")) {
+            programa = programa.replaceAll("(?m)^=+\\s*$", "");
+            if (!programa.isBlank() && !tieneErroresLexicos(programa) && analizar(programa, false).aceptada) {
+                validos.add(programa);
+            }
+        }
+        for (String programa : validos) comparar(arnes, programa, "un ejemplo válido");
+
+        int probadas = 0;
+        for (int v = 0; v < variantes && !validos.isEmpty(); v++) {
+            String programa = validos.get(azar.nextInt(validos.size()));
+            TokenBuffer tokens = new Scanner(programa).scanBuffer();
+            int i = azar.nextInt(tokens.size());
+            int desde = (int) tokens.offset(i);
+            int hasta = desde + tokens.length(i);
+            String variante;
+            switch (azar.nextInt(3)) {
+                case 0: variante = programa.substring(0, desde) + programa.substring(hasta); break;
+                case 1: variante = programa.substring(0, hasta) + " " + programa.substring(desde); break;
+                default: variante = programa.substring(0, desde) + ":)" + programa.substring(hasta); break;
+            }
+            if (tieneErroresLexicos(variante)) continue;
+            comparar(arnes, variante, "la variante " + v);
+            probadas++;
+        }
+        return "Recuperación: errores conocidos en sus líneas, " + validos.size()
+                + " ejemplos válidos sin cambios y el mismo primer error en " + probadas + " variantes";
+    }
+
+    /** Sin errores de sintaxis, lo mismo con y sin recuperación; con errores, el mismo primero. */
+    private void comparar(Verificaciones arnes, String programa, String nombre) {
+        Registro sin = analizar(programa, false);
+        Registro con = analizar(programa, true);
+        boolean iguales;
+        if (sin.aceptada) {
+            iguales = con.aceptada && con.eventos.equals(sin.eventos);
+        } else {
+            iguales = !con.aceptada && !con.errores.isEmpty() && !sin.errores.isEmpty()
+                    && con.errores.get(0)[0] == sin.errores.get(0)[0] && con.errores.get(0)[1] == sin.errores.get(0)[1];
+        }
+        if (!iguales) arnes.fallar("En " + nombre + " la recuperación cambia el resultado del Parser", programa);
+    }
+
+    private static boolean tieneErroresLexicos(String programa) {
+        TokenBuffer tokens = new Scanner(programa).scanBuffer();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.type(i) == TokenType.ERROR) return true;
+        }
+        return false;
+    }
+
+    private Registro analizar(String programa, boolean recuperar) {
+        Parser parser = new Parser();
+        parser.usarTabla(tabla);
+        parser.recuperarErrores(recuperar);
+        Registro registro = new Registro();
+        parser.usarTraza(new Traza(Traza.Nivel.RESUMEN).agregar(registro));
+        registro.aceptada = parser.analizar(new Scanner(programa).scanBuffer());
+        return registro;
+    }
+
+    /** Lo que el Parser anota en el nivel de resumen: veredicto, errores, advertencias y reporte. */
+    private static final class Registro implements Traza.Sumidero {
+        boolean aceptada;
+        final List<String> eventos = new ArrayList<>();
+        final List<int[]> errores = new ArrayList<>();    // índice y línea del token
+        String reporte = "";
+
+        @Override
+        public void registrar(Traza.Evento evento, Traza.Vista vista) {
+            eventos.add(evento.tipo + " " + evento.mensaje);
+            if (evento.tipo == Traza.ERROR_SINTAXIS) errores.add(new int[]{evento.indice, evento.linea});
+            if (evento.tipo == Traza.REPORTE) reporte = evento.mensaje;
+        }
+
+        int[] lineasDeError() {
+            return errores.stream().mapToInt(error -> error[1]).toArray();
+        }
+
+        /** Si la tabla de identificadores del reporte tiene una fila para el nombre. */
+        boolean declara(String nombre) {
+            return reporte.lines().anyMatch(linea -> linea.startsWith(nombre + " "));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package lexico;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Punto de entrada de las verificaciones de equivalencia: cada una compara
+ * un camino optimizado con el que reemplaza, sobre Ejemplos.txt y sobre
+ * variantes al azar con semilla fija. El arnés lee el archivo, arma el
+ * generador al azar y corta con código 1 ante la primera diferencia, así
+ * que cada verificación solo dice qué compara.
+ *
+ * Uso: java lexico.Verificaciones [--archivo=X] [--casos=N] [--semilla=S]
+ * [--tabla=X.xlsx] [nombre...]; sin nombres corre todas.
+ */
+public class Verificaciones {
+    /** Una verificación: corre sobre el arnés y devuelve el resumen de lo que comprobó. */
+    interface Verificacion {
+        String correr(Verificaciones arnes) throws IOException;
+    }
+
+    private static final Map<String, Verificacion> TODAS = new LinkedHashMap<>();
+    static {
+        TODAS.put("incremental", new IncrementalLexerCheck());
+        TODAS.put("paralelo", new ParallelLexerCheck());
+        TODAS.put("dfa", new LexerDfaCheck());
+        TODAS.put("recuperacion", new RecoveryCheck());
+    }
+
+    private final String fuente;
+    private final int casos;
+    private final long semilla;
+    private final Path tabla;
+
+    private Verificaciones(String fuente, int casos, long semilla, Path tabla) {
+        this.fuente = fuente;
+        this.casos = casos;
+        this.semilla = semilla;
+        this.tabla = tabla;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String archivo = "Ejemplos.txt";
+        int casos = -1;
+        long semilla = 1;
+        String tabla = "TABLA_TAS_limpia_final.xlsx";
+        List<Verificacion> elegidas = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--archivo=")) {
+                archivo = arg.substring("--archivo=".length());
+            } else if (arg.startsWith("--casos=")) {
+                casos = Integer.parseInt(arg.substring("--casos=".length()));
+            } else if (arg.startsWith("--semilla=")) {
+                semilla = Long.parseLong(arg.substring("--semilla=".length()));
+            } else if (arg.startsWith("--tabla=")) {
+                tabla = arg.substring("--tabla=".length());
+            } else if (TODAS.containsKey(arg)) {
+                elegidas.add(TODAS.get(arg));
+            } else {
+                System.out.println("Uso: java Verificaciones [--archivo=X] [--casos=N] [--semilla=S] [--tabla=X.xlsx] "
+                        + "[" + String.join("|", TODAS.keySet()) + "]...");
+                System.exit(64);
+            }
+        }
+        if (elegidas.isEmpty()) elegidas.addAll(TODAS.values());
+
+        String fuente = Files.readString(Paths.get(archivo), Charset.defaultCharset());
+        Verificaciones arnes = new Verificaciones(fuente, casos, semilla, Paths.get(tabla));
+        for (Verificacion verificacion : elegidas) {
+            System.out.println(verificacion.correr(arnes));
+        }
+    }
+
+    /** El archivo de ejemplos, completo. */
+    String fuente() {
+        return fuente;
+    }
+
+    /** Cantidad de variantes o ediciones: la de --casos, o la propia de la verificación. */
+    int casos(int porDefecto) {
+        return casos >= 0 ? casos : porDefecto;
+    }
+
+    /** Un generador nuevo con la semilla fija, para que cada verificación se repita sola. */
+    Random azar() {
+        return new Random(semilla);
+    }
+
+    TablaAnalisis tabla() throws IOException {
+        return TablaTAS.cargar(tabla);
+    }
+
+    /** Informa la diferencia y termina con código 1. */
+    void fallar(String mensaje) {
+        fallar(mensaje, null);
+    }
+
+    /** Como {@link #fallar(String)}, mostrando además el fuente si es corto. */
+    void fallar(String mensaje, String fuente) {
+        System.out.println("- " + mensaje);
+        if (fuente != null && fuente.length() <= 2000) {
+            System.out.println("  Fuente: \"" + fuente.replace("\n", "\\n").replace("\t", "\\t") + "\"");
+        }
+        System.exit(1);
+    }
+}